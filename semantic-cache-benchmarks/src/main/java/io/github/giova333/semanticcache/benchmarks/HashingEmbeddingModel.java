@@ -0,0 +1,58 @@
+package io.github.giova333.semanticcache.benchmarks;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic stand-in for a real embedding model, so benchmarks are reproducible offline.
+ * Every word and word bigram is hashed to a dimension and a sign, and the resulting vector is normalized,
+ * which keeps texts sharing most of their words close to each other.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimension;
+
+    public HashingEmbeddingModel(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        var embeddings = textSegments.stream()
+                .map(segment -> new Embedding(vectorize(segment.text().toLowerCase(Locale.ROOT))))
+                .toList();
+        return Response.from(embeddings);
+    }
+
+    private float[] vectorize(String text) {
+        var vector = new float[dimension];
+        var words = text.split("\\W+");
+        for (int i = 0; i < words.length; i++) {
+            add(vector, words[i].hashCode());
+            if (i > 0) {
+                add(vector, (words[i - 1] + ' ' + words[i]).hashCode());
+            }
+        }
+        double squaredNorm = 0;
+        for (float value : vector) {
+            squaredNorm += value * value;
+        }
+        if (squaredNorm > 0) {
+            float inverseNorm = (float) (1 / Math.sqrt(squaredNorm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= inverseNorm;
+            }
+        }
+        return vector;
+    }
+
+    private void add(float[] vector, int hash) {
+        int mixed = hash * 0x9E3779B9;
+        vector[Math.floorMod(mixed, dimension)] += (mixed & 0x8000_0000) == 0 ? 1 : -1;
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.giova333.semanticcache.benchmarks;
+
+import io.github.giova333.semanticcache.core.DefaultSemanticCache;
+import io.github.giova333.semanticcache.core.SemanticCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DefaultSemanticCache#get} and {@link DefaultSemanticCache#set} over the in-process stores,
+ * with a hashing embedding model so only the cache itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class SemanticCacheBenchmark {
+
+    @Param({"FLAT", "FLAT_INT8", "HNSW"})
+    Stores store;
+
+    @Param({"10000"})
+    int entries;
+
+    @Param({"384"})
+    int dimension;
+
+    SemanticCache semanticCache;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        semanticCache = new DefaultSemanticCache(new HashingEmbeddingModel(dimension), store.create(dimension));
+        var batch = new HashMap<String, String>();
+        for (int i = 0; i < entries; i++) {
+            batch.put(Stores.question(i), "answer " + i);
+            if (batch.size() == 1_000) {
+                semanticCache.setAll(batch);
+                batch.clear();
+            }
+        }
+        semanticCache.setAll(batch);
+    }
+
+    @Benchmark
+    public Optional<String> getHit() {
+        return semanticCache.get(Stores.question(next++ % entries));
+    }
+
+    @Benchmark
+    public Optional<String> getMiss() {
+        return semanticCache.get("how tall is the unknown tower number " + next++);
+    }
+
+    /**
+     * Writes go to a fresh cache every iteration, so the store does not grow with the number of invocations.
+     */
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 10_000)
+    @Measurement(iterations = 10, batchSize = 10_000)
+    @Benchmark
+    public void set(WriteState state) {
+        state.semanticCache.set(Stores.question(state.next++), "answer");
+    }
+
+    @State(Scope.Thread)
+    public static class WriteState {
+
+        SemanticCache semanticCache;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(SemanticCacheBenchmark benchmark) {
+            semanticCache = new DefaultSemanticCache(new HashingEmbeddingModel(benchmark.dimension), benchmark.store.create(benchmark.dimension));
+            next = 0;
+        }
+    }
+}
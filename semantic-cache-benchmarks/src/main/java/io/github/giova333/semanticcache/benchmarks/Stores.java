@@ -0,0 +1,73 @@
+package io.github.giova333.semanticcache.benchmarks;
+
+import io.github.giova333.semanticcache.core.VectorStore;
+import io.github.giova333.semanticcache.persistence.inmemory.FlatVectorStore;
+import io.github.giova333.semanticcache.persistence.inmemory.FlatVectorStoreProperties;
+import io.github.giova333.semanticcache.persistence.inmemory.HnswVectorStore;
+import io.github.giova333.semanticcache.persistence.inmemory.HnswVectorStoreProperties;
+
+import java.util.Random;
+
+/**
+ * In-process vector stores compared by the benchmarks, and the synthetic data they are filled with.
+ */
+public enum Stores {
+
+    FLAT {
+        @Override
+        VectorStore create(int dimension) {
+            return new FlatVectorStore(FlatVectorStoreProperties.builder()
+                    .vectorDimensionality(dimension)
+                    .similarityThreshold(SIMILARITY_THRESHOLD)
+                    .build());
+        }
+    },
+    FLAT_INT8 {
+        @Override
+        VectorStore create(int dimension) {
+            return new FlatVectorStore(FlatVectorStoreProperties.builder()
+                    .vectorDimensionality(dimension)
+                    .similarityThreshold(SIMILARITY_THRESHOLD)
+                    .quantization(FlatVectorStoreProperties.Quantization.INT8)
+                    .build());
+        }
+    },
+    HNSW {
+        @Override
+        VectorStore create(int dimension) {
+            return new HnswVectorStore(HnswVectorStoreProperties.builder()
+                    .vectorDimensionality(dimension)
+                    .similarityThreshold(SIMILARITY_THRESHOLD)
+                    .build());
+        }
+    };
+
+    static final double SIMILARITY_THRESHOLD = 0.9;
+
+    private static final String[] SUBJECTS = {"city", "river", "mountain", "company", "language", "planet", "painter", "country"};
+    private static final String[] QUALIFIERS = {"largest", "oldest", "most visited", "smallest", "most famous", "richest"};
+
+    abstract VectorStore create(int dimension);
+
+    /**
+     * @return a question that differs from the questions of other seeds by its subject, qualifier and number
+     */
+    static String question(int seed) {
+        return "which is the %s %s number %d".formatted(
+                QUALIFIERS[seed % QUALIFIERS.length], SUBJECTS[(seed / QUALIFIERS.length) % SUBJECTS.length], seed);
+    }
+
+    static float[] randomUnitVector(int dimension, Random random) {
+        var vector = new float[dimension];
+        double squaredNorm = 0;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+            squaredNorm += vector[i] * vector[i];
+        }
+        float inverseNorm = (float) (1 / Math.sqrt(squaredNorm));
+        for (int i = 0; i < dimension; i++) {
+            vector[i] *= inverseNorm;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.giova333.semanticcache.benchmarks;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link VectorStore#similaritySearch} of the in-process stores at different sizes, on random unit vectors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class VectorStoreBenchmark {
+
+    private static final int QUERIES = 1_024;
+
+    @Param({"FLAT", "FLAT_INT8", "HNSW"})
+    Stores store;
+
+    @Param({"10000", "50000"})
+    int entries;
+
+    @Param({"384"})
+    int dimension;
+
+    VectorStore vectorStore;
+    float[][] storedVectors;
+    float[][] unseenVectors;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        vectorStore = store.create(dimension);
+        storedVectors = new float[QUERIES][];
+        for (int i = 0; i < entries; i++) {
+            var vector = Stores.randomUnitVector(dimension, random);
+            vectorStore.save(new VectorDocument(vector, "key" + i, "value" + i));
+            if (i < QUERIES) {
+                storedVectors[i] = vector;
+            }
+        }
+        unseenVectors = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            unseenVectors[i] = Stores.randomUnitVector(dimension, random);
+        }
+    }
+
+    @Benchmark
+    public Optional<VectorDocument> searchHit() {
+        return vectorStore.similaritySearch(storedVectors[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public Optional<VectorDocument> searchMiss() {
+        return vectorStore.similaritySearch(unseenVectors[next++ & (QUERIES - 1)]);
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of scoring one stored vector against a query with the scalar and SIMD kernels and with INT8 codes.
+ * The SIMD kernel is only picked up when the forked JVM runs with {@code --add-modules jdk.incubator.vector}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class SimilarityScoringBenchmark {
+
+    @Param({"384", "1536"})
+    int dimension;
+
+    VectorKernel scalarKernel = new ScalarVectorKernel();
+    VectorKernel preferredKernel = VectorKernel.preferred();
+    float[] query;
+    float[] stored;
+    ScalarQuantizer.Query quantizedQuery;
+    byte[] codes;
+    float codesNorm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        query = new float[dimension];
+        stored = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            query[i] = (float) random.nextGaussian();
+            stored[i] = (float) random.nextGaussian();
+        }
+        var quantizer = ScalarQuantizer.calibrate(stored, 1, dimension);
+        codes = new byte[dimension];
+        quantizer.encode(stored, 0, codes, 0);
+        codesNorm = quantizer.norm(codes, 0);
+        quantizedQuery = quantizer.query(query);
+    }
+
+    @Benchmark
+    public float scalarDot() {
+        return scalarKernel.dot(query, 0, stored, 0, dimension);
+    }
+
+    @Benchmark
+    public float preferredDot() {
+        return preferredKernel.dot(query, 0, stored, 0, dimension);
+    }
+
+    @Benchmark
+    public float preferredSquaredDistance() {
+        return preferredKernel.squaredDistance(query, 0, stored, 0, dimension);
+    }
+
+    @Benchmark
+    public float int8CosineDistance() {
+        return ScalarQuantizer.distance(MetricType.COSINE, quantizedQuery, codes, 0, codesNorm);
+    }
+}
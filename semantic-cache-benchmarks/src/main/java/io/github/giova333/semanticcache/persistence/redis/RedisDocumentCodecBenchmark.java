@@ -0,0 +1,86 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import com.google.gson.Gson;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.search.Document;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side cost of writing a document to and reading a hit from {@link RedisVectorStore} in each storage mode,
+ * without a Redis server. Encoding JSON measures the Gson serialization Jedis performs for {@code JSON.SET}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisDocumentCodecBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    @Param({"384", "1536"})
+    int dimension;
+
+    @Param({"FLOAT32", "FLOAT16"})
+    RedisVectorStoreProperties.VectorType vectorType;
+
+    VectorDocument document;
+    HashDocumentCodec hashCodec;
+    Document jsonSearchHit;
+    Document hashSearchHit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        var vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian() / 20;
+        }
+        document = new VectorDocument(vector, "which is the largest city in the USA by population", "New York");
+        hashCodec = new HashDocumentCodec(vectorType);
+        jsonSearchHit = new Document("embedding:1", Map.of(
+                RedisSchema.VECTOR_FIELD_NAME, GSON.toJson(vector),
+                RedisSchema.KEY_FIELD_NAME, document.key(),
+                RedisSchema.VALUE_FIELD_NAME, document.value()));
+        hashSearchHit = new Document("embedding:1", Map.of(
+                RedisSchema.VECTOR_FIELD_NAME, VectorEncoding.encode(vectorType, vector),
+                RedisSchema.KEY_FIELD_NAME, document.key(),
+                RedisSchema.VALUE_FIELD_NAME, document.value()));
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return GSON.toJson(JsonDocumentCodec.toFields(document));
+    }
+
+    @Benchmark
+    public VectorDocument decodeJson() {
+        return JsonDocumentCodec.INSTANCE.read(jsonSearchHit);
+    }
+
+    @Benchmark
+    public Map<byte[], byte[]> encodeHash() {
+        return hashCodec.toFields(document);
+    }
+
+    @Benchmark
+    public VectorDocument decodeHash() {
+        return hashCodec.read(hashSearchHit);
+    }
+}
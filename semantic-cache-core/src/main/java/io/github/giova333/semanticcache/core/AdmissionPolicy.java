@@ -0,0 +1,42 @@
+package io.github.giova333.semanticcache.core;
+
+/**
+ * Decides which values written to the cache are actually stored. A rejected write skips the embedding call
+ * and the vector store, so one-off prompts do not cost a write nor take space in the index.
+ */
+@FunctionalInterface
+public interface AdmissionPolicy {
+
+    AdmissionPolicy ADMIT_ALL = (namespace, key, value) -> true;
+
+    /**
+     * @param namespace namespace the value is written to, null for the default one
+     * @return true if the value should be stored
+     */
+    boolean admit(String namespace, String key, String value);
+
+    /**
+     * Called on every lookup of a key, before it is answered. Does nothing by default.
+     */
+    default void recordLookup(String namespace, String key) {
+    }
+
+    /**
+     * @return a policy that admits values admitted by both this policy and the other, and records lookups in both
+     */
+    default AdmissionPolicy and(AdmissionPolicy other) {
+        var self = this;
+        return new AdmissionPolicy() {
+            @Override
+            public boolean admit(String namespace, String key, String value) {
+                return self.admit(namespace, key, value) && other.admit(namespace, key, value);
+            }
+
+            @Override
+            public void recordLookup(String namespace, String key) {
+                self.recordLookup(namespace, key);
+                other.recordLookup(namespace, key);
+            }
+        };
+    }
+}
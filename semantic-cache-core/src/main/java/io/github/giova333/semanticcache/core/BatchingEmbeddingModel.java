@@ -0,0 +1,197 @@
+package io.github.giova333.semanticcache.core;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmbeddingModel} decorator that coalesces texts embedded concurrently by different threads
+ * into a single {@code embedAll} call, saving per request overhead and provider rate limits.
+ *
+ * <p>A batch is sent once the configured {@code window} has elapsed since its first text arrived or once it holds
+ * {@code maxBatchSize} texts. Identical texts in a batch are embedded once. Calls with at least {@code maxBatchSize}
+ * texts are already batched and go straight to the delegate. Callers block until their batch completes,
+ * and a failed batch fails every caller in it.</p>
+ *
+ * <p>Batches are collected by a background daemon thread, {@link #close()} stops it and fails the pending calls.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BatchingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    EmbeddingModel delegate;
+    EmbeddingBatchingProperties properties;
+    BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    Semaphore batchPermits;
+    ExecutorService batchExecutor;
+    Thread collector;
+
+    @NonFinal
+    volatile boolean closed;
+
+    public BatchingEmbeddingModel(EmbeddingModel delegate, EmbeddingBatchingProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.batchPermits = new Semaphore(properties.getMaxConcurrentBatches());
+        this.batchExecutor = Executors.newCachedThreadPool(runnable -> daemon(runnable, "semantic-cache-embedding-batch"));
+        this.collector = daemon(this::collect, "semantic-cache-embedding-collector");
+        this.collector.start();
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        if (textSegments.size() >= properties.getMaxBatchSize()) {
+            return delegate.embedAll(textSegments);
+        }
+        var requests = new ArrayList<Request>(textSegments.size());
+        for (TextSegment segment : textSegments) {
+            var request = new Request(segment, new CompletableFuture<>());
+            enqueue(request);
+            requests.add(request);
+        }
+        var embeddings = new ArrayList<Embedding>(requests.size());
+        for (Request request : requests) {
+            embeddings.add(await(request.result()));
+        }
+        return Response.from(embeddings);
+    }
+
+    /**
+     * Stops collecting batches and fails the calls that are still waiting for one.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        collector.interrupt();
+        batchExecutor.shutdown();
+        failPending();
+    }
+
+    private void enqueue(Request request) {
+        if (closed) {
+            throw new IllegalStateException("embedding model is closed");
+        }
+        queue.add(request);
+        // close() may have drained the queue before the request was added
+        if (closed) {
+            failPending();
+        }
+    }
+
+    private void collect() {
+        try {
+            while (!closed) {
+                batchPermits.acquire();
+                var batch = nextBatch();
+                try {
+                    batchExecutor.execute(() -> {
+                        try {
+                            send(batch);
+                        } finally {
+                            batchPermits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    batchPermits.release();
+                    fail(batch, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fails the requests already taken off the queue when interrupted by {@link #close()}, as they are no longer pending.
+     */
+    private List<Request> nextBatch() throws InterruptedException {
+        var batch = new ArrayList<Request>(properties.getMaxBatchSize());
+        try {
+            batch.add(queue.take());
+            long deadline = System.nanoTime() + properties.getWindow().toNanos();
+            while (batch.size() < properties.getMaxBatchSize()) {
+                queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() >= properties.getMaxBatchSize() || remaining <= 0) {
+                    break;
+                }
+                var request = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (request == null) {
+                    break;
+                }
+                batch.add(request);
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            fail(batch, new IllegalStateException("embedding model is closed"));
+            throw e;
+        }
+    }
+
+    private void send(List<Request> batch) {
+        var requestsByText = new LinkedHashMap<String, List<Request>>();
+        batch.forEach(request -> requestsByText.computeIfAbsent(request.segment().text(), ignored -> new ArrayList<>()).add(request));
+        var segments = requestsByText.values().stream()
+                .map(requests -> requests.get(0).segment())
+                .toList();
+        try {
+            var embeddings = delegate.embedAll(segments).content();
+            int i = 0;
+            for (List<Request> requests : requestsByText.values()) {
+                var embedding = embeddings.get(i++);
+                requests.forEach(request -> request.result().complete(embedding));
+            }
+        } catch (Throwable e) {
+            // also errors, which would otherwise leave the callers waiting forever
+            fail(batch, e);
+        }
+    }
+
+    private void failPending() {
+        var pending = new ArrayList<Request>();
+        queue.drainTo(pending);
+        fail(pending, new IllegalStateException("embedding model is closed"));
+    }
+
+    private static void fail(List<Request> requests, Throwable e) {
+        requests.forEach(request -> request.result().completeExceptionally(e));
+    }
+
+    private static Embedding await(CompletableFuture<Embedding> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private record Request(TextSegment segment, CompletableFuture<Embedding> result) {
+    }
+}
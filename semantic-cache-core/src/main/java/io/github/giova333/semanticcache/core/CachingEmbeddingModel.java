@@ -0,0 +1,118 @@
+package io.github.giova333.semanticcache.core;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link EmbeddingModel} decorator that remembers the embeddings of recently seen texts, so a {@code set} following
+ * a missed {@code get} for the same prompt does not pay for a second embedding call.
+ *
+ * <p>The cache is bounded by the configured {@code maxBytes} and evicts the least recently used
+ * texts first. Vectors are packed into a primitive arena rather than kept as separate {@link Embedding} objects,
+ * optionally quantized to one byte per dimension.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    /**
+     * Rough cost of a map entry, the boxed slot and the String header, on top of the key characters and the vector.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    EmbeddingModel delegate;
+    EmbeddingCacheProperties properties;
+    Map<String, Integer> slots = new LinkedHashMap<>(16, 0.75f, true);
+
+    @NonFinal
+    EmbeddingArena arena;
+    @NonFinal
+    long usedBytes;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, EmbeddingCacheProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        var embeddings = new Embedding[textSegments.size()];
+        var misses = new ArrayList<TextSegment>();
+        var missIndexes = new HashMap<String, List<Integer>>();
+
+        synchronized (this) {
+            for (int i = 0; i < textSegments.size(); i++) {
+                var text = textSegments.get(i).text();
+                var cached = load(text);
+                if (cached != null) {
+                    embeddings[i] = cached;
+                } else {
+                    var indexes = missIndexes.computeIfAbsent(text, ignored -> new ArrayList<>());
+                    if (indexes.isEmpty()) {
+                        misses.add(textSegments.get(i));
+                    }
+                    indexes.add(i);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return Response.from(Arrays.asList(embeddings));
+        }
+
+        var response = delegate.embedAll(misses);
+        var computed = response.content();
+        synchronized (this) {
+            for (int i = 0; i < misses.size(); i++) {
+                var text = misses.get(i).text();
+                var embedding = computed.get(i);
+                store(text, embedding.vector());
+                for (int index : missIndexes.get(text)) {
+                    embeddings[index] = embedding;
+                }
+            }
+        }
+        return Response.from(Arrays.asList(embeddings), response.tokenUsage(), response.finishReason());
+    }
+
+    private Embedding load(String text) {
+        var slot = slots.get(text);
+        return slot == null ? null : new Embedding(arena.load(slot));
+    }
+
+    private void store(String text, float[] vector) {
+        if (arena == null) {
+            arena = new EmbeddingArena(vector.length, properties.isQuantized());
+        }
+        if (vector.length != arena.dimension() || slots.containsKey(text)) {
+            return;
+        }
+        long entryBytes = entryBytes(text);
+        if (entryBytes > properties.getMaxBytes()) {
+            return;
+        }
+        var iterator = slots.entrySet().iterator();
+        while (usedBytes + entryBytes > properties.getMaxBytes() && iterator.hasNext()) {
+            var eldest = iterator.next();
+            arena.release(eldest.getValue());
+            usedBytes -= entryBytes(eldest.getKey());
+            iterator.remove();
+        }
+        slots.put(text, arena.store(vector));
+        usedBytes += entryBytes;
+    }
+
+    private long entryBytes(String text) {
+        return ENTRY_OVERHEAD_BYTES + 2L * text.length() + arena.slotBytes();
+    }
+}
@@ -1,38 +1,479 @@
 package io.github.giova333.semanticcache.core;
 
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
+import lombok.Builder;
 import lombok.experimental.FieldDefaults;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
-@RequiredArgsConstructor
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class DefaultSemanticCache implements SemanticCache {
 
     EmbeddingModel embeddingModel;
     VectorStore vectorStore;
+    ExactMatchCache exactMatchCache;
+    NegativeCache negativeCache;
+    Executor executor;
+    SemanticCacheInstrumentation instrumentation;
+    AdmissionPolicy admissionPolicy;
+    String namespace;
+    KeyNormalizer keyNormalizer = KeyNormalizer.standard();
+    Map<FlightKey, Flight> inFlight;
+
+    public DefaultSemanticCache(EmbeddingModel embeddingModel, VectorStore vectorStore) {
+        this(embeddingModel, vectorStore, null, null, null, null, null);
+    }
+
+    /**
+     * @param exactMatchCache optional tier checked before the key is embedded, may be null
+     * @param negativeCache   optional tier of recent misses checked before the key is embedded, may be null
+     * @param executor        runs the blocking embedding call of the async operations; defaults to virtual threads
+     *                        on JDK 21+ and to a cached pool of daemon threads on older JDKs
+     * @param instrumentation receives hit, miss and latency measurements, may be null
+     * @param admissionPolicy decides which written values are stored, may be null to store all of them
+     */
+    @Builder
+    private DefaultSemanticCache(EmbeddingModel embeddingModel,
+                                 VectorStore vectorStore,
+                                 ExactMatchCache exactMatchCache,
+                                 NegativeCache negativeCache,
+                                 Executor executor,
+                                 SemanticCacheInstrumentation instrumentation,
+                                 AdmissionPolicy admissionPolicy) {
+        this.embeddingModel = embeddingModel;
+        this.vectorStore = vectorStore;
+        this.exactMatchCache = exactMatchCache;
+        this.negativeCache = negativeCache;
+        this.executor = executor == null ? DefaultExecutorHolder.EXECUTOR : executor;
+        this.instrumentation = instrumentation == null ? SemanticCacheInstrumentation.NOOP : instrumentation;
+        this.admissionPolicy = admissionPolicy == null ? AdmissionPolicy.ADMIT_ALL : admissionPolicy;
+        this.namespace = null;
+        this.inFlight = new HashMap<>();
+    }
+
+    private DefaultSemanticCache(DefaultSemanticCache cache, String namespace) {
+        this.embeddingModel = cache.embeddingModel;
+        this.vectorStore = cache.vectorStore;
+        this.exactMatchCache = cache.exactMatchCache;
+        this.negativeCache = cache.negativeCache;
+        this.executor = cache.executor;
+        this.instrumentation = cache.instrumentation;
+        this.admissionPolicy = cache.admissionPolicy;
+        this.namespace = namespace;
+        this.inFlight = cache.inFlight;
+    }
+
+    /**
+     * The returned view shares the embedding model, the stores and the loader coalescing of this cache.
+     */
+    @Override
+    public SemanticCache namespace(String namespace) {
+        return Objects.equals(namespace, this.namespace) ? this : new DefaultSemanticCache(this, namespace);
+    }
 
     @Override
     public void set(String key, String value) {
-        var embedding = embeddingModel.embed(key);
-        vectorStore.save(new VectorDocument(embedding.content().vector(), key, value));
+        if (!admit(key, value)) {
+            return;
+        }
+        save(new VectorDocument(embed(key), key, value, namespace), null);
+        putExactMatch(key, value, null);
     }
 
     @Override
     public void set(String key, String value, Duration ttl) {
-        var embedding = embeddingModel.embed(key);
-        vectorStore.save(new VectorDocument(embedding.content().vector(), key, value), ttl);
+        if (!admit(key, value)) {
+            return;
+        }
+        save(new VectorDocument(embed(key), key, value, namespace), ttl);
+        putExactMatch(key, value, ttl);
     }
 
     @Override
     public Optional<String> get(String key) {
-        var embedding = embeddingModel.embed(key);
+        admissionPolicy.recordLookup(namespace, key);
+        var exactMatch = findExactMatch(key);
+        if (exactMatch.isPresent()) {
+            return exactMatch;
+        }
+        if (isRecentMiss(key)) {
+            return Optional.empty();
+        }
+
+        var vector = embed(key);
+        var document = rememberMiss(key, vector, search(vector));
+
+        return toValue(key, document);
+    }
+
+    @Override
+    public String get(String key, Function<String, String> loader, Duration ttl) {
+        admissionPolicy.recordLookup(namespace, key);
+        var exactMatch = findExactMatch(key);
+        if (exactMatch.isPresent()) {
+            return exactMatch.get();
+        }
+        var vector = embed(key);
+        // a recent miss skips the first search only, the flight leader searches again before loading
+        var document = isRecentMiss(key) ? Optional.<VectorDocument>empty() : search(vector);
+        if (document.isPresent()) {
+            return toValue(key, document).get();
+        }
+
+        var flightKey = new FlightKey(namespace, keyNormalizer.normalize(key));
+        var flight = new Flight(namespace, vector, new CompletableFuture<>());
+        var running = joinOrStart(flightKey, flight);
+        if (running != null) {
+            instrumentation.miss();
+            return await(running);
+        }
+
+        try {
+            // a previous leader may have stored the value between our lookup and registering the flight
+            var value = toValue(key, search(vector))
+                    .orElseGet(() -> load(key, vector, loader, ttl));
+            flight.result().complete(value);
+            return value;
+        } catch (Throwable e) {
+            // errors as well, the callers waiting for the flight would wait forever otherwise
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (inFlight) {
+                inFlight.remove(flightKey, flight);
+            }
+        }
+    }
+
+    @Override
+    public void setAll(Map<String, String> entries) {
+        var admitted = admitAll(entries);
+        saveAll(toVectorDocuments(admitted), null);
+        admitted.forEach((key, value) -> putExactMatch(key, value, null));
+    }
+
+    @Override
+    public void setAll(Map<String, String> entries, Duration ttl) {
+        var admitted = admitAll(entries);
+        saveAll(toVectorDocuments(admitted), ttl);
+        admitted.forEach((key, value) -> putExactMatch(key, value, ttl));
+    }
+
+    @Override
+    public List<Optional<String>> getAll(List<String> keys) {
+        var results = new ArrayList<Optional<String>>(keys.size());
+        var missedKeys = new ArrayList<String>();
+        var missedPositions = new ArrayList<Integer>();
+        for (int i = 0; i < keys.size(); i++) {
+            admissionPolicy.recordLookup(namespace, keys.get(i));
+            var exactMatch = findExactMatch(keys.get(i));
+            results.add(exactMatch);
+            if (exactMatch.isEmpty() && !isRecentMiss(keys.get(i))) {
+                missedKeys.add(keys.get(i));
+                missedPositions.add(i);
+            }
+        }
+        if (missedKeys.isEmpty()) {
+            return results;
+        }
+
+        var vectors = embedAll(missedKeys);
+        long start = System.nanoTime();
+        var documents = namespace == null
+                ? vectorStore.similaritySearchAll(vectors)
+                : vectorStore.similaritySearchAll(namespace, vectors);
+        instrumentation.searchDuration(System.nanoTime() - start);
+        for (int i = 0; i < missedKeys.size(); i++) {
+            var document = rememberMiss(missedKeys.get(i), vectors.get(i), documents.get(i));
+            results.set(missedPositions.get(i), toValue(missedKeys.get(i), document));
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value) {
+        if (!admit(key, value)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> new VectorDocument(embed(key), key, value, namespace), executor)
+                .thenCompose(document -> timed(() -> vectorStore.saveAsync(document), instrumentation::writeDuration)
+                        .thenRun(() -> forgetMisses(document)))
+                .thenRun(() -> putExactMatch(key, value, null));
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value, Duration ttl) {
+        if (!admit(key, value)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> new VectorDocument(embed(key), key, value, namespace), executor)
+                .thenCompose(document -> timed(() -> vectorStore.saveAsync(document, ttl), instrumentation::writeDuration)
+                        .thenRun(() -> forgetMisses(document)))
+                .thenRun(() -> putExactMatch(key, value, ttl));
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> getAsync(String key) {
+        admissionPolicy.recordLookup(namespace, key);
+        var exactMatch = findExactMatch(key);
+        if (exactMatch.isPresent()) {
+            return CompletableFuture.completedFuture(exactMatch);
+        }
+        if (isRecentMiss(key)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        return CompletableFuture.supplyAsync(() -> embed(key), executor)
+                .thenCompose(vector -> timed(() -> searchAsync(vector), instrumentation::searchDuration)
+                        .thenApply(document -> rememberMiss(key, vector, document)))
+                .thenApply(document -> toValue(key, document));
+    }
+
+    /**
+     * Finds a running flight for the same normalized key or a matching vector, or registers the given one.
+     * Vectors are compared outside the lock, so two similar keys arriving together may both load.
+     *
+     * @return the running flight to wait for, or null if the given flight was registered and must be led
+     */
+    private Flight joinOrStart(FlightKey flightKey, Flight flight) {
+        List<Flight> running;
+        synchronized (inFlight) {
+            var sameKey = inFlight.get(flightKey);
+            if (sameKey != null) {
+                return sameKey;
+            }
+            running = new ArrayList<>(inFlight.values());
+        }
+        for (var candidate : running) {
+            if (Objects.equals(candidate.namespace(), namespace) && vectorStore.matches(candidate.vector(), flight.vector())) {
+                return candidate;
+            }
+        }
+        synchronized (inFlight) {
+            return inFlight.putIfAbsent(flightKey, flight);
+        }
+    }
+
+    private String load(String key, float[] vector, Function<String, String> loader, Duration ttl) {
+        var value = loader.apply(key);
+        if (value == null || !admit(key, value)) {
+            return value;
+        }
+        save(new VectorDocument(vector, key, value, namespace), ttl);
+        putExactMatch(key, value, ttl);
+        return value;
+    }
+
+    private static String await(Flight flight) {
+        try {
+            return flight.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private boolean admit(String key, String value) {
+        if (admissionPolicy.admit(namespace, key, value)) {
+            return true;
+        }
+        instrumentation.admissionRejected();
+        return false;
+    }
+
+    private Map<String, String> admitAll(Map<String, String> entries) {
+        var admitted = new LinkedHashMap<String, String>();
+        entries.forEach((key, value) -> {
+            if (admit(key, value)) {
+                admitted.put(key, value);
+            }
+        });
+        return admitted;
+    }
+
+    private float[] embed(String key) {
+        long start = System.nanoTime();
+        var vector = embeddingModel.embed(key).content().vector();
+        instrumentation.embeddingDuration(System.nanoTime() - start);
+        return vector;
+    }
+
+    private List<float[]> embedAll(List<String> keys) {
+        var segments = keys.stream()
+                .map(TextSegment::from)
+                .toList();
+        long start = System.nanoTime();
+        var embeddings = embeddingModel.embedAll(segments).content();
+        instrumentation.embeddingDuration(System.nanoTime() - start);
+        return embeddings.stream()
+                .map(Embedding::vector)
+                .toList();
+    }
+
+    private Optional<VectorDocument> search(float[] vector) {
+        long start = System.nanoTime();
+        var document = namespace == null
+                ? vectorStore.similaritySearch(vector)
+                : vectorStore.similaritySearch(namespace, vector);
+        instrumentation.searchDuration(System.nanoTime() - start);
+        return document;
+    }
+
+    private CompletableFuture<Optional<VectorDocument>> searchAsync(float[] vector) {
+        return namespace == null
+                ? vectorStore.similaritySearchAsync(vector)
+                : vectorStore.similaritySearchAsync(namespace, vector);
+    }
+
+    private void save(VectorDocument document, Duration ttl) {
+        long start = System.nanoTime();
+        if (ttl == null) {
+            vectorStore.save(document);
+        } else {
+            vectorStore.save(document, ttl);
+        }
+        instrumentation.writeDuration(System.nanoTime() - start);
+        forgetMisses(document);
+    }
+
+    private void saveAll(List<VectorDocument> documents, Duration ttl) {
+        long start = System.nanoTime();
+        if (ttl == null) {
+            vectorStore.saveAll(documents);
+        } else {
+            vectorStore.saveAll(documents, ttl);
+        }
+        instrumentation.writeDuration(System.nanoTime() - start);
+        documents.forEach(this::forgetMisses);
+    }
+
+    /**
+     * Starts the clock before the operation is called, as stores without an async API complete it on the calling thread.
+     */
+    private static <T> CompletableFuture<T> timed(Supplier<CompletableFuture<T>> operation, LongConsumer durationRecorder) {
+        long start = System.nanoTime();
+        return operation.get().whenComplete((result, error) -> durationRecorder.accept(System.nanoTime() - start));
+    }
+
+    private List<VectorDocument> toVectorDocuments(Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        var keys = new ArrayList<>(entries.keySet());
+        var vectors = embedAll(keys);
+        var documents = new ArrayList<VectorDocument>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            documents.add(new VectorDocument(vectors.get(i), keys.get(i), entries.get(keys.get(i)), namespace));
+        }
+        return documents;
+    }
+
+    private boolean isRecentMiss(String key) {
+        if (negativeCache == null || !negativeCache.contains(namespace, key)) {
+            return false;
+        }
+        instrumentation.negativeCacheHit();
+        return true;
+    }
+
+    private Optional<VectorDocument> rememberMiss(String key, float[] vector, Optional<VectorDocument> document) {
+        if (negativeCache != null && document.isEmpty()) {
+            negativeCache.put(namespace, key, vector);
+        }
+        return document;
+    }
+
+    private void forgetMisses(VectorDocument document) {
+        if (negativeCache != null) {
+            negativeCache.invalidate(document.namespace(), document.key(), document.vector(), vectorStore::matches);
+        }
+    }
+
+    private Optional<String> findExactMatch(String key) {
+        if (exactMatchCache == null) {
+            return Optional.empty();
+        }
+        var value = exactMatchCache.get(namespace, key);
+        if (value.isPresent()) {
+            instrumentation.exactMatchHit();
+        }
+        return value;
+    }
+
+    private void putExactMatch(String key, String value, Duration ttl) {
+        if (exactMatchCache == null) {
+            return;
+        }
+        if (ttl == null) {
+            exactMatchCache.put(namespace, key, value);
+        } else {
+            exactMatchCache.put(namespace, key, value, ttl);
+        }
+    }
+
+    private Optional<String> toValue(String key, Optional<VectorDocument> document) {
+        var value = document.map(VectorDocument::value);
+        if (value.isPresent()) {
+            instrumentation.hit();
+        } else {
+            instrumentation.miss();
+        }
+        if (exactMatchCache != null) {
+            value.ifPresent(found -> exactMatchCache.promote(namespace, key, found));
+        }
+        return value;
+    }
 
-        return vectorStore.similaritySearch(embedding.content().vector())
-                .map(VectorDocument::value);
+    /**
+     * A loader call in progress, joined by concurrent misses for a matching key.
+     */
+    private record Flight(String namespace, float[] vector, CompletableFuture<String> result) {
     }
 
+    private record FlightKey(String namespace, String normalizedKey) {
+    }
+
+    /**
+     * Lazily created, so callers that always pass their own executor never start one.
+     */
+    private static final class DefaultExecutorHolder {
+
+        static final Executor EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            try {
+                var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    var thread = new Thread(runnable, "semantic-cache-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
 }
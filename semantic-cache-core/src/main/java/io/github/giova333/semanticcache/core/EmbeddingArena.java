@@ -0,0 +1,104 @@
+package io.github.giova333.semanticcache.core;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size slots for vectors of one dimension, packed into primitive arrays. Slots are either 32-bit floats or
+ * 8-bit codes with a per-slot minimum and scale. Not thread safe.
+ */
+final class EmbeddingArena {
+
+    private final int dimension;
+    private final boolean quantized;
+    private float[] floats;
+    private byte[] codes;
+    private float[] minimums;
+    private float[] scales;
+    private int capacity;
+    private int allocated;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    EmbeddingArena(int dimension, boolean quantized) {
+        this.dimension = dimension;
+        this.quantized = quantized;
+        resize(16);
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    /**
+     * @return the memory used by a single slot, in bytes
+     */
+    int slotBytes() {
+        return quantized ? dimension + 2 * Float.BYTES : dimension * Float.BYTES;
+    }
+
+    int store(float[] vector) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (allocated == capacity) {
+                resize(capacity * 2);
+            }
+            slot = allocated++;
+        }
+        if (quantized) {
+            quantize(slot, vector);
+        } else {
+            System.arraycopy(vector, 0, floats, slot * dimension, dimension);
+        }
+        return slot;
+    }
+
+    float[] load(int slot) {
+        if (!quantized) {
+            return Arrays.copyOfRange(floats, slot * dimension, (slot + 1) * dimension);
+        }
+        var vector = new float[dimension];
+        int offset = slot * dimension;
+        float minimum = minimums[slot];
+        float scale = scales[slot];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = minimum + (codes[offset + i] & 0xFF) * scale;
+        }
+        return vector;
+    }
+
+    void release(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void quantize(int slot, float[] vector) {
+        float minimum = Float.POSITIVE_INFINITY;
+        float maximum = Float.NEGATIVE_INFINITY;
+        for (float component : vector) {
+            minimum = Math.min(minimum, component);
+            maximum = Math.max(maximum, component);
+        }
+        float scale = maximum > minimum ? (maximum - minimum) / 255 : 1;
+        int offset = slot * dimension;
+        for (int i = 0; i < dimension; i++) {
+            codes[offset + i] = (byte) Math.round((vector[i] - minimum) / scale);
+        }
+        minimums[slot] = minimum;
+        scales[slot] = scale;
+    }
+
+    private void resize(int newCapacity) {
+        if (quantized) {
+            codes = codes == null ? new byte[newCapacity * dimension] : Arrays.copyOf(codes, newCapacity * dimension);
+            minimums = minimums == null ? new float[newCapacity] : Arrays.copyOf(minimums, newCapacity);
+            scales = scales == null ? new float[newCapacity] : Arrays.copyOf(scales, newCapacity);
+        } else {
+            floats = floats == null ? new float[newCapacity * dimension] : Arrays.copyOf(floats, newCapacity * dimension);
+        }
+        capacity = newCapacity;
+    }
+}
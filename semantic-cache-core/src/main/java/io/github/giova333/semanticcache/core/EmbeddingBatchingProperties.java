@@ -0,0 +1,35 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmbeddingBatchingProperties {
+    /**
+     * How long the first request of a batch waits for others to join it.
+     * This is added to the latency of every embedding when traffic is low.
+     */
+    @Builder.Default
+    Duration window = Duration.ofMillis(5);
+    /**
+     * Number of texts that closes a batch before the window elapses.
+     */
+    @Builder.Default
+    int maxBatchSize = 64;
+    /**
+     * Number of batches sent to the embedding model at the same time. Requests arriving while all batches
+     * are in flight keep queuing and go out together in the next batch.
+     */
+    @Builder.Default
+    int maxConcurrentBatches = 4;
+}
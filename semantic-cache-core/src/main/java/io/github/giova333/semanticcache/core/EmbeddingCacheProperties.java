@@ -0,0 +1,26 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmbeddingCacheProperties {
+    /**
+     * Upper bound of the memory used by cached vectors and their keys, in bytes.
+     */
+    @Builder.Default
+    long maxBytes = 64L * 1024 * 1024;
+    /**
+     * Stores vectors as 8-bit codes with a per-vector scale instead of 32-bit floats,
+     * fitting about four times more entries at the cost of a small reconstruction error.
+     */
+    boolean quantized;
+}
@@ -0,0 +1,117 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-process tier that answers repeated keys without embedding them.
+ * Keys are compared after {@link KeyNormalizer normalization}, so prompts differing only in case, whitespace or
+ * surrounding punctuation share an entry.
+ *
+ * <p>Entries are local to the process: values written by other instances of the application are only
+ * seen through the vector store.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ExactMatchCache {
+
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    ExactMatchCacheProperties properties;
+    KeyNormalizer keyNormalizer;
+    Clock clock;
+    Map<EntryKey, Entry> entries;
+
+    public ExactMatchCache(ExactMatchCacheProperties properties, KeyNormalizer keyNormalizer, Clock clock) {
+        this.properties = properties;
+        this.keyNormalizer = keyNormalizer;
+        this.clock = clock;
+        boolean accessOrder = properties.getEvictionPolicy() == ExactMatchCacheProperties.EvictionPolicy.LRU;
+        this.entries = new LinkedHashMap<>(16, 0.75f, accessOrder) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntryKey, Entry> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+    }
+
+    public ExactMatchCache(ExactMatchCacheProperties properties) {
+        this(properties, KeyNormalizer.standard(), Clock.systemUTC());
+    }
+
+    public Optional<String> get(String key) {
+        return get(null, key);
+    }
+
+    /**
+     * Looks up a key stored in the given namespace, entries of different namespaces never match each other.
+     */
+    public Optional<String> get(String namespace, String key) {
+        var entryKey = qualify(namespace, key);
+        synchronized (entries) {
+            var entry = entries.get(entryKey);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt() <= clock.millis()) {
+                entries.remove(entryKey);
+                return Optional.empty();
+            }
+            return Optional.of(entry.value());
+        }
+    }
+
+    public void put(String key, String value) {
+        putInternal(null, key, value, NEVER_EXPIRES);
+    }
+
+    public void put(String key, String value, Duration ttl) {
+        putInternal(null, key, value, clock.millis() + ttl.toMillis());
+    }
+
+    public void put(String namespace, String key, String value) {
+        putInternal(namespace, key, value, NEVER_EXPIRES);
+    }
+
+    public void put(String namespace, String key, String value, Duration ttl) {
+        putInternal(namespace, key, value, clock.millis() + ttl.toMillis());
+    }
+
+    /**
+     * Stores a value found by similarity search for the key it was looked up with,
+     * if a {@code promotionTtl} is configured.
+     */
+    public void promote(String key, String value) {
+        promote(null, key, value);
+    }
+
+    public void promote(String namespace, String key, String value) {
+        var promotionTtl = properties.getPromotionTtl();
+        if (promotionTtl != null) {
+            put(namespace, key, value, promotionTtl);
+        }
+    }
+
+    private void putInternal(String namespace, String key, String value, long expiresAt) {
+        var entryKey = qualify(namespace, key);
+        synchronized (entries) {
+            entries.remove(entryKey);
+            entries.put(entryKey, new Entry(value, expiresAt));
+        }
+    }
+
+    private EntryKey qualify(String namespace, String key) {
+        return new EntryKey(namespace, keyNormalizer.normalize(key));
+    }
+
+    private record EntryKey(String namespace, String normalizedKey) {
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
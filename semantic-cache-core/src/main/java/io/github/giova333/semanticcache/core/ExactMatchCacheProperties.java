@@ -0,0 +1,44 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExactMatchCacheProperties {
+    /**
+     * Maximum number of entries kept in the tier.
+     */
+    @Builder.Default
+    int maxSize = 10_000;
+    @Builder.Default
+    EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    /**
+     * How long a value found by similarity search is kept in the tier for the key it was looked up with.
+     * The vector store does not report the remaining TTL of a match, so promoted entries only live this long.
+     * Null disables promotion, leaving the tier to entries written through {@code set}.
+     */
+    Duration promotionTtl;
+
+    public enum EvictionPolicy {
+
+        /**
+         * evicts the least recently read or written entry
+         */
+        LRU,
+
+        /**
+         * evicts the oldest written entry
+         */
+        FIFO
+    }
+}
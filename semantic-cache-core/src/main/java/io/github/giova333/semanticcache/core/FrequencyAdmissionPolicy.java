@@ -0,0 +1,73 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * TinyLFU style {@link AdmissionPolicy} that only admits values for keys looked up at least {@code minLookups} times
+ * within the recent window. Lookup counts are kept in a count-min sketch over {@link KeyNormalizer normalized} keys,
+ * so the memory used does not depend on the number of distinct keys, and counts may be slightly overestimated.
+ *
+ * <p>With {@code get(key, loader, ttl)} a question is typically stored the second time it is asked.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class FrequencyAdmissionPolicy implements AdmissionPolicy {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char NAMESPACE_SEPARATOR = 0;
+
+    int minLookups;
+    KeyNormalizer keyNormalizer = KeyNormalizer.standard();
+    FrequencySketch sketch;
+
+    public FrequencyAdmissionPolicy(FrequencyAdmissionProperties properties) {
+        if (properties.getMinLookups() > FrequencySketch.MAX_COUNT) {
+            throw new IllegalArgumentException("minLookups must not exceed %d, actual=%d"
+                    .formatted(FrequencySketch.MAX_COUNT, properties.getMinLookups()));
+        }
+        this.minLookups = properties.getMinLookups();
+        this.sketch = new FrequencySketch(properties.getWindow());
+    }
+
+    @Override
+    public boolean admit(String namespace, String key, String value) {
+        return sketch.frequency(hash(namespace, key)) >= minLookups;
+    }
+
+    @Override
+    public void recordLookup(String namespace, String key) {
+        sketch.increment(hash(namespace, key));
+    }
+
+    /**
+     * 64-bit FNV-1a over the namespace and the normalized key, finished with the murmur3 mixer. Keys sharing
+     * a 32-bit {@link String#hashCode()} would otherwise share all their counters.
+     */
+    private long hash(String namespace, String key) {
+        long hash = FNV_OFFSET_BASIS;
+        if (namespace != null) {
+            hash = fnv(hash, namespace);
+            // the length separates the namespace from the key, as in ("a", "bc") and ("ab", "c")
+            hash = fnv(hash, (char) (namespace.length() + 1));
+        }
+        hash = fnv(hash, NAMESPACE_SEPARATOR);
+        hash = fnv(hash, keyNormalizer.normalize(key));
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9a62c1a4e53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = fnv(hash, value.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, char value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FrequencyAdmissionProperties {
+    /**
+     * Number of lookups of a key, the write itself not included, that admits a value for it.
+     * At most 15, the capacity of a sketch counter.
+     */
+    @Builder.Default
+    int minLookups = 2;
+    /**
+     * Number of lookups after which all counts are halved, so keys that were popular long ago lose their advantage.
+     * It also sizes the sketch, at about four bytes per lookup of the window.
+     */
+    @Builder.Default
+    int window = 100_000;
+}
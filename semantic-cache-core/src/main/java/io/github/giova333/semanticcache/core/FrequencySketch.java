@@ -0,0 +1,89 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-min sketch of 4-bit counters, four rows packed sixteen counters to a long, indexed by a 64-bit key hash.
+ * Every row is twice as wide as the window, which keeps false counts rare for keys seen once. Once the window is full all counters are halved.
+ *
+ * <p>Increments are lock free. An increment racing with the halving may be lost, which only makes a count lower.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+final class FrequencySketch {
+
+    static final int MAX_COUNT = 15;
+
+    private static final int ROWS = 4;
+    private static final long[] SEEDS = {0x97cb3127L, 0xc2b2ae35L, 0x85ebca6bL, 0x27d4eb2fL};
+    private static final long HALF_MASK = 0x7777_7777_7777_7777L;
+
+    AtomicLongArray table;
+    int rowMask;
+    int rowWidth;
+    int window;
+    AtomicInteger additions = new AtomicInteger();
+    ReentrantLock resetLock = new ReentrantLock();
+
+    FrequencySketch(int window) {
+        this.window = Math.max(window, 16);
+        this.rowWidth = Integer.highestOneBit(this.window * 2 - 1) << 1;
+        this.rowMask = rowWidth - 1;
+        this.table = new AtomicLongArray(ROWS * rowWidth / 16);
+    }
+
+    int frequency(long hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            int counter = counterIndex(row, hash);
+            frequency = Math.min(frequency, read(table.get(counter >>> 4), counter));
+        }
+        return frequency;
+    }
+
+    void increment(long hash) {
+        for (int row = 0; row < ROWS; row++) {
+            int counter = counterIndex(row, hash);
+            int slot = counter >>> 4;
+            long current;
+            do {
+                current = table.get(slot);
+                if (read(current, counter) == MAX_COUNT) {
+                    break;
+                }
+            } while (!table.compareAndSet(slot, current, current + (1L << shift(counter))));
+        }
+        if (additions.incrementAndGet() >= window && resetLock.tryLock()) {
+            try {
+                halve();
+            } finally {
+                resetLock.unlock();
+            }
+        }
+    }
+
+    private void halve() {
+        for (int slot = 0; slot < table.length(); slot++) {
+            table.getAndUpdate(slot, value -> (value >>> 1) & HALF_MASK);
+        }
+        additions.addAndGet(-window / 2);
+    }
+
+    private int counterIndex(int row, long hash) {
+        long mixed = (hash + SEEDS[row]) * 0x9e3779b97f4a7c15L;
+        mixed ^= mixed >>> 32;
+        return row * rowWidth + ((int) mixed & rowMask);
+    }
+
+    private static int read(long slotValue, int counter) {
+        return (int) (slotValue >>> shift(counter)) & MAX_COUNT;
+    }
+
+    private static int shift(int counter) {
+        return (counter & 15) << 2;
+    }
+}
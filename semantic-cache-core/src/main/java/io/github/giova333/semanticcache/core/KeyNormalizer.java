@@ -0,0 +1,18 @@
+package io.github.giova333.semanticcache.core;
+
+/**
+ * Maps cache keys that only differ in surface details, such as case, whitespace or punctuation, to the same string.
+ */
+@FunctionalInterface
+public interface KeyNormalizer {
+
+    String normalize(String key);
+
+    /**
+     * @return a normalizer that applies Unicode compatibility normalization, lower-cases the key,
+     * strips punctuation that ends a sentence or surrounds a word and collapses whitespace
+     */
+    static KeyNormalizer standard() {
+        return StandardKeyNormalizer.INSTANCE;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.giova333.semanticcache.core;
+
+/**
+ * Similarity metric used to compare vectors
+ */
+public enum MetricType {
+
+    /**
+     * cosine similarity
+     */
+    COSINE,
+
+    /**
+     * inner product
+     */
+    IP,
+
+    /**
+     * euclidean distance
+     */
+    L2;
+
+    /**
+     * Converts a distance, as reported by the vector store for this metric, into a similarity score
+     * that can be compared with {@link SemanticCacheProperties#getSimilarityThreshold()}:
+     * {@code (1 + cosine) / 2} for COSINE, the dot product for IP and {@code 1 / (1 + squared distance)} for L2.
+     *
+     * @param distance the distance between two vectors
+     * @return the similarity score
+     */
+    public double similarity(double distance) {
+        return switch (this) {
+            case COSINE -> (2 - distance) / 2;
+            case IP -> 1 - distance;
+            case L2 -> 1 / (1 + distance);
+        };
+    }
+
+    /**
+     * Inverse of {@link #similarity(double)}, the largest distance whose similarity score is still at least
+     * the given one. Used as the radius of range queries.
+     *
+     * @param similarity the similarity score
+     * @return the maximum distance, infinite when every distance qualifies
+     */
+    public double maxDistance(double similarity) {
+        return switch (this) {
+            case COSINE -> 2 - 2 * similarity;
+            case IP -> 1 - similarity;
+            case L2 -> similarity <= 0 ? Double.POSITIVE_INFINITY : 1 / similarity - 1;
+        };
+    }
+
+    /**
+     * Computes the distance between two vectors the way the vector stores report it for this metric:
+     * {@code 1 - cosine} for COSINE, {@code 1 - dot product} for IP and the squared euclidean distance for L2.
+     *
+     * @param a the first vector
+     * @param b the second vector
+     * @return the distance between the vectors
+     */
+    public double distance(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("vector dimensionality mismatch, expected=%d, actual=%d"
+                    .formatted(a.length, b.length));
+        }
+        double dot = 0;
+        double aNorm = 0;
+        double bNorm = 0;
+        double squaredDistance = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            aNorm += a[i] * a[i];
+            bNorm += b[i] * b[i];
+            double difference = a[i] - b[i];
+            squaredDistance += difference * difference;
+        }
+        return switch (this) {
+            case COSINE -> aNorm == 0 || bNorm == 0 ? 1 : 1 - dot / Math.sqrt(aNorm * bNorm);
+            case IP -> 1 - dot;
+            case L2 -> squaredDistance;
+        };
+    }
+}
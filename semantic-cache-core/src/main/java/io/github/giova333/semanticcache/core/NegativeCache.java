@@ -0,0 +1,121 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded in-process tier that remembers keys whose lookup found no value, so asking them again within {@code ttl}
+ * misses without embedding the key or querying the vector store. Keys are compared after
+ * {@link KeyNormalizer normalization}, like in {@link ExactMatchCache}.
+ *
+ * <p>A write through this process forgets the misses whose vector matches the written key, the misses of other
+ * processes expire after {@code ttl}. The vectors are compared on a copy of the entries, so a write does not hold up
+ * the lookups of other threads for the length of the scan.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class NegativeCache {
+
+    NegativeCacheProperties properties;
+    KeyNormalizer keyNormalizer;
+    Clock clock;
+    Map<EntryKey, Entry> entries;
+
+    public NegativeCache(NegativeCacheProperties properties, KeyNormalizer keyNormalizer, Clock clock) {
+        this.properties = properties;
+        this.keyNormalizer = keyNormalizer;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntryKey, Entry> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+    }
+
+    public NegativeCache(NegativeCacheProperties properties) {
+        this(properties, KeyNormalizer.standard(), Clock.systemUTC());
+    }
+
+    /**
+     * @return true if a lookup of the key in the namespace missed recently
+     */
+    public boolean contains(String namespace, String key) {
+        var entryKey = qualify(namespace, key);
+        synchronized (entries) {
+            var entry = entries.get(entryKey);
+            if (entry == null) {
+                return false;
+            }
+            if (entry.expiresAt() <= clock.millis()) {
+                entries.remove(entryKey);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Remembers a missed lookup, with the vector of its key to be matched against later writes.
+     */
+    public void put(String namespace, String key, float[] vector) {
+        var entryKey = qualify(namespace, key);
+        var entry = new Entry(vector, clock.millis() + properties.getTtl().toMillis());
+        synchronized (entries) {
+            entries.remove(entryKey);
+            entries.put(entryKey, entry);
+        }
+    }
+
+    /**
+     * Forgets the misses a written value would now answer: those of the same key and those whose vector matches
+     * the written one, in the namespace of the write and without namespace, as lookups without namespace search
+     * all values. Expired misses are dropped on the way.
+     *
+     * @param matches whether two vectors are similar enough to share a cache entry
+     */
+    public void invalidate(String namespace, String key, float[] vector, BiPredicate<float[], float[]> matches) {
+        var normalizedKey = keyNormalizer.normalize(key);
+        long now = clock.millis();
+        var candidates = new ArrayList<Map.Entry<EntryKey, Entry>>();
+        synchronized (entries) {
+            var iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var candidate = iterator.next();
+                if (candidate.getValue().expiresAt() <= now) {
+                    iterator.remove();
+                } else if (candidate.getKey().namespace() == null || Objects.equals(candidate.getKey().namespace(), namespace)) {
+                    candidates.add(Map.entry(candidate.getKey(), candidate.getValue()));
+                }
+            }
+        }
+        // compares the vectors outside the lock, so lookups checking for recent misses do not wait for the scan
+        var forgotten = candidates.stream()
+                .filter(candidate -> candidate.getKey().normalizedKey().equals(normalizedKey)
+                        || matches.test(candidate.getValue().vector(), vector))
+                .toList();
+        if (forgotten.isEmpty()) {
+            return;
+        }
+        synchronized (entries) {
+            // a miss remembered again since the snapshot is kept
+            forgotten.forEach(candidate -> entries.remove(candidate.getKey(), candidate.getValue()));
+        }
+    }
+
+    private EntryKey qualify(String namespace, String key) {
+        return new EntryKey(namespace, keyNormalizer.normalize(key));
+    }
+
+    private record EntryKey(String namespace, String normalizedKey) {
+    }
+
+    private record Entry(float[] vector, long expiresAt) {
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class NegativeCacheProperties {
+    /**
+     * Maximum number of misses remembered, the oldest one is forgotten first.
+     */
+    @Builder.Default
+    int maxSize = 10_000;
+    /**
+     * How long a miss is remembered. It bounds how long a value written by another instance of the application
+     * stays unseen, as only writes through this process forget matching misses.
+     */
+    @Builder.Default
+    Duration ttl = Duration.ofSeconds(2);
+}
@@ -1,7 +1,11 @@
 package io.github.giova333.semanticcache.core;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The SemanticCache interface defines the operations for a semantic caching system.
@@ -44,4 +48,78 @@ public interface SemanticCache {
      * @return an Optional containing the value if it exists, or an empty Optional if the key does not exist in the cache
      */
     Optional<String> get(String key);
+
+    /**
+     * Asynchronously stores a value in the cache.
+     *
+     * @param key the key under which the value is to be stored
+     * @param value the value to be stored
+     * @return a future completed once the value is stored
+     */
+    CompletableFuture<Void> setAsync(String key, String value);
+
+    /**
+     * Asynchronously stores a value in the cache with a specified time-to-live (TTL).
+     *
+     * @param key the key under which the value is to be stored
+     * @param value the value to be stored
+     * @param ttl the time-to-live duration for the value
+     * @return a future completed once the value is stored
+     */
+    CompletableFuture<Void> setAsync(String key, String value, Duration ttl);
+
+    /**
+     * Asynchronously retrieves a value from the cache by performing a similarity search.
+     *
+     * @param key the key of the value to be retrieved
+     * @return a future completed with the value if it exists, or an empty Optional if the key does not exist in the cache
+     */
+    CompletableFuture<Optional<String>> getAsync(String key);
+
+    /**
+     * Stores several values in the cache, embedding all keys with a single call to the embedding model.
+     *
+     * @param entries the values to be stored, by key
+     */
+    void setAll(Map<String, String> entries);
+
+    /**
+     * Stores several values in the cache with a specified time-to-live (TTL),
+     * embedding all keys with a single call to the embedding model.
+     *
+     * @param entries the values to be stored, by key
+     * @param ttl the time-to-live duration for the values
+     */
+    void setAll(Map<String, String> entries, Duration ttl);
+
+    /**
+     * Retrieves several values from the cache, embedding all keys with a single call to the embedding model.
+     *
+     * @param keys the keys of the values to be retrieved
+     * @return one result per key in the order of the given keys, empty for keys without a match
+     */
+    List<Optional<String>> getAll(List<String> keys);
+
+    /**
+     * Retrieves a value from the cache, computing and storing it with the loader on a miss.
+     * Concurrent misses for the same key, or for keys similar enough to share a cache entry, are coalesced:
+     * the loader runs once and the other callers wait for its result.
+     *
+     * @param key the key of the value to be retrieved
+     * @param loader computes the value from the key on a miss
+     * @param ttl the time-to-live duration for a computed value, or null to keep it without expiration
+     * @return the cached or computed value
+     */
+    String get(String key, Function<String, String> loader, Duration ttl);
+
+    /**
+     * Returns a view of this cache whose values are stored in the given namespace and looked up only among the values
+     * of that namespace, for example to keep tenants, embedding models or prompt templates apart.
+     * Searching a single namespace is faster and avoids matches with unrelated entries.
+     * Lookups on a cache without namespace search all values.
+     *
+     * @param namespace the namespace of the view, or null for the cache without namespace
+     * @return a cache scoped to the namespace
+     */
+    SemanticCache namespace(String namespace);
 }
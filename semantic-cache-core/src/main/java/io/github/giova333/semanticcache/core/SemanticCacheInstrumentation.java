@@ -0,0 +1,69 @@
+package io.github.giova333.semanticcache.core;
+
+/**
+ * Receives measurements from the cache and the vector stores, to be forwarded to a metrics library.
+ * Every method does nothing by default, so implementations only override what they record.
+ * Methods are called on the request threads and must not block.
+ */
+public interface SemanticCacheInstrumentation {
+
+    SemanticCacheInstrumentation NOOP = new SemanticCacheInstrumentation() {
+    };
+
+    /**
+     * A lookup was answered by the similarity search.
+     */
+    default void hit() {
+    }
+
+    /**
+     * A lookup was answered by the exact-match tier without embedding the key.
+     */
+    default void exactMatchHit() {
+    }
+
+    /**
+     * A lookup was answered as a miss by the negative cache, without embedding the key.
+     */
+    default void negativeCacheHit() {
+    }
+
+    /**
+     * A lookup found no value.
+     */
+    default void miss() {
+    }
+
+    /**
+     * Similarity score of the best match of a search, recorded whether or not it passed the similarity threshold.
+     */
+    default void bestMatchScore(double score) {
+    }
+
+    default void embeddingDuration(long nanos) {
+    }
+
+    default void searchDuration(long nanos) {
+    }
+
+    default void writeDuration(long nanos) {
+    }
+
+    /**
+     * A write was dropped by the admission policy.
+     */
+    default void admissionRejected() {
+    }
+
+    /**
+     * Writes queued by {@link WriteBehindSemanticCache} were dropped, because the queue was full or their flush failed.
+     */
+    default void writeBehindDropped(int count) {
+    }
+
+    /**
+     * The vector store returned expired documents that had to be skipped.
+     */
+    default void expiredDocumentsFiltered(int count) {
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.giova333.semanticcache.core;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Strips only punctuation that ends a sentence or surrounds a word, such as a trailing question mark, a comma
+ * or quotes. Punctuation inside a word or number, and symbols such as {@code #}, change the meaning of a prompt
+ * and are kept, so {@code 1.5} and {@code 15}, {@code C#} and {@code C} or {@code re-sign} and {@code resign}
+ * stay different keys.
+ */
+final class StandardKeyNormalizer implements KeyNormalizer {
+
+    static final StandardKeyNormalizer INSTANCE = new StandardKeyNormalizer();
+
+    private static final String BOUNDARY_PUNCTUATION = "[\\p{Ps}\\p{Pe}\\p{Pi}\\p{Pf}.,;:!?\"'…¿¡]+";
+    private static final Pattern SURROUNDING_PUNCTUATION = Pattern.compile(
+            "(?<=^|\\s)" + BOUNDARY_PUNCTUATION + "|" + BOUNDARY_PUNCTUATION + "(?=\\s|$)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private StandardKeyNormalizer() {
+    }
+
+    @Override
+    public String normalize(String key) {
+        var normalized = Normalizer.normalize(key, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = SURROUNDING_PUNCTUATION.matcher(normalized).replaceAll("");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
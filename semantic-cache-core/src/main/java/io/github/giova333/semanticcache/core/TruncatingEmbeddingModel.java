@@ -0,0 +1,61 @@
+package io.github.giova333.semanticcache.core;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link EmbeddingModel} decorator that keeps only the leading dimensions of every embedding and re-normalizes it
+ * to unit length. Only meaningful for models trained with Matryoshka representation learning, such as OpenAI
+ * {@code text-embedding-3-*}, whose leading dimensions carry most of the meaning; other models lose accuracy quickly.
+ *
+ * <p>The vector store must be configured with the truncated dimensionality.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class TruncatingEmbeddingModel implements EmbeddingModel {
+
+    EmbeddingModel delegate;
+    int dimensions;
+
+    public TruncatingEmbeddingModel(EmbeddingModel delegate, int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive, actual=" + dimensions);
+        }
+        this.delegate = delegate;
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        var response = delegate.embedAll(textSegments);
+        var truncated = response.content().stream()
+                .map(embedding -> new Embedding(truncate(embedding.vector())))
+                .toList();
+        return Response.from(truncated, response.tokenUsage(), response.finishReason());
+    }
+
+    private float[] truncate(float[] vector) {
+        if (vector.length < dimensions) {
+            throw new IllegalStateException("embedding is shorter than the truncated dimensionality, expected=%d, actual=%d"
+                    .formatted(dimensions, vector.length));
+        }
+        var truncated = Arrays.copyOf(vector, dimensions);
+        double squaredNorm = 0;
+        for (float value : truncated) {
+            squaredNorm += value * value;
+        }
+        if (squaredNorm > 0) {
+            float inverseNorm = (float) (1 / Math.sqrt(squaredNorm));
+            for (int i = 0; i < truncated.length; i++) {
+                truncated[i] *= inverseNorm;
+            }
+        }
+        return truncated;
+    }
+}
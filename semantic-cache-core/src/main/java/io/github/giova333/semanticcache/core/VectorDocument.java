@@ -5,20 +5,28 @@ import lombok.Builder;
 import java.util.Arrays;
 import java.util.Objects;
 
+/**
+ * @param namespace partition the document belongs to, such as a tenant or a prompt template, or null for none
+ */
 @Builder
-public record VectorDocument(float[] vector, String key, String value) {
+public record VectorDocument(float[] vector, String key, String value, String namespace) {
+
+    public VectorDocument(float[] vector, String key, String value) {
+        this(vector, key, value, null);
+    }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         VectorDocument that = (VectorDocument) o;
-        return Arrays.equals(vector, that.vector) && Objects.equals(key, that.key) && Objects.equals(value, that.value);
+        return Arrays.equals(vector, that.vector) && Objects.equals(key, that.key) && Objects.equals(value, that.value)
+                && Objects.equals(namespace, that.namespace);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(key, value);
+        int result = Objects.hash(key, value, namespace);
         result = 31 * result + Arrays.hashCode(vector);
         return result;
     }
@@ -1,7 +1,11 @@
 package io.github.giova333.semanticcache.core;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public interface VectorStore {
 
@@ -10,4 +14,121 @@ public interface VectorStore {
     void save(VectorDocument vectorDocument, Duration ttl);
 
     Optional<VectorDocument> similaritySearch(float[] vector);
+
+    /**
+     * Searches only the documents stored with the given {@link VectorDocument#namespace() namespace}.
+     * A null namespace searches all documents, as {@link #similaritySearch(float[])} does.
+     * The default implementation only supports the null namespace; stores that partition documents should override it.
+     */
+    default Optional<VectorDocument> similaritySearch(String namespace, float[] vector) {
+        if (namespace == null) {
+            return similaritySearch(vector);
+        }
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support namespaces");
+    }
+
+    /**
+     * Tells whether a lookup with one vector would be answered by a document stored with the other,
+     * that is whether they are close enough to pass the similarity threshold of this store.
+     * The default implementation only accepts identical vectors.
+     */
+    default boolean matches(float[] vector, float[] otherVector) {
+        return Arrays.equals(vector, otherVector);
+    }
+
+    /**
+     * Saves several documents. The default implementation saves them one by one;
+     * stores that can batch round trips should override it.
+     */
+    default void saveAll(List<VectorDocument> vectorDocuments) {
+        vectorDocuments.forEach(this::save);
+    }
+
+    /**
+     * Saves several documents with the same time-to-live. The default implementation saves them one by one;
+     * stores that can batch round trips should override it.
+     */
+    default void saveAll(List<VectorDocument> vectorDocuments, Duration ttl) {
+        vectorDocuments.forEach(vectorDocument -> save(vectorDocument, ttl));
+    }
+
+    /**
+     * Runs a similarity search per vector. The default implementation searches them one by one;
+     * stores that can batch round trips should override it.
+     *
+     * @return one result per vector in the order of the given vectors
+     */
+    default List<Optional<VectorDocument>> similaritySearchAll(List<float[]> vectors) {
+        return vectors.stream()
+                .map(this::similaritySearch)
+                .toList();
+    }
+
+    /**
+     * Runs a similarity search per vector within the given namespace. The default implementation searches them one by one;
+     * stores that can batch round trips should override it.
+     *
+     * @return one result per vector in the order of the given vectors
+     */
+    default List<Optional<VectorDocument>> similaritySearchAll(String namespace, List<float[]> vectors) {
+        if (namespace == null) {
+            return similaritySearchAll(vectors);
+        }
+        return vectors.stream()
+                .map(vector -> similaritySearch(namespace, vector))
+                .toList();
+    }
+
+    /**
+     * Asynchronous variant of {@link #save(VectorDocument)}.
+     * The default implementation saves on the calling thread and returns a completed future;
+     * stores built on a non-blocking client should override it.
+     */
+    default CompletableFuture<Void> saveAsync(VectorDocument vectorDocument) {
+        return completed(() -> {
+            save(vectorDocument);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #save(VectorDocument, Duration)}.
+     * The default implementation saves on the calling thread and returns a completed future;
+     * stores built on a non-blocking client should override it.
+     */
+    default CompletableFuture<Void> saveAsync(VectorDocument vectorDocument, Duration ttl) {
+        return completed(() -> {
+            save(vectorDocument, ttl);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #similaritySearch(float[])}.
+     * The default implementation searches on the calling thread and returns a completed future;
+     * stores built on a non-blocking client should override it.
+     */
+    default CompletableFuture<Optional<VectorDocument>> similaritySearchAsync(float[] vector) {
+        return completed(() -> similaritySearch(vector));
+    }
+
+    /**
+     * Asynchronous variant of {@link #similaritySearch(String, float[])}.
+     * The default implementation searches on the calling thread and returns a completed future;
+     * stores built on a non-blocking client should override it.
+     */
+    default CompletableFuture<Optional<VectorDocument>> similaritySearchAsync(String namespace, float[] vector) {
+        if (namespace == null) {
+            return similaritySearchAsync(vector);
+        }
+        return completed(() -> similaritySearch(namespace, vector));
+    }
+
+    private static <T> CompletableFuture<T> completed(Supplier<T> operation) {
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class WriteBehindProperties {
+    /**
+     * Number of writes waiting to be flushed, past which {@code overflowPolicy} applies.
+     */
+    @Builder.Default
+    int queueCapacity = 10_000;
+    /**
+     * Number of writes embedded with one call to the embedding model and saved with one batch write.
+     */
+    @Builder.Default
+    int batchSize = 64;
+    /**
+     * How long the first write of a batch waits for others to join it.
+     */
+    @Builder.Default
+    Duration flushInterval = Duration.ofMillis(100);
+    @Builder.Default
+    OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    /**
+     * How long closing the cache waits for the queued writes to be flushed.
+     */
+    @Builder.Default
+    Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    /**
+     * What a write does when the queue is full
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * the write waits for room in the queue, which slows callers down to the rate of the flusher
+         */
+        BLOCK,
+
+        /**
+         * the write is dropped
+         */
+        DROP_NEWEST,
+
+        /**
+         * the oldest queued write is dropped to make room
+         */
+        DROP_OLDEST
+    }
+}
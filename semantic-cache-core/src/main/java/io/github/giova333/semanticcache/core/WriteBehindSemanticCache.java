@@ -0,0 +1,311 @@
+package io.github.giova333.semanticcache.core;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link SemanticCache} decorator that takes writes off the request path: {@code set}, {@code setAll} and
+ * {@code setAsync} only queue the value and return. A background daemon thread collects up to {@code batchSize}
+ * queued writes, or those arriving within {@code flushInterval}, and stores them with {@code setAll} of the delegate,
+ * so their keys are embedded with one call and saved with one batch write per namespace and time to live.
+ *
+ * <p>Queued values are not found by lookups until they are flushed. Writes dropped by the {@code overflowPolicy}
+ * or by a failed flush are reported to the instrumentation. Lookups, including {@code get} with a loader,
+ * go straight to the delegate.</p>
+ *
+ * <p>{@link #close()} flushes the queued writes, waiting {@code shutdownTimeout} at most, and later writes are
+ * stored synchronously, including those still waiting for room in the queue under the {@code BLOCK} policy.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class WriteBehindSemanticCache implements SemanticCache, AutoCloseable {
+
+    SemanticCache delegate;
+    Flusher flusher;
+
+    public WriteBehindSemanticCache(SemanticCache delegate, WriteBehindProperties properties) {
+        this(delegate, properties, null);
+    }
+
+    /**
+     * @param instrumentation receives the number of dropped writes, may be null
+     */
+    public WriteBehindSemanticCache(SemanticCache delegate,
+                                    WriteBehindProperties properties,
+                                    SemanticCacheInstrumentation instrumentation) {
+        this.delegate = delegate;
+        this.flusher = new Flusher(properties, instrumentation == null ? SemanticCacheInstrumentation.NOOP : instrumentation);
+        this.flusher.start();
+    }
+
+    private WriteBehindSemanticCache(SemanticCache delegate, Flusher flusher) {
+        this.delegate = delegate;
+        this.flusher = flusher;
+    }
+
+    @Override
+    public void set(String key, String value) {
+        enqueue(key, value, null);
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        enqueue(key, value, ttl);
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value) {
+        enqueue(key, value, null);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value, Duration ttl) {
+        enqueue(key, value, ttl);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> getAsync(String key) {
+        return delegate.getAsync(key);
+    }
+
+    @Override
+    public void setAll(Map<String, String> entries) {
+        entries.forEach((key, value) -> enqueue(key, value, null));
+    }
+
+    @Override
+    public void setAll(Map<String, String> entries, Duration ttl) {
+        entries.forEach((key, value) -> enqueue(key, value, ttl));
+    }
+
+    @Override
+    public List<Optional<String>> getAll(List<String> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public String get(String key, Function<String, String> loader, Duration ttl) {
+        return delegate.get(key, loader, ttl);
+    }
+
+    /**
+     * The returned view shares the queue and the flusher of this cache.
+     */
+    @Override
+    public SemanticCache namespace(String namespace) {
+        return new WriteBehindSemanticCache(delegate.namespace(namespace), flusher);
+    }
+
+    /**
+     * Flushes the queued writes of this cache and all its namespace views. Writes still queued or not yet stored
+     * by the flusher once {@code shutdownTimeout} has elapsed are dropped.
+     */
+    @Override
+    public void close() {
+        flusher.close();
+    }
+
+    private void enqueue(String key, String value, Duration ttl) {
+        if (flusher.offer(new Write(delegate, key, value, ttl))) {
+            return;
+        }
+        if (ttl == null) {
+            delegate.set(key, value);
+        } else {
+            delegate.set(key, value, ttl);
+        }
+    }
+
+    /**
+     * A queued write, stored through the cache or namespace view it was made on. A write without cache only wakes up
+     * the flusher.
+     */
+    private record Write(SemanticCache target, String key, String value, Duration ttl) {
+
+        static final Write WAKE_UP = new Write(null, null, null, null);
+    }
+
+    private record Group(SemanticCache target, Duration ttl) {
+    }
+
+    private static final class Flusher {
+
+        private static final long BLOCKED_OFFER_TIMEOUT_MILLIS = 100;
+
+        private final WriteBehindProperties properties;
+        private final SemanticCacheInstrumentation instrumentation;
+        private final BlockingQueue<Write> queue;
+        private final Thread thread;
+        private volatile boolean closed;
+
+        Flusher(WriteBehindProperties properties, SemanticCacheInstrumentation instrumentation) {
+            this.properties = properties;
+            this.instrumentation = instrumentation;
+            this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+            this.thread = new Thread(this::run, "semantic-cache-write-behind");
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        /**
+         * @return false once closed or if the flusher has stopped, the caller then stores the write itself
+         */
+        boolean offer(Write write) {
+            if (closed || !thread.isAlive()) {
+                return false;
+            }
+            switch (properties.getOverflowPolicy()) {
+                case BLOCK -> {
+                    try {
+                        while (!queue.offer(write, BLOCKED_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                            if (closed || !thread.isAlive()) {
+                                // the flusher may have stopped, the queue would then never have room again
+                                return false;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        instrumentation.writeBehindDropped(1);
+                    }
+                }
+                case DROP_NEWEST -> {
+                    if (!queue.offer(write)) {
+                        instrumentation.writeBehindDropped(1);
+                    }
+                }
+                case DROP_OLDEST -> {
+                    while (!queue.offer(write)) {
+                        if (queue.poll() != null) {
+                            instrumentation.writeBehindDropped(1);
+                        }
+                    }
+                }
+            }
+            // the flusher may have stopped before the write was queued, the caller then stores it
+            if (!thread.isAlive() && queue.remove(write)) {
+                return false;
+            }
+            return true;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // wakes up a flusher waiting for a batch to fill, a full queue does not let it wait anyway
+            queue.offer(Write.WAKE_UP);
+            try {
+                thread.join(Math.max(1, properties.getShutdownTimeout().toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread.interrupt();
+            dropPending();
+        }
+
+        private void run() {
+            var batch = new ArrayList<Write>(properties.getBatchSize());
+            try {
+                while (!closed || !queue.isEmpty()) {
+                    batch.clear();
+                    collect(batch);
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the shutdown timeout elapsed, the writes not stored yet are dropped
+                drop(batch);
+                dropPending();
+            }
+        }
+
+        /**
+         * Adds the next batch of writes to the given list, which keeps those taken from the queue if interrupted.
+         */
+        private void collect(List<Write> batch) throws InterruptedException {
+            int batchSize = properties.getBatchSize();
+            long interval = properties.getFlushInterval().toNanos();
+            var first = queue.poll(interval, TimeUnit.NANOSECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + interval;
+            while (batch.size() < batchSize) {
+                queue.drainTo(batch, batchSize - batch.size());
+                long remaining = deadline - System.nanoTime();
+                if (closed || batch.size() >= batchSize || remaining <= 0) {
+                    break;
+                }
+                var write = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (write == null) {
+                    break;
+                }
+                batch.add(write);
+            }
+            batch.removeIf(write -> write.target() == null);
+        }
+
+        private void flush(List<Write> batch) {
+            var groups = new LinkedHashMap<Group, Map<String, String>>();
+            for (Write write : batch) {
+                // a key written twice in a batch keeps its latest value
+                groups.computeIfAbsent(new Group(write.target(), write.ttl()), ignored -> new LinkedHashMap<>())
+                        .put(write.key(), write.value());
+            }
+            groups.forEach((group, entries) -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    // the shutdown timeout elapsed during the flush
+                    instrumentation.writeBehindDropped(entries.size());
+                    return;
+                }
+                try {
+                    if (group.ttl() == null) {
+                        group.target().setAll(entries);
+                    } else {
+                        group.target().setAll(entries, group.ttl());
+                    }
+                } catch (Throwable e) {
+                    // errors as well, the flusher would stop otherwise and every later write be dropped
+                    instrumentation.writeBehindDropped(entries.size());
+                }
+            });
+        }
+
+        private void dropPending() {
+            var pending = new ArrayList<Write>();
+            queue.drainTo(pending);
+            drop(pending);
+        }
+
+        private void drop(List<Write> writes) {
+            long dropped = writes.stream().filter(write -> write.target() != null).count();
+            if (dropped > 0) {
+                instrumentation.writeBehindDropped((int) dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.giova333.semanticcache.core;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchingEmbeddingModelTest {
+
+    List<List<String>> batches = new CopyOnWriteArrayList<>();
+    EmbeddingModel delegate = segments -> {
+        var texts = segments.stream().map(TextSegment::text).toList();
+        batches.add(texts);
+        return Response.from(texts.stream().map(BatchingEmbeddingModelTest::embeddingOf).toList());
+    };
+    BatchingEmbeddingModel embeddingModel;
+
+    @AfterEach
+    void close() {
+        embeddingModel.close();
+    }
+
+    @Test
+    void shouldCoalesceConcurrentEmbedsIntoOneBatch() throws Exception {
+        embeddingModel = new BatchingEmbeddingModel(delegate, EmbeddingBatchingProperties.builder()
+                .window(Duration.ofSeconds(10))
+                .maxBatchSize(4)
+                .build());
+
+        var embeddings = runConcurrently(4, caller -> embeddingModel.embed("question " + caller).content());
+
+        for (int caller = 0; caller < 4; caller++) {
+            assertThat(embeddings.get(caller)).isEqualTo(embeddingOf("question " + caller));
+        }
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(4);
+    }
+
+    @Test
+    void shouldSendBatchWhenWindowElapses() {
+        embeddingModel = new BatchingEmbeddingModel(delegate, EmbeddingBatchingProperties.builder()
+                .window(Duration.ofMillis(10))
+                .build());
+
+        var embedding = embeddingModel.embed("largest city in USA by population").content();
+
+        assertThat(embedding).isEqualTo(embeddingOf("largest city in USA by population"));
+        assertThat(batches).containsExactly(List.of("largest city in USA by population"));
+    }
+
+    @Test
+    void shouldEmbedIdenticalTextsOnce() throws Exception {
+        embeddingModel = new BatchingEmbeddingModel(delegate, EmbeddingBatchingProperties.builder()
+                .window(Duration.ofMillis(200))
+                .maxBatchSize(3)
+                .build());
+
+        var embeddings = runConcurrently(3, caller -> embeddingModel.embed("same question").content());
+
+        assertThat(embeddings).containsOnly(embeddingOf("same question"));
+        assertThat(batches).containsExactly(List.of("same question"));
+    }
+
+    @Test
+    void shouldFailEveryCallerOfFailedBatch() {
+        embeddingModel = new BatchingEmbeddingModel(segments -> {
+            throw new IllegalStateException("rate limited");
+        }, EmbeddingBatchingProperties.builder()
+                .window(Duration.ofMillis(10))
+                .build());
+
+        assertThatThrownBy(() -> embeddingModel.embed("largest city in USA by population"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("rate limited");
+    }
+
+    @Test
+    void shouldFailEveryCallerOfBatchFailedWithError() {
+        embeddingModel = new BatchingEmbeddingModel(segments -> {
+            throw new OutOfMemoryError("embedding response too large");
+        }, EmbeddingBatchingProperties.builder()
+                .window(Duration.ofMillis(10))
+                .build());
+
+        assertThatThrownBy(() -> embeddingModel.embed("largest city in USA by population"))
+                .isInstanceOf(OutOfMemoryError.class);
+    }
+
+    @Test
+    void shouldFailCallsOfBatchBeingCollectedOnClose() throws Exception {
+        embeddingModel = new BatchingEmbeddingModel(delegate, EmbeddingBatchingProperties.builder()
+                .window(Duration.ofMinutes(1))
+                .maxBatchSize(4)
+                .build());
+        var result = CompletableFuture.supplyAsync(() -> embeddingModel.embed("largest city in USA by population"));
+        // the collector takes the request off the queue and waits for the batch to fill
+        Thread.sleep(100);
+
+        embeddingModel.close();
+
+        assertThat(result).failsWithin(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldRejectEmbedsAfterClose() {
+        embeddingModel = new BatchingEmbeddingModel(delegate, EmbeddingBatchingProperties.builder().build());
+
+        embeddingModel.close();
+
+        assertThatThrownBy(() -> embeddingModel.embed("largest city in USA by population"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Embedding embeddingOf(String text) {
+        return new Embedding(new float[]{text.hashCode(), text.length()});
+    }
+
+    private static List<Embedding> runConcurrently(int callers, IntFunction<Embedding> call) throws Exception {
+        var executor = Executors.newFixedThreadPool(callers);
+        try {
+            var futures = new ArrayList<CompletableFuture<Embedding>>();
+            for (int caller = 0; caller < callers; caller++) {
+                int current = caller;
+                futures.add(CompletableFuture.supplyAsync(() -> call.apply(current), executor));
+            }
+            var results = new ArrayList<Embedding>();
+            for (var future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.giova333.semanticcache.core;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingEmbeddingModelTest {
+
+    EmbeddingModel delegate = mock(EmbeddingModel.class);
+
+    @Test
+    void shouldEmbedTextOnlyOnce() {
+        var embeddingModel = new CachingEmbeddingModel(delegate, EmbeddingCacheProperties.builder().build());
+        var segment = TextSegment.from("largest city in USA by population");
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(delegate.embedAll(List.of(segment))).willReturn(Response.from(List.of(embedding)));
+
+        var first = embeddingModel.embed(segment.text());
+        var second = embeddingModel.embed(segment.text());
+
+        assertThat(first.content()).isEqualTo(embedding);
+        assertThat(second.content()).isEqualTo(embedding);
+        verify(delegate, times(1)).embedAll(anyListOf(TextSegment.class));
+    }
+
+    @Test
+    void shouldEmbedOnlyMissingTextsAndKeepOrder() {
+        var embeddingModel = new CachingEmbeddingModel(delegate, EmbeddingCacheProperties.builder().build());
+        var cached = TextSegment.from("cached");
+        var missing = TextSegment.from("missing");
+        var cachedEmbedding = new Embedding(new float[]{1.0f, 0.0f});
+        var missingEmbedding = new Embedding(new float[]{0.0f, 1.0f});
+        given(delegate.embedAll(List.of(cached))).willReturn(Response.from(List.of(cachedEmbedding)));
+        given(delegate.embedAll(List.of(missing))).willReturn(Response.from(List.of(missingEmbedding)));
+        embeddingModel.embed(cached);
+
+        var response = embeddingModel.embedAll(List.of(missing, cached, missing));
+
+        assertThat(response.content()).containsExactly(missingEmbedding, cachedEmbedding, missingEmbedding);
+        verify(delegate, times(1)).embedAll(List.of(missing));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedTextWhenOverBudget() {
+        var entryBytes = 96 + 2 * "first".length() + 2 * Float.BYTES;
+        var embeddingModel = new CachingEmbeddingModel(delegate, EmbeddingCacheProperties.builder()
+                .maxBytes(2L * entryBytes)
+                .build());
+        var first = TextSegment.from("first");
+        var second = TextSegment.from("secnd");
+        var third = TextSegment.from("third");
+        given(delegate.embedAll(List.of(first))).willReturn(Response.from(List.of(new Embedding(new float[]{1, 0}))));
+        given(delegate.embedAll(List.of(second))).willReturn(Response.from(List.of(new Embedding(new float[]{0, 1}))));
+        given(delegate.embedAll(List.of(third))).willReturn(Response.from(List.of(new Embedding(new float[]{1, 1}))));
+
+        embeddingModel.embed(first);
+        embeddingModel.embed(second);
+        embeddingModel.embed(first);
+        embeddingModel.embed(third);
+        embeddingModel.embed(first);
+        embeddingModel.embed(third);
+
+        verify(delegate, times(1)).embedAll(List.of(first));
+        verify(delegate, times(1)).embedAll(List.of(third));
+        embeddingModel.embed(second);
+        verify(delegate, times(2)).embedAll(List.of(second));
+    }
+
+    @Test
+    void shouldStoreQuantizedVectorsWithSmallError() {
+        var embeddingModel = new CachingEmbeddingModel(delegate, EmbeddingCacheProperties.builder()
+                .quantized(true)
+                .build());
+        var segment = TextSegment.from("largest city in USA by population");
+        var vector = new float[]{-0.5f, -0.1f, 0.0f, 0.3f, 0.7f};
+        given(delegate.embedAll(List.of(segment))).willReturn(Response.from(List.of(new Embedding(vector))));
+
+        embeddingModel.embed(segment);
+        var cached = embeddingModel.embed(segment).content().vector();
+
+        for (int i = 0; i < vector.length; i++) {
+            assertThat(cached[i]).isCloseTo(vector[i], within(1.2f / 255));
+        }
+    }
+
+    @Test
+    void shouldNotCacheTextLargerThanBudget() {
+        var embeddingModel = new CachingEmbeddingModel(delegate, EmbeddingCacheProperties.builder()
+                .maxBytes(10)
+                .build());
+        var segment = TextSegment.from("largest city in USA by population");
+        given(delegate.embedAll(List.of(segment))).willReturn(Response.from(List.of(new Embedding(new float[]{1, 2}))));
+
+        embeddingModel.embed(segment);
+        embeddingModel.embed(segment);
+
+        verify(delegate, times(2)).embedAll(List.of(segment));
+        verify(delegate, never()).embedAll(List.of());
+    }
+}
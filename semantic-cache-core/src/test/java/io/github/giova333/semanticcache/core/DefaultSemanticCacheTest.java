@@ -1,16 +1,34 @@
 package io.github.giova333.semanticcache.core;
 
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class DefaultSemanticCacheTest {
@@ -75,4 +93,489 @@ class DefaultSemanticCacheTest {
 
         assertThat(actualResult).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetValueFromExactMatchCacheWithoutEmbedding() {
+        var exactMatchCache = new ExactMatchCache(ExactMatchCacheProperties.builder().build());
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .exactMatchCache(exactMatchCache)
+                .build();
+        var key = "largest city in USA by population";
+        var value = "New York";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+
+        cache.set(key, value);
+        var actualResult = cache.get("Largest city in USA by population?");
+
+        assertThat(actualResult).contains(value);
+        verify(embeddingModel, times(1)).embed(anyString());
+    }
+
+    @Test
+    void shouldPromoteValueFoundBySimilaritySearch() {
+        var exactMatchCache = new ExactMatchCache(ExactMatchCacheProperties.builder()
+                .promotionTtl(Duration.ofMinutes(5))
+                .build());
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .exactMatchCache(exactMatchCache)
+                .build();
+        var key = "which is the most populated city in the USA?";
+        var value = "New York";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        var vectorDocument = new VectorDocument(embedding.vector(), "largest city in USA by population", value);
+        given(vectorStore.similaritySearch(embedding.vector())).willReturn(Optional.of(vectorDocument));
+
+        cache.get(key);
+
+        assertThat(exactMatchCache.get(key)).contains(value);
+    }
+
+    @Test
+    void shouldGetValueAsynchronouslyWhenFound() {
+        var key = "largest city in USA by population";
+        var value = "New York";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+
+        var vectorDocument = new VectorDocument(embedding.vector(), key, value);
+        given(vectorStore.similaritySearchAsync(embedding.vector()))
+                .willReturn(CompletableFuture.completedFuture(Optional.of(vectorDocument)));
+
+        var actualResult = semanticCache.getAsync(key).join();
+
+        assertThat(actualResult).contains(value);
+    }
+
+    @Test
+    void shouldSetValueAsynchronouslyOnProvidedExecutor() {
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .executor(Runnable::run)
+                .build();
+        var key = "largest city in USA by population";
+        var value = "New York";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        var ttl = Duration.ofMinutes(5);
+        var document = new VectorDocument(embedding.vector(), key, value);
+        given(vectorStore.saveAsync(document, ttl)).willReturn(CompletableFuture.completedFuture(null));
+
+        var result = cache.setAsync(key, value, ttl);
+
+        assertThat(result).isCompleted();
+        verify(vectorStore).saveAsync(document, ttl);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenEmbeddingFails() {
+        var key = "largest city in USA by population";
+        given(embeddingModel.embed(key)).willThrow(new IllegalStateException("embedding model unavailable"));
+
+        var result = semanticCache.getAsync(key);
+
+        assertThat(result).failsWithin(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldSetAllValuesWithSingleEmbeddingCall() {
+        var entries = new LinkedHashMap<String, String>();
+        entries.put("largest city in USA by population", "New York");
+        entries.put("capital of France", "Paris");
+
+        var embedding1 = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        var embedding2 = new Embedding(new float[]{3.0f, 2.0f, 1.0f});
+        given(embeddingModel.embedAll(List.of(TextSegment.from("largest city in USA by population"), TextSegment.from("capital of France"))))
+                .willReturn(Response.from(List.of(embedding1, embedding2)));
+
+        var ttl = Duration.ofMinutes(5);
+        semanticCache.setAll(entries, ttl);
+
+        verify(vectorStore).saveAll(List.of(
+                new VectorDocument(embedding1.vector(), "largest city in USA by population", "New York"),
+                new VectorDocument(embedding2.vector(), "capital of France", "Paris")), ttl);
+    }
+
+    @Test
+    void shouldGetAllValuesInInputOrder() {
+        var exactMatchCache = new ExactMatchCache(ExactMatchCacheProperties.builder().build());
+        exactMatchCache.put("capital of France", "Paris");
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .exactMatchCache(exactMatchCache)
+                .build();
+
+        var embedding1 = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        var embedding2 = new Embedding(new float[]{3.0f, 2.0f, 1.0f});
+        given(embeddingModel.embedAll(List.of(TextSegment.from("largest city in USA by population"), TextSegment.from("capital of Spain"))))
+                .willReturn(Response.from(List.of(embedding1, embedding2)));
+        var vectorDocument = new VectorDocument(embedding1.vector(), "largest city in USA by population", "New York");
+        given(vectorStore.similaritySearchAll(List.of(embedding1.vector(), embedding2.vector())))
+                .willReturn(List.of(Optional.of(vectorDocument), Optional.empty()));
+
+        var actualResult = cache.getAll(List.of("largest city in USA by population", "capital of France", "capital of Spain"));
+
+        assertThat(actualResult).containsExactly(Optional.of("New York"), Optional.of("Paris"), Optional.empty());
+    }
+
+    @Test
+    void shouldStoreAndSearchWithinNamespace() {
+        var key = "largest city in USA by population";
+        var value = "New York";
+        var tenantCache = semanticCache.namespace("tenant-a");
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        var vectorDocument = new VectorDocument(embedding.vector(), key, value, "tenant-a");
+        given(vectorStore.similaritySearch("tenant-a", embedding.vector())).willReturn(Optional.of(vectorDocument));
+
+        tenantCache.set(key, value);
+        var actualResult = tenantCache.get(key);
+
+        assertThat(actualResult).contains(value);
+        verify(vectorStore).save(vectorDocument);
+    }
+
+    @Test
+    void shouldRecordHitsAndMisses() {
+        var instrumentation = mock(SemanticCacheInstrumentation.class);
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .exactMatchCache(new ExactMatchCache(ExactMatchCacheProperties.builder()
+                        .promotionTtl(Duration.ofMinutes(5))
+                        .build()))
+                .instrumentation(instrumentation)
+                .build();
+        var key = "largest city in USA by population";
+        var otherKey = "longest river in Europe";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        var otherEmbedding = new Embedding(new float[]{3.0f, 2.0f, 1.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        given(embeddingModel.embed(otherKey)).willReturn(Response.from(otherEmbedding));
+        given(vectorStore.similaritySearch(embedding.vector()))
+                .willReturn(Optional.of(new VectorDocument(embedding.vector(), key, "New York")));
+        given(vectorStore.similaritySearch(otherEmbedding.vector())).willReturn(Optional.empty());
+
+        cache.get(key);
+        cache.get(key);
+        cache.get(otherKey);
+
+        verify(instrumentation).hit();
+        verify(instrumentation).exactMatchHit();
+        verify(instrumentation).miss();
+    }
+
+    @Test
+    void shouldAnswerRepeatedMissFromNegativeCacheWithoutEmbedding() {
+        var instrumentation = mock(SemanticCacheInstrumentation.class);
+        var cache = negativeCachingSemanticCache(instrumentation);
+        var key = "largest city in USA by population";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        given(vectorStore.similaritySearch(embedding.vector())).willReturn(Optional.empty());
+
+        assertThat(cache.get(key)).isEmpty();
+        assertThat(cache.get("Largest city in USA by population?")).isEmpty();
+
+        verify(embeddingModel, times(1)).embed(anyString());
+        verify(vectorStore, times(1)).similaritySearch(any(float[].class));
+        verify(instrumentation).negativeCacheHit();
+    }
+
+    @Test
+    void shouldSearchAgainOnceMatchingKeyIsSet() {
+        var cache = negativeCachingSemanticCache(SemanticCacheInstrumentation.NOOP);
+        var key = "largest city in USA by population";
+        var similarKey = "most populated city in the USA";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        var similarEmbedding = new Embedding(new float[]{1.0f, 2.0f, 3.1f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        given(embeddingModel.embed(similarKey)).willReturn(Response.from(similarEmbedding));
+        given(vectorStore.matches(any(float[].class), any(float[].class))).willReturn(true);
+        given(vectorStore.similaritySearch(embedding.vector()))
+                .willReturn(Optional.empty())
+                .willReturn(Optional.of(new VectorDocument(similarEmbedding.vector(), similarKey, "New York")));
+
+        assertThat(cache.get(key)).isEmpty();
+        cache.set(similarKey, "New York");
+
+        assertThat(cache.get(key)).contains("New York");
+    }
+
+    @Test
+    void shouldRecordStageDurations() {
+        var instrumentation = mock(SemanticCacheInstrumentation.class);
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .instrumentation(instrumentation)
+                .build();
+        var key = "largest city in USA by population";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        given(vectorStore.similaritySearch(embedding.vector())).willReturn(Optional.empty());
+
+        cache.set(key, "New York");
+        cache.get(key);
+
+        verify(instrumentation, times(2)).embeddingDuration(anyLong());
+        verify(instrumentation).writeDuration(anyLong());
+        verify(instrumentation).searchDuration(anyLong());
+    }
+
+    @Test
+    void shouldRecordAsyncDurationsOfBlockingStore() {
+        var instrumentation = mock(SemanticCacheInstrumentation.class);
+        var blockingStore = new VectorStore() {
+            @Override
+            public void save(VectorDocument vectorDocument) {
+                sleepQuietly(50);
+            }
+
+            @Override
+            public void save(VectorDocument vectorDocument, Duration ttl) {
+                sleepQuietly(50);
+            }
+
+            @Override
+            public Optional<VectorDocument> similaritySearch(float[] vector) {
+                sleepQuietly(50);
+                return Optional.empty();
+            }
+        };
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(blockingStore)
+                .instrumentation(instrumentation)
+                .build();
+        var key = "largest city in USA by population";
+        given(embeddingModel.embed(key)).willReturn(Response.from(new Embedding(new float[]{1.0f, 2.0f, 3.0f})));
+
+        cache.setAsync(key, "New York").join();
+        cache.getAsync(key).join();
+
+        var writeDuration = ArgumentCaptor.forClass(Long.class);
+        var searchDuration = ArgumentCaptor.forClass(Long.class);
+        verify(instrumentation).writeDuration(writeDuration.capture());
+        verify(instrumentation).searchDuration(searchDuration.capture());
+        assertThat(writeDuration.getValue()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(searchDuration.getValue()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void shouldComputeAndStoreValueOnMiss() {
+        var key = "largest city in USA by population";
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        given(vectorStore.similaritySearch(embedding.vector())).willReturn(Optional.empty());
+
+        var actualResult = semanticCache.get(key, question -> "New York", null);
+
+        assertThat(actualResult).isEqualTo("New York");
+        verify(vectorStore).save(new VectorDocument(embedding.vector(), key, "New York"));
+    }
+
+    @Test
+    void shouldRecordHitFoundWhenSearchingAgainBeforeLoading() {
+        var instrumentation = mock(SemanticCacheInstrumentation.class);
+        var cache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .exactMatchCache(new ExactMatchCache(ExactMatchCacheProperties.builder()
+                        .promotionTtl(Duration.ofMinutes(5))
+                        .build()))
+                .instrumentation(instrumentation)
+                .build();
+        var key = "largest city in USA by population";
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        // another caller stores the value between the lookup and the start of the flight
+        given(vectorStore.similaritySearch(embedding.vector())).willReturn(Optional.empty(),
+                Optional.of(new VectorDocument(embedding.vector(), key, "New York")));
+
+        assertThat(cache.get(key, question -> "Los Angeles", null)).isEqualTo("New York");
+        assertThat(cache.get(key)).contains("New York");
+
+        verify(instrumentation).hit();
+        verify(instrumentation).exactMatchHit();
+        verify(instrumentation, never()).miss();
+        verify(vectorStore, never()).save(any(VectorDocument.class));
+    }
+
+    @Test
+    void shouldStoreLoadedValueOnceKeyIsAskedAgain() {
+        var key = "largest city in USA by population";
+        var admittingCache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .admissionPolicy(new FrequencyAdmissionPolicy(new FrequencyAdmissionProperties()))
+                .build();
+
+        var embedding = new Embedding(new float[]{1.0f, 2.0f, 3.0f});
+        given(embeddingModel.embed(key)).willReturn(Response.from(embedding));
+        given(vectorStore.similaritySearch(embedding.vector())).willReturn(Optional.empty());
+
+        assertThat(admittingCache.get(key, question -> "New York", null)).isEqualTo("New York");
+        verify(vectorStore, never()).save(any(VectorDocument.class));
+
+        assertThat(admittingCache.get(key, question -> "New York", null)).isEqualTo("New York");
+        verify(vectorStore).save(new VectorDocument(embedding.vector(), key, "New York"));
+    }
+
+    @Test
+    void shouldNotEmbedRejectedValues() {
+        var instrumentation = mock(SemanticCacheInstrumentation.class);
+        var admittingCache = DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .instrumentation(instrumentation)
+                .admissionPolicy((namespace, key, value) -> !value.isBlank())
+                .build();
+
+        admittingCache.set("largest city in USA by population", " ");
+
+        verify(embeddingModel, never()).embed(anyString());
+        verify(vectorStore, never()).save(any(VectorDocument.class));
+        verify(instrumentation).admissionRejected();
+    }
+
+    @Test
+    void shouldRunLoaderOnceForConcurrentMissesOfSameKey() throws Exception {
+        int callers = 8;
+        var key = "largest city in USA by population";
+        var embedded = new CountDownLatch(callers);
+        given(embeddingModel.embed(key)).willAnswer(invocation -> {
+            embedded.countDown();
+            return Response.from(new Embedding(new float[]{1.0f, 2.0f, 3.0f}));
+        });
+        given(vectorStore.similaritySearch(any(float[].class))).willReturn(Optional.empty());
+        var loads = new AtomicInteger();
+
+        var results = runConcurrently(callers, caller -> semanticCache.get(key, question -> {
+            loads.incrementAndGet();
+            awaitQuietly(embedded);
+            return "New York";
+        }, Duration.ofMinutes(5)));
+
+        assertThat(results).containsOnly("New York");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldRunLoaderOnceForConcurrentMissesOfSimilarKeys() throws Exception {
+        var keys = List.of("largest city in USA by population", "which is the most populated city in the USA?");
+        var embedded = new CountDownLatch(keys.size());
+        given(embeddingModel.embed(anyString())).willAnswer(invocation -> {
+            embedded.countDown();
+            var key = (String) invocation.getArguments()[0];
+            return Response.from(new Embedding(new float[]{1.0f, 2.0f, key.length()}));
+        });
+        given(vectorStore.similaritySearch(any(float[].class))).willReturn(Optional.empty());
+        given(vectorStore.matches(any(float[].class), any(float[].class))).willReturn(true);
+        var loads = new AtomicInteger();
+
+        var results = runConcurrently(keys.size(), caller -> semanticCache.get(keys.get(caller), question -> {
+            loads.incrementAndGet();
+            awaitQuietly(embedded);
+            return "New York";
+        }, Duration.ofMinutes(5)));
+
+        assertThat(results).containsOnly("New York");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldFailWaitingCallersWhenLoaderThrowsError() throws Exception {
+        int callers = 2;
+        var key = "largest city in USA by population";
+        var embedded = new CountDownLatch(callers);
+        given(embeddingModel.embed(key)).willAnswer(invocation -> {
+            embedded.countDown();
+            return Response.from(new Embedding(new float[]{1.0f, 2.0f, 3.0f}));
+        });
+        given(vectorStore.similaritySearch(any(float[].class))).willReturn(Optional.empty());
+        var loads = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(callers);
+        try {
+            var futures = new ArrayList<CompletableFuture<String>>();
+            for (int caller = 0; caller < callers; caller++) {
+                futures.add(CompletableFuture.supplyAsync(() -> semanticCache.get(key, question -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(embedded);
+                    throw new AssertionError("loader failed");
+                }, Duration.ofMinutes(5)), executor));
+            }
+
+            for (var future : futures) {
+                assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(AssertionError.class);
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SemanticCache negativeCachingSemanticCache(SemanticCacheInstrumentation instrumentation) {
+        return DefaultSemanticCache.builder()
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .negativeCache(new NegativeCache(NegativeCacheProperties.builder().build()))
+                .instrumentation(instrumentation)
+                .build();
+    }
+
+    private static List<String> runConcurrently(int callers, IntFunction<String> call) throws Exception {
+        var executor = Executors.newFixedThreadPool(callers);
+        try {
+            var futures = new ArrayList<CompletableFuture<String>>();
+            for (int caller = 0; caller < callers; caller++) {
+                int current = caller;
+                futures.add(CompletableFuture.supplyAsync(() -> call.apply(current), executor));
+            }
+            var results = new ArrayList<String>();
+            for (var future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+            // give the other callers time to join the flight after embedding their key
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
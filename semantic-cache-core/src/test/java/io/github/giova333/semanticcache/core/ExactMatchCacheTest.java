@@ -0,0 +1,109 @@
+package io.github.giova333.semanticcache.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactMatchCacheTest {
+
+    TestClock clock = new TestClock();
+
+    @Test
+    void shouldReturnValueForNormalizedKey() {
+        var cache = exactMatchCache(ExactMatchCacheProperties.builder().build());
+
+        cache.put("Largest city in USA by population?", "New York");
+
+        assertThat(cache.get("  largest CITY in usa  by population ")).contains("New York");
+    }
+
+    @Test
+    void shouldReturnEmptyOptionalWhenNotFound() {
+        var cache = exactMatchCache(ExactMatchCacheProperties.builder().build());
+
+        cache.put("largest city in USA by population", "New York");
+
+        assertThat(cache.get("largest city in Canada by population")).isEmpty();
+    }
+
+    @Test
+    void shouldKeepNamespacesApart() {
+        var cache = exactMatchCache(ExactMatchCacheProperties.builder().build());
+
+        cache.put("tenant-a", "largest city in USA by population", "New York");
+
+        assertThat(cache.get("tenant-a", "largest city in USA by population")).contains("New York");
+        assertThat(cache.get("tenant-b", "largest city in USA by population")).isEmpty();
+        assertThat(cache.get("largest city in USA by population")).isEmpty();
+    }
+
+    @Test
+    void shouldExpireEntryAfterTtl() {
+        var cache = exactMatchCache(ExactMatchCacheProperties.builder().build());
+
+        cache.put("largest city in USA by population", "New York", Duration.ofSeconds(3));
+        assertThat(cache.get("largest city in USA by population")).contains("New York");
+
+        clock.advance(Duration.ofSeconds(3));
+
+        assertThat(cache.get("largest city in USA by population")).isEmpty();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntry() {
+        var cache = exactMatchCache(ExactMatchCacheProperties.builder()
+                .maxSize(2)
+                .evictionPolicy(ExactMatchCacheProperties.EvictionPolicy.LRU)
+                .build());
+
+        cache.put("first", "1");
+        cache.put("second", "2");
+        cache.get("first");
+        cache.put("third", "3");
+
+        assertThat(cache.get("first")).contains("1");
+        assertThat(cache.get("second")).isEmpty();
+        assertThat(cache.get("third")).contains("3");
+    }
+
+    @Test
+    void shouldEvictOldestEntry() {
+        var cache = exactMatchCache(ExactMatchCacheProperties.builder()
+                .maxSize(2)
+                .evictionPolicy(ExactMatchCacheProperties.EvictionPolicy.FIFO)
+                .build());
+
+        cache.put("first", "1");
+        cache.put("second", "2");
+        cache.get("first");
+        cache.put("third", "3");
+
+        assertThat(cache.get("first")).isEmpty();
+        assertThat(cache.get("second")).contains("2");
+        assertThat(cache.get("third")).contains("3");
+    }
+
+    @Test
+    void shouldPromoteOnlyWhenPromotionTtlIsConfigured() {
+        var withoutPromotion = exactMatchCache(ExactMatchCacheProperties.builder().build());
+        var withPromotion = exactMatchCache(ExactMatchCacheProperties.builder()
+                .promotionTtl(Duration.ofMinutes(1))
+                .build());
+
+        withoutPromotion.promote("most populated city in the USA", "New York");
+        withPromotion.promote("most populated city in the USA", "New York");
+
+        assertThat(withoutPromotion.get("most populated city in the USA")).isEmpty();
+        assertThat(withPromotion.get("most populated city in the USA")).contains("New York");
+
+        clock.advance(Duration.ofMinutes(1));
+
+        assertThat(withPromotion.get("most populated city in the USA")).isEmpty();
+    }
+
+    private ExactMatchCache exactMatchCache(ExactMatchCacheProperties properties) {
+        return new ExactMatchCache(properties, KeyNormalizer.standard(), clock);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.giova333.semanticcache.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FrequencyAdmissionPolicyTest {
+
+    FrequencyAdmissionPolicy admissionPolicy = new FrequencyAdmissionPolicy(FrequencyAdmissionProperties.builder()
+            .minLookups(2)
+            .window(1_000)
+            .build());
+
+    @Test
+    void shouldAdmitOnlyKeysLookedUpOften() {
+        admissionPolicy.recordLookup(null, "largest city in USA by population");
+        assertThat(admissionPolicy.admit(null, "largest city in USA by population", "New York")).isFalse();
+
+        admissionPolicy.recordLookup(null, "Largest city in USA by population?");
+        assertThat(admissionPolicy.admit(null, "largest city in USA by population", "New York")).isTrue();
+        assertThat(admissionPolicy.admit(null, "capital of France", "Paris")).isFalse();
+    }
+
+    @Test
+    void shouldCountLookupsPerNamespace() {
+        admissionPolicy.recordLookup("tenant-1", "capital of France");
+        admissionPolicy.recordLookup("tenant-2", "capital of France");
+
+        assertThat(admissionPolicy.admit("tenant-1", "capital of France", "Paris")).isFalse();
+        assertThat(admissionPolicy.admit(null, "capital of France", "Paris")).isFalse();
+    }
+
+    @Test
+    void shouldCountKeysWithSameStringHashCodeSeparately() {
+        assertThat("capital of qenbsnid".hashCode()).isEqualTo("capital of ughskmpo".hashCode());
+
+        admissionPolicy.recordLookup(null, "capital of qenbsnid");
+        admissionPolicy.recordLookup(null, "capital of qenbsnid");
+
+        assertThat(admissionPolicy.admit(null, "capital of qenbsnid", "Paris")).isTrue();
+        assertThat(admissionPolicy.admit(null, "capital of ughskmpo", "Paris")).isFalse();
+    }
+
+    @Test
+    void shouldForgetOldLookupsOnceWindowIsFull() {
+        admissionPolicy.recordLookup(null, "capital of France");
+        admissionPolicy.recordLookup(null, "capital of France");
+        assertThat(admissionPolicy.admit(null, "capital of France", "Paris")).isTrue();
+
+        for (int i = 0; i < 1_000; i++) {
+            admissionPolicy.recordLookup(null, "question " + i);
+        }
+
+        assertThat(admissionPolicy.admit(null, "capital of France", "Paris")).isFalse();
+    }
+
+    @Test
+    void shouldRejectMinLookupsAboveCounterCapacity() {
+        var properties = FrequencyAdmissionProperties.builder()
+                .minLookups(16)
+                .build();
+
+        assertThatThrownBy(() -> new FrequencyAdmissionPolicy(properties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
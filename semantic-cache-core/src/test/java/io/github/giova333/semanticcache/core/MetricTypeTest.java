@@ -0,0 +1,48 @@
+package io.github.giova333.semanticcache.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MetricTypeTest {
+
+    @Test
+    void shouldScoreIdenticalUnitVectorsAsOne() {
+        float[] vector = {0.6f, 0.8f};
+
+        for (var metricType : MetricType.values()) {
+            assertThat(metricType.similarity(metricType.distance(vector, vector))).isCloseTo(1.0, within(1e-6));
+        }
+    }
+
+    @Test
+    void shouldScoreInnerProductAsDotProduct() {
+        float[] a = {1.0f, 0.0f};
+        float[] b = {0.8f, 0.6f};
+
+        assertThat(MetricType.IP.similarity(MetricType.IP.distance(a, b))).isCloseTo(0.8, within(1e-6));
+    }
+
+    @Test
+    void shouldKeepEuclideanScoreBetweenZeroAndOne() {
+        float[] a = {0.0f, 0.0f};
+        float[] b = {30.0f, 40.0f};
+
+        assertThat(MetricType.L2.similarity(MetricType.L2.distance(a, b))).isCloseTo(1.0 / 2_501, within(1e-9));
+    }
+
+    @Test
+    void shouldConvertSimilarityThresholdToMaxDistance() {
+        for (var metricType : MetricType.values()) {
+            for (double similarity : new double[]{0.5, 0.8, 0.95, 1.0}) {
+                assertThat(metricType.similarity(metricType.maxDistance(similarity))).isCloseTo(similarity, within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void shouldAcceptAnyEuclideanDistanceForNonPositiveThreshold() {
+        assertThat(MetricType.L2.maxDistance(0)).isInfinite();
+    }
+}
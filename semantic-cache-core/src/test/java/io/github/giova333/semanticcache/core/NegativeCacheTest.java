@@ -0,0 +1,82 @@
+package io.github.giova333.semanticcache.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeCacheTest {
+
+    TestClock clock = new TestClock();
+    NegativeCache cache = new NegativeCache(NegativeCacheProperties.builder()
+            .ttl(Duration.ofSeconds(2))
+            .build(), KeyNormalizer.standard(), clock);
+
+    @Test
+    void shouldRememberMissForNormalizedKeyUntilTtl() {
+        cache.put(null, "Largest city in USA by population?", new float[]{1.0f, 0.0f});
+
+        assertThat(cache.contains(null, "  largest CITY in usa  by population ")).isTrue();
+        assertThat(cache.contains("tenant-a", "largest city in USA by population")).isFalse();
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(cache.contains(null, "largest city in USA by population")).isFalse();
+    }
+
+    @Test
+    void shouldForgetMissesMatchingWrittenVector() {
+        cache.put("tenant-a", "largest city in USA by population", new float[]{1.0f, 0.0f});
+        cache.put(null, "most populated city in the USA", new float[]{1.0f, 0.0f});
+        cache.put("tenant-b", "biggest city in the USA", new float[]{1.0f, 0.0f});
+        cache.put("tenant-a", "capital of France", new float[]{0.0f, 1.0f});
+
+        cache.invalidate("tenant-a", "which city in the USA has most inhabitants", new float[]{1.0f, 0.0f}, Arrays::equals);
+
+        assertThat(cache.contains("tenant-a", "largest city in USA by population")).isFalse();
+        assertThat(cache.contains(null, "most populated city in the USA")).isFalse();
+        assertThat(cache.contains("tenant-b", "biggest city in the USA")).isTrue();
+        assertThat(cache.contains("tenant-a", "capital of France")).isTrue();
+    }
+
+    @Test
+    void shouldForgetMissOfWrittenKey() {
+        cache.put(null, "capital of France", new float[]{0.0f, 1.0f});
+
+        cache.invalidate(null, "Capital of France?", new float[]{1.0f, 0.0f}, Arrays::equals);
+
+        assertThat(cache.contains(null, "capital of France")).isFalse();
+    }
+
+    @Test
+    void shouldAnswerLookupsWhileWriteComparesVectors() throws Exception {
+        cache.put(null, "capital of France", new float[]{0.0f, 1.0f});
+        var comparing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var invalidation = CompletableFuture.runAsync(() -> cache.invalidate(null, "capital of Italy", new float[]{1.0f, 0.0f},
+                (vector, otherVector) -> {
+                    comparing.countDown();
+                    awaitQuietly(release);
+                    return false;
+                }));
+        assertThat(comparing.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.contains(null, "capital of France")).isTrue();
+
+        release.countDown();
+        invalidation.get(1, TimeUnit.SECONDS);
+        assertThat(cache.contains(null, "capital of France")).isTrue();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
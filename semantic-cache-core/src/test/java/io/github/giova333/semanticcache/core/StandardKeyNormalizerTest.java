@@ -0,0 +1,31 @@
+package io.github.giova333.semanticcache.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StandardKeyNormalizerTest {
+
+    KeyNormalizer normalizer = KeyNormalizer.standard();
+
+    @Test
+    void shouldIgnoreCaseWhitespaceAndSurroundingPunctuation() {
+        assertThat(normalizer.normalize("  What's the LARGEST city,  in \"USA\"? "))
+                .isEqualTo(normalizer.normalize("what's the largest city in usa"));
+        assertThat(normalizer.normalize("(capital of France)!")).isEqualTo("capital of france");
+    }
+
+    @Test
+    void shouldKeepPunctuationInsideWords() {
+        assertThat(normalizer.normalize("1.5 times 2")).isNotEqualTo(normalizer.normalize("15 times 2"));
+        assertThat(normalizer.normalize("how to re-sign a contract")).isNotEqualTo(normalizer.normalize("how to resign a contract"));
+        assertThat(normalizer.normalize("1,000 dollars")).isNotEqualTo(normalizer.normalize("1000 dollars"));
+    }
+
+    @Test
+    void shouldKeepSymbols() {
+        assertThat(normalizer.normalize("what is C#?")).isEqualTo("what is c#");
+        assertThat(normalizer.normalize("what is C#?")).isNotEqualTo(normalizer.normalize("what is C?"));
+        assertThat(normalizer.normalize("-5 degrees")).isNotEqualTo(normalizer.normalize("5 degrees"));
+    }
+}
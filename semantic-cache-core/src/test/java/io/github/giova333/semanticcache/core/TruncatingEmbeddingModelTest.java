@@ -0,0 +1,40 @@
+package io.github.giova333.semanticcache.core;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class TruncatingEmbeddingModelTest {
+
+    EmbeddingModel delegate = mock(EmbeddingModel.class);
+    EmbeddingModel embeddingModel = new TruncatingEmbeddingModel(delegate, 2);
+
+    @Test
+    void shouldKeepLeadingDimensionsWithUnitLength() {
+        var segments = List.of(TextSegment.from("largest city in USA by population"));
+        given(delegate.embedAll(segments)).willReturn(Response.from(List.of(new Embedding(new float[]{3.0f, 4.0f, 12.0f}))));
+
+        var vector = embeddingModel.embed(segments.get(0)).content().vector();
+
+        assertThat(vector).containsExactly(new float[]{0.6f, 0.8f}, within(1e-6f));
+    }
+
+    @Test
+    void shouldRejectEmbeddingShorterThanTruncatedDimensionality() {
+        var segments = List.of(TextSegment.from("largest city in USA by population"));
+        given(delegate.embedAll(segments)).willReturn(Response.from(List.of(new Embedding(new float[]{1.0f}))));
+
+        assertThatThrownBy(() -> embeddingModel.embedAll(segments))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
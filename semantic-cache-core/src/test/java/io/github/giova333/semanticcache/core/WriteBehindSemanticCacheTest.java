@@ -0,0 +1,253 @@
+package io.github.giova333.semanticcache.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WriteBehindSemanticCacheTest {
+
+    SemanticCache delegate = mock(SemanticCache.class);
+    SemanticCacheInstrumentation instrumentation = mock(SemanticCacheInstrumentation.class);
+    WriteBehindSemanticCache semanticCache;
+
+    @AfterEach
+    void close() {
+        semanticCache.close();
+    }
+
+    @Test
+    void shouldFlushQueuedWritesAsOneBatch() throws Exception {
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .batchSize(2)
+                .flushInterval(Duration.ofMinutes(1))
+                .build());
+        var flushed = countFlushes(1);
+
+        semanticCache.set("largest city in USA by population", "New York");
+        semanticCache.setAsync("capital of France", "Paris");
+
+        assertThat(flushed.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(delegate).setAll(Map.of(
+                "largest city in USA by population", "New York",
+                "capital of France", "Paris"));
+    }
+
+    @Test
+    void shouldFlushSeparatelyPerNamespaceAndTtl() throws Exception {
+        var tenantCache = mock(SemanticCache.class);
+        given(delegate.namespace("tenant-1")).willReturn(tenantCache);
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .batchSize(3)
+                .flushInterval(Duration.ofMinutes(1))
+                .build());
+        var flushed = countFlushes(3);
+        doAnswer(invocation -> {
+            flushed.countDown();
+            return null;
+        }).when(tenantCache).setAll(anyMapOf(String.class, String.class));
+
+        semanticCache.set("capital of France", "Paris");
+        semanticCache.set("capital of Italy", "Rome", Duration.ofMinutes(5));
+        semanticCache.namespace("tenant-1").set("capital of Spain", "Madrid");
+
+        assertThat(flushed.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(delegate).setAll(Map.of("capital of France", "Paris"));
+        verify(delegate).setAll(Map.of("capital of Italy", "Rome"), Duration.ofMinutes(5));
+        verify(tenantCache).setAll(Map.of("capital of Spain", "Madrid"));
+    }
+
+    @Test
+    void shouldDropNewestWritesWhenQueueIsFull() throws Exception {
+        var flushing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var flushed = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            flushed.countDown();
+            return null;
+        }).when(delegate).setAll(anyMapOf(String.class, String.class));
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .queueCapacity(1)
+                .batchSize(1)
+                .overflowPolicy(WriteBehindProperties.OverflowPolicy.DROP_NEWEST)
+                .build());
+
+        semanticCache.set("capital of France", "Paris");
+        assertThat(flushing.await(1, TimeUnit.SECONDS)).isTrue();
+        semanticCache.set("capital of Italy", "Rome");
+        semanticCache.set("capital of Spain", "Madrid");
+        release.countDown();
+
+        assertThat(flushed.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(instrumentation).writeBehindDropped(1);
+        verify(delegate).setAll(Map.of("capital of Italy", "Rome"));
+        verify(delegate, never()).setAll(Map.of("capital of Spain", "Madrid"));
+    }
+
+    @Test
+    void shouldKeepFlushingAfterBatchFailedWithError() throws Exception {
+        var failed = new CountDownLatch(1);
+        var flushed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (failed.getCount() > 0) {
+                failed.countDown();
+                throw new NoClassDefFoundError("redis/clients/jedis/Pipeline");
+            }
+            flushed.countDown();
+            return null;
+        }).when(delegate).setAll(anyMapOf(String.class, String.class));
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .batchSize(1)
+                .build());
+
+        semanticCache.set("capital of France", "Paris");
+        assertThat(failed.await(1, TimeUnit.SECONDS)).isTrue();
+        semanticCache.set("capital of Italy", "Rome");
+
+        assertThat(flushed.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(instrumentation).writeBehindDropped(1);
+        verify(delegate).setAll(Map.of("capital of Italy", "Rome"));
+        verify(delegate, never()).set(anyString(), anyString());
+    }
+
+    @Test
+    void shouldFlushQueuedWritesOnClose() {
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .batchSize(100)
+                .flushInterval(Duration.ofMinutes(1))
+                .build());
+        semanticCache.set("capital of France", "Paris");
+        semanticCache.set("capital of Italy", "Rome");
+
+        semanticCache.close();
+
+        verify(delegate).setAll(Map.of("capital of France", "Paris", "capital of Italy", "Rome"));
+    }
+
+    @Test
+    void shouldStoreSynchronouslyOnceClosed() {
+        semanticCache = writeBehindCache(WriteBehindProperties.builder().build());
+        semanticCache.close();
+
+        semanticCache.set("capital of France", "Paris", Duration.ofMinutes(5));
+
+        verify(delegate).set("capital of France", "Paris", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldReportWritesOfBatchNotStoredWhenShutdownTimeoutElapses() throws Exception {
+        var flushing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }).when(delegate).setAll(anyMapOf(String.class, String.class));
+        var dropped = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            dropped.countDown();
+            return null;
+        }).when(instrumentation).writeBehindDropped(1);
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .batchSize(2)
+                .flushInterval(Duration.ofMinutes(1))
+                .shutdownTimeout(Duration.ofMillis(50))
+                .build());
+
+        semanticCache.set("capital of France", "Paris");
+        semanticCache.set("capital of Italy", "Rome", Duration.ofMinutes(5));
+        assertThat(flushing.await(1, TimeUnit.SECONDS)).isTrue();
+        semanticCache.close();
+
+        assertThat(dropped.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(delegate, never()).setAll(Map.of("capital of Italy", "Rome"), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldStoreBlockedWritesSynchronouslyOnceClosed() throws Exception {
+        var flushing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            // ignores the interrupt of close, like a store stuck on I/O
+            while (true) {
+                try {
+                    release.await();
+                    return null;
+                } catch (InterruptedException e) {
+                    // keeps waiting
+                }
+            }
+        }).when(delegate).setAll(anyMapOf(String.class, String.class));
+        semanticCache = writeBehindCache(WriteBehindProperties.builder()
+                .queueCapacity(1)
+                .batchSize(1)
+                .overflowPolicy(WriteBehindProperties.OverflowPolicy.BLOCK)
+                .shutdownTimeout(Duration.ofMillis(50))
+                .build());
+        semanticCache.set("capital of France", "Paris");
+        assertThat(flushing.await(1, TimeUnit.SECONDS)).isTrue();
+        semanticCache.set("capital of Italy", "Rome");
+
+        var writers = List.of(
+                new Thread(() -> semanticCache.set("capital of Spain", "Madrid")),
+                new Thread(() -> semanticCache.set("capital of Germany", "Berlin")));
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            awaitWaiting(writer);
+        }
+        semanticCache.close();
+
+        for (Thread writer : writers) {
+            writer.join(1_000);
+            assertThat(writer.isAlive()).isFalse();
+        }
+        release.countDown();
+        // one of them got the room freed by close, the other one was stored by its caller
+        verify(delegate).set(anyString(), anyString());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private CountDownLatch countFlushes(int flushes) {
+        var flushed = new CountDownLatch(flushes);
+        doAnswer(invocation -> {
+            flushed.countDown();
+            return null;
+        }).when(delegate).setAll(anyMapOf(String.class, String.class));
+        doAnswer(invocation -> {
+            flushed.countDown();
+            return null;
+        }).when(delegate).setAll(anyMapOf(String.class, String.class), any(Duration.class));
+        return flushed;
+    }
+
+    private WriteBehindSemanticCache writeBehindCache(WriteBehindProperties properties) {
+        return new WriteBehindSemanticCache(delegate, properties, instrumentation);
+    }
+}
@@ -0,0 +1,319 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process {@link VectorStore} that scores the query against every stored vector.
+ * Unlike an approximate graph it always returns the true best match, and for small to medium caches the scan is
+ * faster than a graph traversal because it streams through one packed {@code float} array.
+ *
+ * <p>Vectors are scored with the JDK Vector API when {@code --add-modules jdk.incubator.vector} is set and with a
+ * scalar loop otherwise. Scans over more than {@code parallelismThreshold} vectors
+ * are split across the common fork-join pool. Lookups run concurrently with each other and are serialized with writes.</p>
+ *
+ * <p>Lookups within a namespace skip the vectors of other namespaces. {@link PartitionedVectorStore} avoids scanning
+ * them at all.</p>
+ *
+ * <p>With {@code INT8} quantization vectors take a quarter of the memory. Lookups score the full precision query
+ * against the quantized vectors, and returned documents hold the vector as decoded from its quantized form.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class FlatVectorStore implements VectorStore {
+
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+    private static final int MIN_WRITES_BETWEEN_EXPIRATION_SWEEPS = 1024;
+    private static final int MIN_CHUNK_SIZE = 4_096;
+
+    FlatVectorStoreProperties properties;
+    Clock clock;
+    SemanticCacheInstrumentation instrumentation;
+    int dimension;
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @NonFinal
+    float[] vectors;
+    @NonFinal
+    byte[] codes;
+    @NonFinal
+    ScalarQuantizer quantizer;
+    @NonFinal
+    float[] norms;
+    @NonFinal
+    long[] expirations;
+    @NonFinal
+    String[] keys;
+    @NonFinal
+    String[] values;
+    @NonFinal
+    String[] namespaces;
+    @NonFinal
+    int size;
+    @NonFinal
+    int writesSinceExpirationSweep;
+
+    public FlatVectorStore(FlatVectorStoreProperties properties, Clock clock, SemanticCacheInstrumentation instrumentation) {
+        this.properties = properties;
+        this.clock = clock;
+        this.instrumentation = instrumentation;
+        this.dimension = properties.getVectorDimensionality();
+        int capacity = Math.max(properties.getInitialCapacity(), 1);
+        this.vectors = new float[capacity * dimension];
+        this.norms = new float[capacity];
+        this.expirations = new long[capacity];
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.namespaces = new String[capacity];
+    }
+
+    public FlatVectorStore(FlatVectorStoreProperties properties, Clock clock) {
+        this(properties, clock, SemanticCacheInstrumentation.NOOP);
+    }
+
+    public FlatVectorStore(FlatVectorStoreProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    @Override
+    public void save(VectorDocument document) {
+        add(document, NEVER_EXPIRES);
+    }
+
+    @Override
+    public void save(VectorDocument document, Duration ttl) {
+        add(document, clock.millis() + ttl.toMillis());
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(float[] queryVector) {
+        return similaritySearch(null, queryVector);
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] queryVector) {
+        checkDimension(queryVector);
+        lock.readLock().lock();
+        try {
+            var best = size > properties.getParallelismThreshold()
+                    ? ForkJoinPool.commonPool().invoke(new Scan(queryVector, namespace, clock.millis(), 0, size, chunkSize()))
+                    : new Scan(queryVector, namespace, clock.millis(), 0, size, size).compute();
+
+            return Optional.of(best)
+                    .filter(match -> match.id() >= 0)
+                    .filter(this::matchesSimilarityThreshold)
+                    .map(match -> toVectorDocument(match.id()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        double score = properties.getMetricType().similarity(properties.getMetricType().distance(vector, otherVector));
+        return score >= properties.getSimilarityThreshold();
+    }
+
+    private int chunkSize() {
+        return Math.max(MIN_CHUNK_SIZE, size / (ForkJoinPool.getCommonPoolParallelism() * 4));
+    }
+
+    private boolean matchesSimilarityThreshold(Match match) {
+        double score = properties.getMetricType().similarity(match.distance());
+        instrumentation.bestMatchScore(score);
+        return score >= properties.getSimilarityThreshold();
+    }
+
+    private VectorDocument toVectorDocument(int id) {
+        return VectorDocument.builder()
+                .vector(quantizer == null
+                        ? Arrays.copyOfRange(vectors, id * dimension, (id + 1) * dimension)
+                        : quantizer.decode(codes, id * dimension))
+                .key(keys[id])
+                .value(values[id])
+                .namespace(namespaces[id])
+                .build();
+    }
+
+    private void add(VectorDocument document, long expiresAt) {
+        checkDimension(document.vector());
+        lock.writeLock().lock();
+        try {
+            sweepExpiredIfNeeded();
+            if (size == norms.length) {
+                grow();
+            }
+            if (quantizer == null) {
+                System.arraycopy(document.vector(), 0, vectors, size * dimension, dimension);
+                norms[size] = VectorMath.norm(document.vector());
+            } else {
+                quantizer.encode(document.vector(), 0, codes, size * dimension);
+                norms[size] = quantizer.norm(codes, size * dimension);
+            }
+            expirations[size] = expiresAt;
+            keys[size] = document.key();
+            values[size] = document.value();
+            namespaces[size] = document.namespace();
+            size++;
+            quantizeIfCalibrated();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void quantizeIfCalibrated() {
+        if (quantizer != null
+                || properties.getQuantization() != FlatVectorStoreProperties.Quantization.INT8
+                || size < properties.getCalibrationSize()) {
+            return;
+        }
+        var calibrated = ScalarQuantizer.calibrate(vectors, size, dimension);
+        codes = new byte[norms.length * dimension];
+        for (int id = 0; id < size; id++) {
+            calibrated.encode(vectors, id * dimension, codes, id * dimension);
+            norms[id] = calibrated.norm(codes, id * dimension);
+        }
+        quantizer = calibrated;
+        vectors = null;
+    }
+
+    private void sweepExpiredIfNeeded() {
+        if (++writesSinceExpirationSweep < Math.max(MIN_WRITES_BETWEEN_EXPIRATION_SWEEPS, size / 10)) {
+            return;
+        }
+        writesSinceExpirationSweep = 0;
+        long now = clock.millis();
+        int live = 0;
+        for (int id = 0; id < size; id++) {
+            if (expirations[id] > now) {
+                if (live != id) {
+                    if (quantizer == null) {
+                        System.arraycopy(vectors, id * dimension, vectors, live * dimension, dimension);
+                    } else {
+                        System.arraycopy(codes, id * dimension, codes, live * dimension, dimension);
+                    }
+                    norms[live] = norms[id];
+                    expirations[live] = expirations[id];
+                    keys[live] = keys[id];
+                    values[live] = values[id];
+                    namespaces[live] = namespaces[id];
+                }
+                live++;
+            }
+        }
+        Arrays.fill(keys, live, size, null);
+        Arrays.fill(values, live, size, null);
+        Arrays.fill(namespaces, live, size, null);
+        size = live;
+    }
+
+    private void grow() {
+        int capacity = norms.length * 2;
+        if (quantizer == null) {
+            vectors = Arrays.copyOf(vectors, capacity * dimension);
+        } else {
+            codes = Arrays.copyOf(codes, capacity * dimension);
+        }
+        norms = Arrays.copyOf(norms, capacity);
+        expirations = Arrays.copyOf(expirations, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        namespaces = Arrays.copyOf(namespaces, capacity);
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("vector dimensionality mismatch, expected=%d, actual=%d"
+                    .formatted(dimension, vector.length));
+        }
+    }
+
+    private record Match(int id, float distance) {
+
+        static final Match NONE = new Match(-1, Float.POSITIVE_INFINITY);
+
+        /**
+         * Keeps this match on ties. Called on the match from the lower range, so the lowest id wins
+         * and results do not depend on how the scan was split.
+         */
+        Match closer(Match other) {
+            return other.distance < distance ? other : this;
+        }
+    }
+
+    /**
+     * Scans a range of the packed storage for the closest non expired vector, splitting itself in halves
+     * until a range is no larger than the chunk size.
+     */
+    private final class Scan extends RecursiveTask<Match> {
+
+        private final float[] query;
+        private final float queryNorm;
+        private final ScalarQuantizer.Query quantizedQuery;
+        private final String namespace;
+        private final long now;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private Scan(float[] query, String namespace, long now, int from, int to, int chunkSize) {
+            this(query, VectorMath.norm(query), quantizer == null ? null : quantizer.query(query), namespace, now, from, to, chunkSize);
+        }
+
+        private Scan(float[] query, float queryNorm, ScalarQuantizer.Query quantizedQuery, String namespace,
+                     long now, int from, int to, int chunkSize) {
+            this.query = query;
+            this.queryNorm = queryNorm;
+            this.quantizedQuery = quantizedQuery;
+            this.namespace = namespace;
+            this.now = now;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Match compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                var left = new Scan(query, queryNorm, quantizedQuery, namespace, now, from, middle, chunkSize);
+                var right = new Scan(query, queryNorm, quantizedQuery, namespace, now, middle, to, chunkSize);
+                left.fork();
+                var rightMatch = right.compute();
+                return left.join().closer(rightMatch);
+            }
+            return scan();
+        }
+
+        private Match scan() {
+            MetricType metricType = properties.getMetricType();
+            int bestId = -1;
+            float bestDistance = Float.POSITIVE_INFINITY;
+            for (int id = from; id < to; id++) {
+                if (expirations[id] <= now || (namespace != null && !namespace.equals(namespaces[id]))) {
+                    continue;
+                }
+                float distance = quantizedQuery == null
+                        ? VectorMath.distance(metricType, query, 0, queryNorm, vectors, id * dimension, norms[id], dimension)
+                        : ScalarQuantizer.distance(metricType, quantizedQuery, codes, id * dimension, norms[id]);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestId = id;
+                }
+            }
+            return bestId < 0 ? Match.NONE : new Match(bestId, bestDistance);
+        }
+    }
+}
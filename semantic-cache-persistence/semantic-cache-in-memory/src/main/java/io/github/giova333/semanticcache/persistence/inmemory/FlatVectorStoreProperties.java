@@ -0,0 +1,57 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.SemanticCacheProperties;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FlatVectorStoreProperties implements SemanticCacheProperties {
+    int vectorDimensionality;
+    @Builder.Default
+    MetricType metricType = MetricType.COSINE;
+    @Builder.Default
+    double similarityThreshold = 0.95;
+    /**
+     * Number of vectors the store is sized for up front; the packed storage doubles beyond it.
+     */
+    @Builder.Default
+    int initialCapacity = 1024;
+    /**
+     * Number of stored vectors above which a lookup is split across the common fork-join pool.
+     */
+    @Builder.Default
+    int parallelismThreshold = 32_768;
+    /**
+     * Precision the vectors are stored in.
+     */
+    @Builder.Default
+    Quantization quantization = Quantization.NONE;
+    /**
+     * Number of vectors the per-dimension ranges of {@code INT8} quantization are calibrated on.
+     * Vectors are kept in full precision until this many are stored, then all of them are quantized.
+     */
+    @Builder.Default
+    int calibrationSize = 1024;
+
+    public enum Quantization {
+
+        /**
+         * 4 bytes per dimension
+         */
+        NONE,
+
+        /**
+         * 1 byte per dimension, scaled to the range each dimension spans in the calibration sample
+         */
+        INT8
+    }
+}
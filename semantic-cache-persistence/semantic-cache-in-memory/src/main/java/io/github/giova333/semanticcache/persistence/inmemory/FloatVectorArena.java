@@ -0,0 +1,70 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import java.util.Arrays;
+
+/**
+ * Stores fixed size vectors back to back in large primitive {@code float} pages instead of one array per vector.
+ * Pages are never moved once allocated, so readers can keep scoring vectors while a single writer appends new ones.
+ * A vector becomes visible to readers through whatever volatile write publishes its id afterwards.
+ */
+final class FloatVectorArena {
+
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int dimension;
+    private volatile float[][] pages;
+    private volatile float[][] normPages;
+
+    FloatVectorArena(int dimension, int initialCapacity) {
+        this.dimension = dimension;
+        int pageCount = Math.max(1, (initialCapacity + PAGE_MASK) >>> PAGE_SHIFT);
+        this.pages = new float[pageCount][];
+        this.normPages = new float[pageCount][];
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    void set(int id, float[] vector) {
+        int page = id >>> PAGE_SHIFT;
+        ensurePage(page);
+        System.arraycopy(vector, 0, pages[page], offset(id), dimension);
+        normPages[page][id & PAGE_MASK] = VectorMath.norm(vector);
+    }
+
+    float[] page(int id) {
+        return pages[id >>> PAGE_SHIFT];
+    }
+
+    int offset(int id) {
+        return (id & PAGE_MASK) * dimension;
+    }
+
+    float norm(int id) {
+        return normPages[id >>> PAGE_SHIFT][id & PAGE_MASK];
+    }
+
+    float[] get(int id) {
+        int offset = offset(id);
+        return Arrays.copyOfRange(page(id), offset, offset + dimension);
+    }
+
+    private void ensurePage(int page) {
+        float[][] currentPages = pages;
+        float[][] currentNormPages = normPages;
+        if (page >= currentPages.length) {
+            int length = Math.max(page + 1, currentPages.length * 2);
+            currentPages = Arrays.copyOf(currentPages, length);
+            currentNormPages = Arrays.copyOf(currentNormPages, length);
+        }
+        if (currentPages[page] == null) {
+            currentPages[page] = new float[PAGE_SIZE * dimension];
+            currentNormPages[page] = new float[PAGE_SIZE];
+        }
+        normPages = currentNormPages;
+        pages = currentPages;
+    }
+}
@@ -0,0 +1,349 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical Navigable Small World graph over vectors kept in a {@link FloatVectorArena}.
+ *
+ * <p>The index supports a single writer and any number of concurrent readers. A node is fully initialised and
+ * published through the volatile {@code size} before it is linked into the graph, and neighbor lists are
+ * replaced copy-on-write, so readers always traverse consistent lists without taking locks.</p>
+ *
+ * <p>Nodes are never unlinked. Expired nodes stay in the graph as waypoints and are dropped by copying the live nodes
+ * into a new index, see {@link #copyLiveNodes}.</p>
+ */
+final class HnswIndex {
+
+    static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    private static final int MAX_LEVEL = 16;
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final ThreadLocal<VisitedSet> VISITED = ThreadLocal.withInitial(VisitedSet::new);
+
+    private final HnswVectorStoreProperties properties;
+    private final MetricType metricType;
+    private final int dimension;
+    private final int maxConnections;
+    private final int maxConnectionsLayer0;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom();
+    private final FloatVectorArena vectors;
+
+    private volatile Node[] nodes;
+    private volatile int size;
+    private volatile EntryPoint entryPoint;
+
+    HnswIndex(HnswVectorStoreProperties properties) {
+        this.properties = properties;
+        this.metricType = properties.getMetricType();
+        this.dimension = properties.getVectorDimensionality();
+        this.maxConnections = properties.getM();
+        this.maxConnectionsLayer0 = properties.getM() * 2;
+        this.levelMultiplier = 1 / Math.log(Math.max(properties.getM(), 2));
+        this.vectors = new FloatVectorArena(dimension, properties.getInitialCapacity());
+        this.nodes = new Node[Math.max(properties.getInitialCapacity(), 1)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    Node node(int id) {
+        return nodes[id];
+    }
+
+    float[] vector(int id) {
+        return vectors.get(id);
+    }
+
+    /**
+     * Inserts a vector into the graph. Must not be called concurrently with itself.
+     */
+    void add(float[] vector, String key, String value, String namespace, long expiresAt) {
+        int id = size;
+        vectors.set(id, vector);
+        int level = randomLevel();
+        Node node = new Node(key, value, namespace, expiresAt, level);
+        Node[] current = nodes;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = node;
+        nodes = current;
+        size = id + 1;
+
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            entryPoint = new EntryPoint(id, level);
+            return;
+        }
+
+        float[] page = vectors.page(id);
+        int offset = vectors.offset(id);
+        float norm = vectors.norm(id);
+
+        int nearest = entry.id();
+        float nearestDistance = distance(page, offset, norm, nearest);
+        for (int layer = entry.level(); layer > level; layer--) {
+            nearest = greedySearch(page, offset, norm, nearest, nearestDistance, layer);
+            nearestDistance = distance(page, offset, norm, nearest);
+        }
+        for (int layer = Math.min(level, entry.level()); layer >= 0; layer--) {
+            NodeQueue candidates = searchLayer(page, offset, norm, nearest, nearestDistance, properties.getEfConstruction(), layer);
+            int[] neighbors = selectNeighbors(candidates, maxConnections);
+            node.neighbors.set(layer, neighbors);
+            for (int neighbor : neighbors) {
+                connect(neighbor, id, layer);
+            }
+            nearest = neighbors[0];
+            nearestDistance = distance(page, offset, norm, nearest);
+        }
+        if (level > entry.level()) {
+            entryPoint = new EntryPoint(id, level);
+        }
+    }
+
+    /**
+     * Finds the nearest node accepted by the filter among the {@code ef} best candidates.
+     *
+     * @return the nearest accepted node, or null if none of the candidates is accepted
+     */
+    Neighbor nearest(float[] query, int ef, IntPredicate filter) {
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            return null;
+        }
+        float norm = VectorMath.norm(query);
+        int nearest = entry.id();
+        float nearestDistance = distance(query, 0, norm, nearest);
+        for (int layer = entry.level(); layer > 0; layer--) {
+            nearest = greedySearch(query, 0, norm, nearest, nearestDistance, layer);
+            nearestDistance = distance(query, 0, norm, nearest);
+        }
+        NodeQueue results = searchLayer(query, 0, norm, nearest, nearestDistance, ef, 0);
+
+        int count = results.size();
+        int[] ids = new int[count];
+        float[] distances = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            distances[i] = results.peekDistance();
+            ids[i] = results.pop();
+        }
+        for (int i = 0; i < count; i++) {
+            if (filter.test(ids[i])) {
+                return new Neighbor(ids[i], distances[i]);
+            }
+        }
+        return null;
+    }
+
+    int countExpired(long now) {
+        int count = size;
+        Node[] current = nodes;
+        int expired = 0;
+        for (int id = 0; id < count; id++) {
+            if (current[id].isExpired(now)) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Adds the nodes from {@code from} on that have not expired yet to another index, which only the caller writes to.
+     * Safe to call concurrently with {@link #add}, nodes added meanwhile are left for a later call.
+     *
+     * @return the id following the last node considered, from where a later call continues
+     */
+    int copyLiveNodes(HnswIndex target, int from, long now) {
+        int count = size;
+        for (int id = from; id < count; id++) {
+            Node node = nodes[id];
+            if (!node.isExpired(now)) {
+                target.add(vectors.get(id), node.key(), node.value(), node.namespace(), node.expiresAt());
+            }
+        }
+        return count;
+    }
+
+    private int randomLevel() {
+        double level = -Math.log(1 - random.nextDouble()) * levelMultiplier;
+        return (int) Math.min(level, MAX_LEVEL);
+    }
+
+    private int maxConnections(int layer) {
+        return layer == 0 ? maxConnectionsLayer0 : maxConnections;
+    }
+
+    private float distance(float[] query, int offset, float norm, int id) {
+        return VectorMath.distance(metricType, query, offset, norm, vectors.page(id), vectors.offset(id), vectors.norm(id), dimension);
+    }
+
+    private float distanceBetween(int first, int second) {
+        return distance(vectors.page(first), vectors.offset(first), vectors.norm(first), second);
+    }
+
+    private int greedySearch(float[] query, int offset, float norm, int start, float startDistance, int layer) {
+        int nearest = start;
+        float nearestDistance = startDistance;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbor : nodes[nearest].neighbors(layer)) {
+                float distance = distance(query, offset, norm, neighbor);
+                if (distance < nearestDistance) {
+                    nearest = neighbor;
+                    nearestDistance = distance;
+                    changed = true;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private NodeQueue searchLayer(float[] query, int offset, float norm, int start, float startDistance, int ef, int layer) {
+        VisitedSet visited = VISITED.get();
+        visited.reset(size);
+        NodeQueue candidates = NodeQueue.nearestFirst(ef);
+        NodeQueue results = NodeQueue.farthestFirst(ef + 1);
+
+        visited.visit(start);
+        candidates.push(start, startDistance);
+        results.push(start, startDistance);
+
+        while (!candidates.isEmpty()) {
+            if (candidates.peekDistance() > results.peekDistance() && results.size() >= ef) {
+                break;
+            }
+            int candidate = candidates.pop();
+            for (int neighbor : nodes[candidate].neighbors(layer)) {
+                if (!visited.visit(neighbor)) {
+                    continue;
+                }
+                float distance = distance(query, offset, norm, neighbor);
+                if (results.size() < ef || distance < results.peekDistance()) {
+                    candidates.push(neighbor, distance);
+                    results.push(neighbor, distance);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbor selection heuristic from the HNSW paper: a candidate is kept only if it is closer to the base node
+     * than to any neighbor kept so far, which spreads edges in different directions. Remaining slots are filled
+     * with the closest pruned candidates to keep the graph well connected.
+     */
+    private int[] selectNeighbors(NodeQueue candidates, int maxNeighbors) {
+        int count = candidates.size();
+        int[] ids = new int[count];
+        float[] distances = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            distances[i] = candidates.peekDistance();
+            ids[i] = candidates.pop();
+        }
+        if (count <= maxNeighbors) {
+            return ids;
+        }
+
+        int[] selected = new int[maxNeighbors];
+        boolean[] taken = new boolean[count];
+        int selectedCount = 0;
+        for (int i = 0; i < count && selectedCount < maxNeighbors; i++) {
+            boolean diverse = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (distanceBetween(ids[i], selected[j]) < distances[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[selectedCount++] = ids[i];
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < count && selectedCount < maxNeighbors; i++) {
+            if (!taken[i]) {
+                selected[selectedCount++] = ids[i];
+            }
+        }
+        return selected;
+    }
+
+    private void connect(int id, int newNeighbor, int layer) {
+        Node node = nodes[id];
+        int[] neighbors = node.neighbors(layer);
+        int maxNeighbors = maxConnections(layer);
+        if (neighbors.length < maxNeighbors) {
+            int[] updated = Arrays.copyOf(neighbors, neighbors.length + 1);
+            updated[neighbors.length] = newNeighbor;
+            node.neighbors.set(layer, updated);
+            return;
+        }
+        NodeQueue candidates = NodeQueue.farthestFirst(neighbors.length + 1);
+        candidates.push(newNeighbor, distanceBetween(id, newNeighbor));
+        for (int neighbor : neighbors) {
+            candidates.push(neighbor, distanceBetween(id, neighbor));
+        }
+        node.neighbors.set(layer, selectNeighbors(candidates, maxNeighbors));
+    }
+
+    record Neighbor(int id, float distance) {
+    }
+
+    private record EntryPoint(int id, int level) {
+    }
+
+    static final class Node {
+
+        private final String key;
+        private final String value;
+        private final String namespace;
+        private final long expiresAt;
+        private final AtomicReferenceArray<int[]> neighbors;
+
+        Node(String key, String value, String namespace, long expiresAt, int level) {
+            this.key = key;
+            this.value = value;
+            this.namespace = namespace;
+            this.expiresAt = expiresAt;
+            this.neighbors = new AtomicReferenceArray<>(level + 1);
+            for (int layer = 0; layer <= level; layer++) {
+                neighbors.set(layer, NO_NEIGHBORS);
+            }
+        }
+
+        String key() {
+            return key;
+        }
+
+        String value() {
+            return value;
+        }
+
+        String namespace() {
+            return namespace;
+        }
+
+        long expiresAt() {
+            return expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        int[] neighbors(int layer) {
+            return layer < neighbors.length() ? neighbors.get(layer) : NO_NEIGHBORS;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process {@link VectorStore} backed by an HNSW graph, for single node deployments that do not want
+ * a network round trip per lookup.
+ *
+ * <p>Writes are serialized, lookups never block and can run concurrently with writes.
+ * As with any HNSW search the nearest neighbor is approximate, which for a cache only means an occasional miss.
+ * Expired documents are skipped by lookups and physically removed once they make up
+ * the configured {@code compactionThreshold} of the graph. The graph of the live documents is then rebuilt
+ * on a background thread while the current one keeps serving, writes only wait for the documents saved
+ * during the rebuild to be copied over before the new graph replaces the current one.</p>
+ *
+ * <p>Lookups within a namespace keep the nearest of the {@code efSearch} candidates that belong to it, so a namespace
+ * holding a small share of the graph may miss. Wrap the store in a {@link PartitionedVectorStore} to give every
+ * namespace a graph of its own.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class HnswVectorStore implements VectorStore {
+
+    private static final int MIN_WRITES_BETWEEN_COMPACTION_CHECKS = 1024;
+
+    HnswVectorStoreProperties properties;
+    Clock clock;
+    SemanticCacheInstrumentation instrumentation;
+    ReentrantLock writeLock = new ReentrantLock();
+
+    @NonFinal
+    volatile HnswIndex index;
+    @NonFinal
+    int writesSinceCompactionCheck;
+    @NonFinal
+    volatile boolean compacting;
+
+    public HnswVectorStore(HnswVectorStoreProperties properties, Clock clock, SemanticCacheInstrumentation instrumentation) {
+        this.properties = properties;
+        this.clock = clock;
+        this.instrumentation = instrumentation;
+        this.index = new HnswIndex(properties);
+    }
+
+    public HnswVectorStore(HnswVectorStoreProperties properties, Clock clock) {
+        this(properties, clock, SemanticCacheInstrumentation.NOOP);
+    }
+
+    public HnswVectorStore(HnswVectorStoreProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    @Override
+    public void save(VectorDocument document) {
+        add(document, HnswIndex.NEVER_EXPIRES);
+    }
+
+    @Override
+    public void save(VectorDocument document, Duration ttl) {
+        add(document, clock.millis() + ttl.toMillis());
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(float[] queryVector) {
+        return similaritySearch(null, queryVector);
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] queryVector) {
+        checkDimension(queryVector);
+        var currentIndex = index;
+        long now = clock.millis();
+
+        int[] expired = new int[1];
+
+        var nearest = currentIndex.nearest(queryVector, properties.getEfSearch(), id -> {
+            var node = currentIndex.node(id);
+            if (node.isExpired(now)) {
+                expired[0]++;
+                return false;
+            }
+            return namespace == null || namespace.equals(node.namespace());
+        });
+        if (expired[0] > 0) {
+            instrumentation.expiredDocumentsFiltered(expired[0]);
+        }
+
+        return Optional.ofNullable(nearest)
+                .filter(this::matchesSimilarityThreshold)
+                .map(neighbor -> toVectorDocument(currentIndex, neighbor.id()));
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        double score = properties.getMetricType().similarity(properties.getMetricType().distance(vector, otherVector));
+        return score >= properties.getSimilarityThreshold();
+    }
+
+    private boolean matchesSimilarityThreshold(HnswIndex.Neighbor neighbor) {
+        double score = properties.getMetricType().similarity(neighbor.distance());
+        instrumentation.bestMatchScore(score);
+        return score >= properties.getSimilarityThreshold();
+    }
+
+    private VectorDocument toVectorDocument(HnswIndex currentIndex, int id) {
+        var node = currentIndex.node(id);
+        return VectorDocument.builder()
+                .vector(currentIndex.vector(id))
+                .key(node.key())
+                .value(node.value())
+                .namespace(node.namespace())
+                .build();
+    }
+
+    private void add(VectorDocument document, long expiresAt) {
+        checkDimension(document.vector());
+        writeLock.lock();
+        try {
+            index.add(document.vector(), document.key(), document.value(), document.namespace(), expiresAt);
+            compactIfNeeded();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        var currentIndex = index;
+        if (compacting || ++writesSinceCompactionCheck < Math.max(MIN_WRITES_BETWEEN_COMPACTION_CHECKS, currentIndex.size() / 10)) {
+            return;
+        }
+        writesSinceCompactionCheck = 0;
+        long now = clock.millis();
+        int expired = currentIndex.countExpired(now);
+        if (expired > 0 && expired >= currentIndex.size() * properties.getCompactionThreshold()) {
+            compacting = true;
+            var thread = new Thread(() -> compact(currentIndex, now), "semantic-cache-hnsw-compaction");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Rebuilds the graph from the live documents without holding the write lock, then takes it to copy the documents
+     * saved meanwhile and publish the new graph. The current graph is only replaced here, so it is still the one
+     * being written to.
+     */
+    private void compact(HnswIndex currentIndex, long now) {
+        try {
+            var compacted = new HnswIndex(properties);
+            int copied = currentIndex.copyLiveNodes(compacted, 0, now);
+            writeLock.lock();
+            try {
+                currentIndex.copyLiveNodes(compacted, copied, now);
+                index = compacted;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            compacting = false;
+        }
+    }
+
+    /**
+     * @return the number of documents in the graph, including expired ones not compacted yet
+     */
+    int size() {
+        return index.size();
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != properties.getVectorDimensionality()) {
+            throw new IllegalArgumentException("vector dimensionality mismatch, expected=%d, actual=%d"
+                    .formatted(properties.getVectorDimensionality(), vector.length));
+        }
+    }
+}
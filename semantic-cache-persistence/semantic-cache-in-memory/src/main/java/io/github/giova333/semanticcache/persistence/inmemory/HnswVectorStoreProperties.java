@@ -0,0 +1,50 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.SemanticCacheProperties;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HnswVectorStoreProperties implements SemanticCacheProperties {
+    int vectorDimensionality;
+    @Builder.Default
+    MetricType metricType = MetricType.COSINE;
+    @Builder.Default
+    double similarityThreshold = 0.95;
+    /**
+     * Maximum number of outgoing edges per node on the upper layers of the graph; layer 0 allows twice as many.
+     */
+    @Builder.Default
+    int m = 16;
+    /**
+     * Size of the dynamic candidate list used while inserting. Higher values build a better graph at the cost of slower writes.
+     */
+    @Builder.Default
+    int efConstruction = 200;
+    /**
+     * Size of the dynamic candidate list used while searching. Higher values improve recall at the cost of slower lookups.
+     */
+    @Builder.Default
+    int efSearch = 64;
+    /**
+     * Number of vectors the store is sized for up front; storage grows in pages beyond it.
+     */
+    @Builder.Default
+    int initialCapacity = 1024;
+    /**
+     * Fraction of expired nodes in the graph that triggers a rebuild of the index from the live entries.
+     * The rebuild runs on a background thread and holds both graphs in memory until it completes, writes only
+     * pause while the entries saved during the rebuild are added to the new graph.
+     */
+    @Builder.Default
+    double compactionThreshold = 0.5;
+}
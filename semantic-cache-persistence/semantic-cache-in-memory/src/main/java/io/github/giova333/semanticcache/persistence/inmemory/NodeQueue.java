@@ -0,0 +1,104 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of node ids ordered by distance, backed by primitive arrays to keep graph traversal allocation free.
+ */
+final class NodeQueue {
+
+    private final boolean farthestFirst;
+    private int[] ids;
+    private float[] distances;
+    private int size;
+
+    private NodeQueue(int capacity, boolean farthestFirst) {
+        this.farthestFirst = farthestFirst;
+        this.ids = new int[Math.max(capacity, 4)];
+        this.distances = new float[ids.length];
+    }
+
+    static NodeQueue nearestFirst(int capacity) {
+        return new NodeQueue(capacity, false);
+    }
+
+    static NodeQueue farthestFirst(int capacity) {
+        return new NodeQueue(capacity, true);
+    }
+
+    void push(int id, float distance) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+        ids[size] = id;
+        distances[size] = distance;
+        siftUp(size++);
+    }
+
+    int peekId() {
+        return ids[0];
+    }
+
+    float peekDistance() {
+        return distances[0];
+    }
+
+    int pop() {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            ids[0] = ids[size];
+            distances[0] = distances[size];
+            siftDown(0);
+        }
+        return top;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private boolean before(int i, int j) {
+        return farthestFirst ? distances[i] > distances[j] : distances[i] < distances[j];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(index, parent)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int child = left + 1 < size && before(left + 1, left) ? left + 1 : left;
+            if (!before(child, index)) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        float distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+    }
+}
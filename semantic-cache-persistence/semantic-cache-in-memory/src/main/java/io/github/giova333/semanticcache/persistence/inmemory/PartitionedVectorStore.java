@@ -0,0 +1,94 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * In-process {@link VectorStore} that keeps the documents of every {@link VectorDocument#namespace() namespace}
+ * in a store of their own, so a lookup within a namespace only scores the vectors of that namespace.
+ *
+ * <p>Documents without namespace go to a default partition. A lookup without namespace searches every partition
+ * and returns the closest of their matches.</p>
+ *
+ * <pre>
+ *     var store = new PartitionedVectorStore(namespace -&gt; new HnswVectorStore(properties), properties.getMetricType());
+ * </pre>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PartitionedVectorStore implements VectorStore {
+
+    Function<String, VectorStore> partitionFactory;
+    MetricType metricType;
+    VectorStore defaultPartition;
+    ConcurrentMap<String, VectorStore> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * @param partitionFactory creates the store of a namespace on its first write, called with null for the default partition
+     * @param metricType       metric of the partition stores, used to pick the closest match across partitions
+     */
+    public PartitionedVectorStore(Function<String, VectorStore> partitionFactory, MetricType metricType) {
+        this.partitionFactory = partitionFactory;
+        this.metricType = metricType;
+        this.defaultPartition = partitionFactory.apply(null);
+    }
+
+    @Override
+    public void save(VectorDocument document) {
+        writePartition(document.namespace()).save(document);
+    }
+
+    @Override
+    public void save(VectorDocument document, Duration ttl) {
+        writePartition(document.namespace()).save(document, ttl);
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(float[] vector) {
+        var best = defaultPartition.similaritySearch(vector);
+        double bestDistance = best.map(document -> metricType.distance(vector, document.vector())).orElse(Double.POSITIVE_INFINITY);
+        for (var partition : partitions.entrySet()) {
+            var match = partition.getValue().similaritySearch(vector);
+            if (match.isPresent()) {
+                double distance = metricType.distance(vector, match.get().vector());
+                if (distance < bestDistance) {
+                    best = match.map(document -> withNamespace(document, partition.getKey()));
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] vector) {
+        if (namespace == null) {
+            return similaritySearch(vector);
+        }
+        var partition = partitions.get(namespace);
+        return partition == null
+                ? Optional.empty()
+                : partition.similaritySearch(vector).map(document -> withNamespace(document, namespace));
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        return defaultPartition.matches(vector, otherVector);
+    }
+
+    private VectorStore writePartition(String namespace) {
+        return namespace == null ? defaultPartition : partitions.computeIfAbsent(namespace, partitionFactory);
+    }
+
+    private static VectorDocument withNamespace(VectorDocument document, String namespace) {
+        return new VectorDocument(document.vector(), document.key(), document.value(), namespace);
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+
+import java.util.Arrays;
+
+/**
+ * Maps every dimension to one byte using a per-dimension range calibrated on a sample of vectors,
+ * which stores vectors in a quarter of the memory of {@code float}s. Values outside the calibrated range are clamped.
+ *
+ * <p>Distances are computed asymmetrically: the query stays in full precision and is folded into the per-dimension
+ * offsets and scales once, so scoring a stored vector is a single dot product with its codes. Codes are stored
+ * as signed bytes, {@code level - 128}, which the SIMD kernel widens to floats in a single conversion.</p>
+ */
+final class ScalarQuantizer {
+
+    private static final int LEVELS = 255;
+    private static final int CODE_OFFSET = 128;
+
+    private final float[] minimums;
+    private final float[] scales;
+
+    private ScalarQuantizer(float[] minimums, float[] scales) {
+        this.minimums = minimums;
+        this.scales = scales;
+    }
+
+    /**
+     * Calibrates the range of every dimension on the first {@code count} vectors packed in {@code vectors}.
+     */
+    static ScalarQuantizer calibrate(float[] vectors, int count, int dimension) {
+        var minimums = new float[dimension];
+        var maximums = new float[dimension];
+        Arrays.fill(minimums, Float.POSITIVE_INFINITY);
+        Arrays.fill(maximums, Float.NEGATIVE_INFINITY);
+        for (int id = 0; id < count; id++) {
+            int offset = id * dimension;
+            for (int i = 0; i < dimension; i++) {
+                minimums[i] = Math.min(minimums[i], vectors[offset + i]);
+                maximums[i] = Math.max(maximums[i], vectors[offset + i]);
+            }
+        }
+        var scales = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            float range = maximums[i] - minimums[i];
+            scales[i] = range > 0 ? range / LEVELS : 1;
+        }
+        return new ScalarQuantizer(minimums, scales);
+    }
+
+    void encode(float[] vector, int vectorOffset, byte[] codes, int codesOffset) {
+        for (int i = 0; i < minimums.length; i++) {
+            int level = Math.round((vector[vectorOffset + i] - minimums[i]) / scales[i]);
+            codes[codesOffset + i] = (byte) (Math.max(0, Math.min(LEVELS, level)) - CODE_OFFSET);
+        }
+    }
+
+    float[] decode(byte[] codes, int codesOffset) {
+        var vector = new float[minimums.length];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = minimums[i] + scales[i] * (codes[codesOffset + i] + CODE_OFFSET);
+        }
+        return vector;
+    }
+
+    /**
+     * @return the norm of the vector the codes decode to, which is what distances are computed against
+     */
+    float norm(byte[] codes, int codesOffset) {
+        return VectorMath.norm(decode(codes, codesOffset));
+    }
+
+    Query query(float[] vector) {
+        var weights = new float[vector.length];
+        float bias = 0;
+        for (int i = 0; i < vector.length; i++) {
+            weights[i] = vector[i] * scales[i];
+            bias += vector[i] * minimums[i] + weights[i] * CODE_OFFSET;
+        }
+        return new Query(weights, bias, VectorMath.norm(vector));
+    }
+
+    /**
+     * Same conventions as {@link VectorMath#distance}, between a full precision query and a quantized vector.
+     */
+    static float distance(MetricType metricType, Query query, byte[] codes, int codesOffset, float norm) {
+        float dot = query.bias() + VectorMath.KERNEL.dot(query.weights(), 0, codes, codesOffset, query.weights().length);
+        return switch (metricType) {
+            case COSINE -> {
+                float denominator = query.norm() * norm;
+                yield denominator == 0 ? 1 : 1 - dot / denominator;
+            }
+            case IP -> 1 - dot;
+            case L2 -> Math.max(0, query.norm() * query.norm() - 2 * dot + norm * norm);
+        };
+    }
+
+    /**
+     * A query prepared for scoring against quantized vectors.
+     */
+    record Query(float[] weights, float bias, float norm) {
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel built on the incubating JDK Vector API. Only loaded by {@link VectorKernel#preferred()}
+ * when the {@code jdk.incubator.vector} module is present, so referencing it never breaks the scalar fallback.
+ */
+final class SimdVectorKernel implements VectorKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    /**
+     * Bytes loaded per step of the byte dot product. The smallest byte vector is 64 bits, which on 128 bit
+     * hardware widens into several float vectors.
+     */
+    private static final VectorSpecies<Byte> BYTE_SPECIES =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, SPECIES.length() * Byte.SIZE)));
+    private static final int FLOAT_VECTORS_PER_BYTE_VECTOR = BYTE_SPECIES.length() / SPECIES.length();
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int dimension) {
+        var sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(dimension); i < bound; i += SPECIES.length()) {
+            var va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            var vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            sum = sum.add(va.mul(vb));
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < dimension; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    public float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int dimension) {
+        var sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(dimension); i < bound; i += SPECIES.length()) {
+            var diff = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .sub(FloatVector.fromArray(SPECIES, b, bOffset + i));
+            sum = sum.add(diff.mul(diff));
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < dimension; i++) {
+            float diff = a[aOffset + i] - b[bOffset + i];
+            result += diff * diff;
+        }
+        return result;
+    }
+
+    @Override
+    public float dot(float[] a, int aOffset, byte[] b, int bOffset, int dimension) {
+        var sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = BYTE_SPECIES.loopBound(dimension); i < bound; i += BYTE_SPECIES.length()) {
+            var bytes = ByteVector.fromArray(BYTE_SPECIES, b, bOffset + i);
+            for (int part = 0; part < FLOAT_VECTORS_PER_BYTE_VECTOR; part++) {
+                var va = FloatVector.fromArray(SPECIES, a, aOffset + i + part * SPECIES.length());
+                var vb = (FloatVector) bytes.convertShape(VectorOperators.B2F, SPECIES, part);
+                sum = sum.add(va.mul(vb));
+            }
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < dimension; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+}
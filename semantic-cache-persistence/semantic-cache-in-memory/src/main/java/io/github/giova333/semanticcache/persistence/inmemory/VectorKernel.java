@@ -0,0 +1,34 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+/**
+ * Low level vector arithmetic over vectors stored at an offset inside a larger array.
+ */
+interface VectorKernel {
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int dimension);
+
+    float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int dimension);
+
+    /**
+     * Dot product of a float vector with a vector of signed bytes, as stored by {@link ScalarQuantizer}.
+     */
+    float dot(float[] a, int aOffset, byte[] b, int bOffset, int dimension);
+
+    /**
+     * Picks the SIMD kernel when the {@code jdk.incubator.vector} module is enabled
+     * ({@code --add-modules jdk.incubator.vector}) and falls back to the scalar kernel otherwise.
+     */
+    static VectorKernel preferred() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                var kernel = Class.forName("io.github.giova333.semanticcache.persistence.inmemory.SimdVectorKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+                return (VectorKernel) kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarVectorKernel();
+            }
+        }
+        return new ScalarVectorKernel();
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+
+/**
+ * Distance functions over vectors stored at an offset inside a larger array.
+ * Distances follow the Redis conventions so that {@link MetricType#similarity(double)} applies unchanged:
+ * {@code 1 - cosine} for COSINE, {@code 1 - dot product} for IP and the squared euclidean distance for L2.
+ */
+final class VectorMath {
+
+    static final VectorKernel KERNEL = VectorKernel.preferred();
+
+    private VectorMath() {
+    }
+
+    static float norm(float[] vector) {
+        return (float) Math.sqrt(KERNEL.dot(vector, 0, vector, 0, vector.length));
+    }
+
+    static float distance(MetricType metricType,
+                          float[] a, int aOffset, float aNorm,
+                          float[] b, int bOffset, float bNorm,
+                          int dimension) {
+        return switch (metricType) {
+            case COSINE -> {
+                float denominator = aNorm * bNorm;
+                yield denominator == 0 ? 1 : 1 - KERNEL.dot(a, aOffset, b, bOffset, dimension) / denominator;
+            }
+            case IP -> 1 - KERNEL.dot(a, aOffset, b, bOffset, dimension);
+            case L2 -> KERNEL.squaredDistance(a, aOffset, b, bOffset, dimension);
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the nodes visited by a single graph traversal. Marks are stamped with a generation number,
+ * so starting a new traversal is O(1) instead of clearing the whole array.
+ */
+final class VisitedSet {
+
+    private int[] marks = new int[0];
+    private int generation;
+
+    void reset(int capacity) {
+        if (marks.length < capacity) {
+            marks = new int[Math.max(capacity, marks.length * 2)];
+            generation = 0;
+        }
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * @return true if the node was not visited before during the current traversal
+     */
+    boolean visit(int id) {
+        if (id >= marks.length) {
+            marks = Arrays.copyOf(marks, Math.max(id + 1, marks.length * 2));
+        }
+        if (marks[id] == generation) {
+            return false;
+        }
+        marks[id] = generation;
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.TestClock;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlatVectorStoreTest {
+
+    TestClock clock = new TestClock();
+    VectorStore vectorStore = flatVectorStore(3, MetricType.COSINE, 0.99, 32_768);
+
+    @Test
+    void shouldSaveVectorDocument() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        var vectorDocument = new VectorDocument(vector, "Some query1", "Some answer1");
+
+        vectorStore.save(vectorDocument);
+
+        var savedDocument = vectorStore.similaritySearch(vector);
+        assertThat(savedDocument).hasValue(vectorDocument);
+    }
+
+    @Test
+    void shouldKeepNamespaceAndMatchOnlyDocumentsOfNamespace() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        var tenantDocument = new VectorDocument(vector, "Some query1", "Some answer1", "tenant-a");
+
+        vectorStore.save(tenantDocument);
+
+        assertThat(vectorStore.similaritySearch("tenant-a", vector)).hasValue(tenantDocument);
+        assertThat(vectorStore.similaritySearch("tenant-b", vector)).isEmpty();
+        assertThat(vectorStore.similaritySearch(vector)).hasValue(tenantDocument);
+    }
+
+    @Test
+    void shouldSaveVectorDocumentWithTtl() {
+        var vector = new float[]{15.3f, 24.7f, 45.2f};
+        var vectorDocument = new VectorDocument(vector, "Some query2", "Some answer2");
+
+        vectorStore.save(vectorDocument, Duration.ofSeconds(3));
+
+        assertThat(vectorStore.similaritySearch(vector)).hasValue(vectorDocument);
+
+        clock.advance(Duration.ofSeconds(3));
+
+        assertThat(vectorStore.similaritySearch(vector)).isEmpty();
+    }
+
+    @Test
+    void shouldFindSimilarDocument() {
+        var vector1 = new float[]{150.3f, 240.7f, 450.2f};
+        var vectorDocument1 = new VectorDocument(vector1, "Some query3", "Some answer3");
+
+        var vector2 = new float[]{-1500.3f, 2400.7f, 4500.2f};
+        var vectorDocument2 = new VectorDocument(vector2, "Some query4", "Some answer4");
+
+        vectorStore.save(vectorDocument1);
+        vectorStore.save(vectorDocument2);
+
+        var actualResult = vectorStore.similaritySearch(vector2);
+
+        assertThat(actualResult).hasValue(vectorDocument2);
+    }
+
+    @Test
+    void shouldReturnEmptyResultWhenBelowSimilarityThreshold() {
+        vectorStore.save(new VectorDocument(new float[]{1.0f, 0.0f, 0.0f}, "Some query5", "Some answer5"));
+
+        var actualResult = vectorStore.similaritySearch(new float[]{0.0f, 1.0f, 0.0f});
+
+        assertThat(actualResult).isEmpty();
+    }
+
+    @Test
+    void shouldFindNearestDocumentByEuclideanDistance() {
+        var store = flatVectorStore(2, MetricType.L2, 0.5, 32_768);
+        store.save(new VectorDocument(new float[]{0.0f, 0.0f}, "origin", "origin"));
+        store.save(new VectorDocument(new float[]{0.5f, 0.0f}, "near", "near"));
+        store.save(new VectorDocument(new float[]{10.0f, 10.0f}, "far", "far"));
+
+        var actualResult = store.similaritySearch(new float[]{0.45f, 0.0f});
+
+        assertThat(actualResult.map(VectorDocument::value)).hasValue("near");
+    }
+
+    @Test
+    void shouldReturnSameMatchForParallelAndSequentialScans() {
+        var random = new Random(13);
+        var sequential = flatVectorStore(24, MetricType.COSINE, 0.0, Integer.MAX_VALUE);
+        var parallel = flatVectorStore(24, MetricType.COSINE, 0.0, 1_000);
+        for (int i = 0; i < 50_000; i++) {
+            var document = new VectorDocument(randomVector(24, random), "key" + i, "value" + i);
+            sequential.save(document);
+            parallel.save(document);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            var query = randomVector(24, random);
+            assertThat(parallel.similaritySearch(query)).isEqualTo(sequential.similaritySearch(query));
+        }
+    }
+
+    @Test
+    void shouldReclaimExpiredDocuments() {
+        var random = new Random(17);
+        var store = flatVectorStore(8, MetricType.COSINE, 0.999, 32_768);
+        var expiredVector = randomVector(8, random);
+        store.save(new VectorDocument(expiredVector, "expired", "expired"), Duration.ofSeconds(1));
+        clock.advance(Duration.ofSeconds(1));
+        for (int i = 0; i < 2_000; i++) {
+            store.save(new VectorDocument(randomVector(8, random), "key" + i, "value" + i));
+        }
+        var liveVector = randomVector(8, random);
+        store.save(new VectorDocument(liveVector, "live", "live"));
+
+        assertThat(store.similaritySearch(expiredVector)).isEmpty();
+        assertThat(store.similaritySearch(liveVector).map(VectorDocument::value)).hasValue("live");
+    }
+
+    @Test
+    void shouldKeepRecallWithInt8Quantization() {
+        var random = new Random(19);
+        int dimensionality = 128;
+        var fullPrecision = flatVectorStore(dimensionality, MetricType.COSINE, -1, Integer.MAX_VALUE);
+        var quantized = new FlatVectorStore(FlatVectorStoreProperties.builder()
+                .vectorDimensionality(dimensionality)
+                .similarityThreshold(-1)
+                .quantization(FlatVectorStoreProperties.Quantization.INT8)
+                .calibrationSize(1_000)
+                .build(), clock);
+        var vectors = new float[10_000][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(dimensionality, random);
+            var document = new VectorDocument(vectors[i], "key" + i, "value" + i);
+            fullPrecision.save(document);
+            quantized.save(document);
+        }
+
+        int queries = 500;
+        int agreements = 0;
+        for (int i = 0; i < queries; i++) {
+            // a paraphrase of a cached question: a stored vector plus noise
+            var query = vectors[random.nextInt(vectors.length)].clone();
+            for (int j = 0; j < dimensionality; j++) {
+                query[j] += (float) random.nextGaussian();
+            }
+            var expected = fullPrecision.similaritySearch(query).map(VectorDocument::key);
+            if (expected.equals(quantized.similaritySearch(query).map(VectorDocument::key))) {
+                agreements++;
+            }
+        }
+
+        assertThat((double) agreements / queries).isGreaterThanOrEqualTo(0.99);
+    }
+
+    private FlatVectorStore flatVectorStore(int dimensionality, MetricType metricType,
+                                            double similarityThreshold, int parallelismThreshold) {
+        var properties = FlatVectorStoreProperties.builder()
+                .vectorDimensionality(dimensionality)
+                .metricType(metricType)
+                .similarityThreshold(similarityThreshold)
+                .parallelismThreshold(parallelismThreshold)
+                .build();
+        return new FlatVectorStore(properties, clock);
+    }
+
+    private static float[] randomVector(int dimensionality, Random random) {
+        var vector = new float[dimensionality];
+        for (int i = 0; i < dimensionality; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
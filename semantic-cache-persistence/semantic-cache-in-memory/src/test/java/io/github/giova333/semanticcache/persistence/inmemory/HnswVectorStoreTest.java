@@ -0,0 +1,203 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.TestClock;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HnswVectorStoreTest {
+
+    TestClock clock = new TestClock();
+    VectorStore vectorStore = hnswVectorStore(3, 0.99);
+
+    @Test
+    void shouldSaveVectorDocument() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        var vectorDocument = new VectorDocument(vector, "Some query1", "Some answer1");
+
+        vectorStore.save(vectorDocument);
+
+        var savedDocument = vectorStore.similaritySearch(vector);
+        assertThat(savedDocument).hasValue(vectorDocument);
+    }
+
+    @Test
+    void shouldKeepNamespaceAndMatchOnlyDocumentsOfNamespace() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        var tenantDocument = new VectorDocument(vector, "Some query1", "Some answer1", "tenant-a");
+
+        vectorStore.save(tenantDocument);
+
+        assertThat(vectorStore.similaritySearch("tenant-a", vector)).hasValue(tenantDocument);
+        assertThat(vectorStore.similaritySearch("tenant-b", vector)).isEmpty();
+        assertThat(vectorStore.similaritySearch(vector)).hasValue(tenantDocument);
+    }
+
+    @Test
+    void shouldSaveVectorDocumentWithTtl() {
+        var vector = new float[]{15.3f, 24.7f, 45.2f};
+        var vectorDocument = new VectorDocument(vector, "Some query2", "Some answer2");
+
+        vectorStore.save(vectorDocument, Duration.ofSeconds(3));
+
+        assertThat(vectorStore.similaritySearch(vector)).hasValue(vectorDocument);
+
+        clock.advance(Duration.ofSeconds(3));
+
+        assertThat(vectorStore.similaritySearch(vector)).isEmpty();
+    }
+
+    @Test
+    void shouldFindSimilarDocument() {
+        var vector1 = new float[]{150.3f, 240.7f, 450.2f};
+        var vectorDocument1 = new VectorDocument(vector1, "Some query3", "Some answer3");
+
+        var vector2 = new float[]{-1500.3f, 2400.7f, 4500.2f};
+        var vectorDocument2 = new VectorDocument(vector2, "Some query4", "Some answer4");
+
+        vectorStore.save(vectorDocument1);
+        vectorStore.save(vectorDocument2);
+
+        var actualResult = vectorStore.similaritySearch(vector2);
+
+        assertThat(actualResult).hasValue(vectorDocument2);
+    }
+
+    @Test
+    void shouldReturnEmptyResultWhenBelowSimilarityThreshold() {
+        vectorStore.save(new VectorDocument(new float[]{1.0f, 0.0f, 0.0f}, "Some query5", "Some answer5"));
+
+        var actualResult = vectorStore.similaritySearch(new float[]{0.0f, 1.0f, 0.0f});
+
+        assertThat(actualResult).isEmpty();
+    }
+
+    @Test
+    void shouldRejectVectorWithWrongDimensionality() {
+        assertThatThrownBy(() -> vectorStore.save(new VectorDocument(new float[]{1.0f}, "key", "value")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldFindExactMatchesAmongManyDocuments() {
+        var store = hnswVectorStore(32, 0.999);
+        var vectors = randomVectors(5_000, 32, new Random(7));
+        for (int i = 0; i < vectors.size(); i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i));
+        }
+
+        int found = 0;
+        for (int i = 0; i < vectors.size(); i += 10) {
+            var result = store.similaritySearch(vectors.get(i));
+            if (result.map(VectorDocument::value).filter(("value" + i)::equals).isPresent()) {
+                found++;
+            }
+        }
+
+        assertThat(found).isGreaterThanOrEqualTo(495);
+    }
+
+    @Test
+    void shouldServeLookupsWhileWriting() {
+        var store = hnswVectorStore(16, 0.999);
+        var vectors = randomVectors(4_000, 16, new Random(11));
+        for (int i = 0; i < 1_000; i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i));
+        }
+
+        var writing = new AtomicBoolean(true);
+        var lookups = new AtomicInteger();
+        var reader = CompletableFuture.supplyAsync(() -> {
+            int misses = 0;
+            while (writing.get()) {
+                for (int i = 0; i < 1_000; i += 50) {
+                    lookups.incrementAndGet();
+                    if (store.similaritySearch(vectors.get(i)).isEmpty()) {
+                        misses++;
+                    }
+                }
+            }
+            return misses;
+        });
+        for (int i = 1_000; i < vectors.size(); i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i));
+        }
+        writing.set(false);
+
+        assertThat(reader.join()).isLessThanOrEqualTo(lookups.get() / 100);
+        for (int i = 0; i < vectors.size(); i += 50) {
+            assertThat(store.similaritySearch(vectors.get(i)).map(VectorDocument::value)).hasValue("value" + i);
+        }
+    }
+
+    @Test
+    void shouldDropExpiredDocumentsOnCompaction() {
+        var store = hnswVectorStore(8, 0.999);
+        var vectors = randomVectors(3_000, 8, new Random(3));
+        for (int i = 0; i < 2_000; i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i), Duration.ofSeconds(1));
+        }
+        clock.advance(Duration.ofSeconds(2));
+        for (int i = 2_000; i < vectors.size(); i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i));
+        }
+
+        assertThat(store.similaritySearch(vectors.get(0))).isEmpty();
+        assertThat(store.similaritySearch(vectors.get(2_500)).map(VectorDocument::value)).hasValue("value2500");
+    }
+
+    @Test
+    void shouldCompactInBackgroundKeepingDocumentsSavedMeanwhile() throws InterruptedException {
+        var store = hnswVectorStore(8, 0.999);
+        var vectors = randomVectors(3_000, 8, new Random(4));
+        for (int i = 0; i < 2_000; i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i), Duration.ofSeconds(1));
+        }
+        clock.advance(Duration.ofSeconds(2));
+        for (int i = 2_000; i < vectors.size(); i++) {
+            store.save(new VectorDocument(vectors.get(i), "key" + i, "value" + i));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.size() > 1_000) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+        assertThat(store.size()).isEqualTo(1_000);
+        for (int i = 2_000; i < vectors.size(); i += 100) {
+            assertThat(store.similaritySearch(vectors.get(i)).map(VectorDocument::value)).hasValue("value" + i);
+        }
+    }
+
+    private HnswVectorStore hnswVectorStore(int dimensionality, double similarityThreshold) {
+        var properties = HnswVectorStoreProperties.builder()
+                .vectorDimensionality(dimensionality)
+                .similarityThreshold(similarityThreshold)
+                .build();
+        return new HnswVectorStore(properties, clock);
+    }
+
+    private static List<float[]> randomVectors(int count, int dimensionality, Random random) {
+        var vectors = new ArrayList<float[]>(count);
+        for (int i = 0; i < count; i++) {
+            var vector = new float[dimensionality];
+            for (int j = 0; j < dimensionality; j++) {
+                vector[j] = (float) random.nextGaussian();
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedVectorStoreTest {
+
+    HnswVectorStoreProperties properties = HnswVectorStoreProperties.builder()
+            .vectorDimensionality(3)
+            .similarityThreshold(0.9)
+            .build();
+    PartitionedVectorStore vectorStore = new PartitionedVectorStore(namespace -> new HnswVectorStore(properties),
+            properties.getMetricType());
+
+    @Test
+    void shouldSearchOnlyGivenNamespace() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        var tenantA = new VectorDocument(vector, "Some query1", "Some answer1", "tenant-a");
+        var tenantB = new VectorDocument(vector, "Some query1", "Some answer2", "tenant-b");
+
+        vectorStore.save(tenantA);
+        vectorStore.save(tenantB);
+
+        assertThat(vectorStore.similaritySearch("tenant-a", vector)).hasValue(tenantA);
+        assertThat(vectorStore.similaritySearch("tenant-b", vector)).hasValue(tenantB);
+        assertThat(vectorStore.similaritySearch("tenant-c", vector)).isEmpty();
+    }
+
+    @Test
+    void shouldSearchAllNamespacesWithoutNamespace() {
+        var query = new float[]{1.0f, 2.0f, 3.0f};
+        var closer = new VectorDocument(new float[]{1.0f, 2.0f, 3.1f}, "Some query1", "Some answer1", "tenant-a");
+        var farther = new VectorDocument(new float[]{1.0f, 2.0f, 3.5f}, "Some query2", "Some answer2");
+
+        vectorStore.save(farther);
+        vectorStore.save(closer);
+
+        assertThat(vectorStore.similaritySearch(query)).hasValue(closer);
+    }
+
+    @Test
+    void shouldNotFindNamespacedDocumentsInDefaultPartitionSearch() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+
+        vectorStore.save(new VectorDocument(vector, "Some query1", "Some answer1"));
+
+        assertThat(vectorStore.similaritySearch("tenant-a", vector)).isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.giova333.semanticcache.persistence.inmemory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorKernelTest {
+
+    VectorKernel scalarKernel = new ScalarVectorKernel();
+    VectorKernel simdKernel = new SimdVectorKernel();
+
+    @Test
+    void shouldPreferSimdKernelWhenVectorModuleIsEnabled() {
+        assertThat(VectorKernel.preferred()).isInstanceOf(SimdVectorKernel.class);
+    }
+
+    @Test
+    void shouldComputeDotProduct() {
+        var a = new float[]{1, 2, 3, 4, 5};
+        var b = new float[]{5, 4, 3, 2, 1};
+
+        assertThat(scalarKernel.dot(a, 0, b, 0, 5)).isEqualTo(35f);
+        assertThat(simdKernel.dot(a, 0, b, 0, 5)).isEqualTo(35f);
+    }
+
+    @Test
+    void shouldComputeSquaredDistance() {
+        var a = new float[]{1, 2, 3, 4, 5};
+        var b = new float[]{5, 4, 3, 2, 1};
+
+        assertThat(scalarKernel.squaredDistance(a, 0, b, 0, 5)).isEqualTo(40f);
+        assertThat(simdKernel.squaredDistance(a, 0, b, 0, 5)).isEqualTo(40f);
+    }
+
+    @Test
+    void shouldProduceSameResultsForVectorsAtAnOffset() {
+        var random = new Random(5);
+        for (int dimension : new int[]{1, 7, 16, 33, 384, 1536}) {
+            var packed = randomVector(dimension * 3, random);
+            var query = randomVector(dimension, random);
+
+            assertThat(simdKernel.dot(query, 0, packed, dimension, dimension))
+                    .isCloseTo(scalarKernel.dot(query, 0, packed, dimension, dimension), within(1e-3f * dimension));
+            assertThat(simdKernel.squaredDistance(query, 0, packed, 2 * dimension, dimension))
+                    .isCloseTo(scalarKernel.squaredDistance(query, 0, packed, 2 * dimension, dimension), within(1e-3f * dimension));
+        }
+    }
+
+    @Test
+    void shouldComputeDotProductWithSignedBytes() {
+        var random = new Random(7);
+        for (int dimension : new int[]{1, 7, 16, 33, 384, 1536}) {
+            var query = randomVector(dimension, random);
+            var codes = new byte[dimension * 2];
+            random.nextBytes(codes);
+            float expected = 0;
+            for (int i = 0; i < dimension; i++) {
+                expected += query[i] * codes[dimension + i];
+            }
+
+            assertThat(scalarKernel.dot(query, 0, codes, dimension, dimension)).isCloseTo(expected, within(1e-2f * dimension));
+            assertThat(simdKernel.dot(query, 0, codes, dimension, dimension)).isCloseTo(expected, within(1e-2f * dimension));
+        }
+    }
+
+    private static float[] randomVector(int length, Random random) {
+        var vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
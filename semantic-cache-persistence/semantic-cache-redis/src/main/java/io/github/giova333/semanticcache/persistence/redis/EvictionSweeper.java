@@ -0,0 +1,151 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.resps.Tuple;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the number of documents saved without a time to live on a node within {@code maxEntries}.
+ *
+ * <p>Those documents are ranked in a sorted set, by the time of their last save or match for LRU
+ * and by their number of matches for LFU. Saves and matches are only collected in memory on the request path
+ * and written to the sorted set by a daemon thread, which then deletes the lowest ranked documents
+ * while the set holds more than {@code maxEntries}. Documents saved before eviction was enabled
+ * are not ranked and so never evicted.</p>
+ */
+final class EvictionSweeper {
+
+    private static final String USAGE_KEY_PREFIX = "semantic-cache:usage:";
+    private static final int EVICTION_BATCH_SIZE = 500;
+
+    private final JedisPooled client;
+    private final String usageKey;
+    private final long maxEntries;
+    private final RedisVectorStoreProperties.EvictionPolicy policy;
+    private final Clock clock;
+    private final Map<String, Long> saved = new ConcurrentHashMap<>();
+    private final Map<String, Long> matched = new ConcurrentHashMap<>();
+    private final Set<String> unranked = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "semantic-cache-eviction-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    EvictionSweeper(JedisPooled client, RedisVectorStoreProperties properties, Clock clock) {
+        this.client = client;
+        this.usageKey = USAGE_KEY_PREFIX + properties.getIndexName();
+        this.maxEntries = properties.getMaxEntries();
+        this.policy = properties.getEvictionPolicy();
+        this.clock = clock;
+    }
+
+    void start(long intervalMillis) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                // a failed sweep is retried with the next one, collected matches of the failed flush are lost
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the daemon thread, interrupting a run in progress.
+     */
+    void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Ranks a document saved without a time to live. New documents start with a single match under LFU,
+     * so they are not evicted ahead of documents that were never matched.
+     */
+    void saved(String id) {
+        unranked.remove(id);
+        saved.put(id, policy == RedisVectorStoreProperties.EvictionPolicy.LRU ? clock.millis() : 1);
+    }
+
+    /**
+     * Stops ranking a document that was replaced by one with a time to live.
+     */
+    void savedWithTtl(String id) {
+        saved.remove(id);
+        unranked.add(id);
+    }
+
+    /**
+     * Records a match, only touching memory.
+     */
+    void matched(String id) {
+        if (policy == RedisVectorStoreProperties.EvictionPolicy.LRU) {
+            matched.merge(id, clock.millis(), Math::max);
+        } else {
+            matched.merge(id, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Writes the collected saves and matches to the sorted set, then evicts documents in excess of {@code maxEntries}.
+     */
+    void sweep() {
+        flush();
+        long excess = client.zcard(usageKey) - maxEntries;
+        while (excess > 0) {
+            // documents deleted by someone else are popped as well, which only frees their stale rank
+            var victims = client.zpopmin(usageKey, (int) Math.min(excess, EVICTION_BATCH_SIZE));
+            if (victims.isEmpty()) {
+                return;
+            }
+            try (var pipeline = client.pipelined()) {
+                for (Tuple victim : victims) {
+                    pipeline.del(victim.getElement());
+                }
+                pipeline.sync();
+            }
+            excess -= victims.size();
+        }
+    }
+
+    private void flush() {
+        if (saved.isEmpty() && matched.isEmpty() && unranked.isEmpty()) {
+            return;
+        }
+        // XX only updates ranked documents, matches of documents with a time to live or already evicted are dropped
+        var onlyRanked = ZAddParams.zAddParams().xx();
+        try (var pipeline = client.pipelined()) {
+            for (var id : unranked) {
+                if (unranked.remove(id)) {
+                    pipeline.zrem(usageKey, id);
+                }
+            }
+            drain(saved, (id, score) -> pipeline.zadd(usageKey, score, id));
+            drain(matched, (id, score) -> {
+                if (policy == RedisVectorStoreProperties.EvictionPolicy.LRU) {
+                    pipeline.zadd(usageKey, score, id, onlyRanked);
+                } else {
+                    pipeline.zaddIncr(usageKey, score, id, onlyRanked);
+                }
+            });
+            pipeline.sync();
+        }
+    }
+
+    private static void drain(Map<String, Long> pending, BiConsumer<String, Long> consumer) {
+        for (var id : pending.keySet()) {
+            var score = pending.remove(id);
+            if (score != null) {
+                consumer.accept(id, score);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import redis.clients.jedis.Builder;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.PipeliningBase;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.search.Document;
+import redis.clients.jedis.search.FTSearchParams;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stores documents as Redis hashes, with the vector as a raw little-endian blob of the index vector type as expected by RediSearch.
+ * Values that the {@link ValueCompressor} compresses go to a separate field, so documents written before compression
+ * was enabled stay readable.
+ */
+final class HashDocumentCodec implements RedisDocumentCodec {
+
+    private static final byte[] VECTOR_FIELD = RedisSchema.VECTOR_FIELD_NAME.getBytes(UTF_8);
+    private static final byte[] KEY_FIELD = RedisSchema.KEY_FIELD_NAME.getBytes(UTF_8);
+    private static final byte[] VALUE_FIELD = RedisSchema.VALUE_FIELD_NAME.getBytes(UTF_8);
+    private static final byte[] COMPRESSED_VALUE_FIELD = RedisSchema.COMPRESSED_VALUE_FIELD_NAME.getBytes(UTF_8);
+    private static final byte[] NAMESPACE_FIELD = RedisSchema.NAMESPACE_FIELD_NAME.getBytes(UTF_8);
+
+    private final RedisVectorStoreProperties.VectorType vectorType;
+    private final ValueCompressor compressor;
+
+    HashDocumentCodec(RedisVectorStoreProperties.VectorType vectorType, ValueCompressor compressor) {
+        this.vectorType = vectorType;
+        this.compressor = compressor;
+    }
+
+    HashDocumentCodec(RedisVectorStoreProperties.VectorType vectorType) {
+        this(vectorType, ValueCompressor.DISABLED);
+    }
+
+    @Override
+    public void write(UnifiedJedis client, String key, VectorDocument document) {
+        client.hset(key.getBytes(UTF_8), toFields(document));
+    }
+
+    @Override
+    public void write(PipeliningBase pipeline, String key, VectorDocument document) {
+        pipeline.hset(key.getBytes(UTF_8), toFields(document));
+    }
+
+    @Override
+    public CommandArguments writeCommand(String key, VectorDocument document) {
+        var command = new CommandArguments(Protocol.Command.HSET).key(key.getBytes(UTF_8));
+        toFields(document).forEach((field, value) -> command.add(field).add(value));
+        return command;
+    }
+
+    @Override
+    public CommandObject<Document> readCommand(String key) {
+        var command = new CommandArguments(Protocol.Command.HGETALL).key(key.getBytes(UTF_8));
+        return new CommandObject<>(command, new Builder<>() {
+            @Override
+            public Document build(Object data) {
+                var reply = (List<?>) data;
+                if (reply.isEmpty()) {
+                    return null;
+                }
+                Map<String, Object> fields = new HashMap<>();
+                for (int i = 0; i + 1 < reply.size(); i += 2) {
+                    fields.put(new String((byte[]) reply.get(i), UTF_8), reply.get(i + 1));
+                }
+                return new Document(key, fields);
+            }
+        });
+    }
+
+    @Override
+    public FTSearchParams returnFields(FTSearchParams params) {
+        return params.returnField(RedisSchema.VECTOR_FIELD_NAME, false)
+                .returnField(RedisSchema.COMPRESSED_VALUE_FIELD_NAME, false)
+                .returnFields(RedisSchema.KEY_FIELD_NAME, RedisSchema.VALUE_FIELD_NAME, RedisSchema.NAMESPACE_FIELD_NAME);
+    }
+
+    @Override
+    public VectorDocument read(Document document) {
+        return VectorDocument.builder()
+                .vector(VectorEncoding.decode(vectorType, (byte[]) document.get(RedisSchema.VECTOR_FIELD_NAME)))
+                .key(document.getString(RedisSchema.KEY_FIELD_NAME))
+                .value(readValue(document))
+                .namespace(document.getString(RedisSchema.NAMESPACE_FIELD_NAME))
+                .build();
+    }
+
+    Map<byte[], byte[]> toFields(VectorDocument document) {
+        Map<byte[], byte[]> fields = new HashMap<>();
+        fields.put(VECTOR_FIELD, VectorEncoding.encode(vectorType, document.vector()));
+        fields.put(KEY_FIELD, document.key().getBytes(UTF_8));
+        var value = document.value().getBytes(UTF_8);
+        if (compressor.shouldCompress(value)) {
+            fields.put(COMPRESSED_VALUE_FIELD, compressor.compress(value));
+        } else {
+            fields.put(VALUE_FIELD, value);
+        }
+        if (document.namespace() != null) {
+            fields.put(NAMESPACE_FIELD, RedisSchema.checkNamespace(document.namespace()).getBytes(UTF_8));
+        }
+        return fields;
+    }
+
+    private String readValue(Document document) {
+        var compressed = (byte[]) document.get(RedisSchema.COMPRESSED_VALUE_FIELD_NAME);
+        return compressed == null
+                ? document.getString(RedisSchema.VALUE_FIELD_NAME)
+                : new String(compressor.decompress(compressed), UTF_8);
+    }
+}
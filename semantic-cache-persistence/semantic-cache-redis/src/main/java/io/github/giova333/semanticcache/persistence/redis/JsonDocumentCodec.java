@@ -0,0 +1,99 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import redis.clients.jedis.Builder;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.PipeliningBase;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.json.JsonProtocol;
+import redis.clients.jedis.json.Path2;
+import redis.clients.jedis.search.Document;
+import redis.clients.jedis.search.FTSearchParams;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stores documents as RedisJSON objects, with the vector as an array of numbers.
+ */
+final class JsonDocumentCodec implements RedisDocumentCodec {
+
+    static final JsonDocumentCodec INSTANCE = new JsonDocumentCodec();
+
+    private static final Gson GSON = new Gson();
+
+    private JsonDocumentCodec() {
+    }
+
+    @Override
+    public void write(UnifiedJedis client, String key, VectorDocument document) {
+        client.jsonSetWithEscape(key, Path2.ROOT_PATH, toFields(document));
+    }
+
+    @Override
+    public void write(PipeliningBase pipeline, String key, VectorDocument document) {
+        pipeline.jsonSetWithEscape(key, Path2.ROOT_PATH, toFields(document));
+    }
+
+    @Override
+    public CommandArguments writeCommand(String key, VectorDocument document) {
+        return new CommandArguments(JsonProtocol.JsonCommand.SET)
+                .key(key)
+                .add(Path2.ROOT_PATH.toString())
+                .add(GSON.toJson(toFields(document)));
+    }
+
+    /**
+     * Reads the whole object and keeps the vector as JSON text, which is how searches return it.
+     */
+    @Override
+    public CommandObject<Document> readCommand(String key) {
+        var command = new CommandArguments(JsonProtocol.JsonCommand.GET).key(key);
+        return new CommandObject<>(command, new Builder<>() {
+            @Override
+            public Document build(Object data) {
+                if (data == null) {
+                    return null;
+                }
+                var object = JsonParser.parseString(new String((byte[]) data, UTF_8)).getAsJsonObject();
+                Map<String, Object> fields = new HashMap<>();
+                object.entrySet().forEach(field -> fields.put(field.getKey(), field.getValue().isJsonPrimitive()
+                        ? field.getValue().getAsString()
+                        : field.getValue().toString()));
+                return new Document(key, fields);
+            }
+        });
+    }
+
+    @Override
+    public FTSearchParams returnFields(FTSearchParams params) {
+        return params.returnFields(RedisSchema.VECTOR_FIELD_NAME, RedisSchema.KEY_FIELD_NAME, RedisSchema.VALUE_FIELD_NAME,
+                RedisSchema.NAMESPACE_FIELD_NAME);
+    }
+
+    @Override
+    public VectorDocument read(Document document) {
+        return VectorDocument.builder()
+                .vector(GSON.fromJson(document.getString(RedisSchema.VECTOR_FIELD_NAME), float[].class))
+                .key(document.getString(RedisSchema.KEY_FIELD_NAME))
+                .value(document.getString(RedisSchema.VALUE_FIELD_NAME))
+                .namespace(document.getString(RedisSchema.NAMESPACE_FIELD_NAME))
+                .build();
+    }
+
+    static Map<String, Object> toFields(VectorDocument document) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(RedisSchema.VECTOR_FIELD_NAME, document.vector());
+        fields.put(RedisSchema.KEY_FIELD_NAME, document.key());
+        fields.put(RedisSchema.VALUE_FIELD_NAME, document.value());
+        if (document.namespace() != null) {
+            fields.put(RedisSchema.NAMESPACE_FIELD_NAME, RedisSchema.checkNamespace(document.namespace()));
+        }
+        return fields;
+    }
+}
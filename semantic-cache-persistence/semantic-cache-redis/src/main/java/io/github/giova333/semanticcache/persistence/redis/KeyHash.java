@@ -0,0 +1,49 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.KeyNormalizer;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Derives document ids from the content of the cache key, so writing a key again replaces its document.
+ */
+final class KeyHash {
+
+    private static final KeyNormalizer KEY_NORMALIZER = KeyNormalizer.standard();
+    private static final int ID_BYTES = 16;
+    private static final byte NO_NAMESPACE = 0;
+    private static final byte NAMESPACE = 1;
+
+    private KeyHash() {
+    }
+
+    /**
+     * @return the first 128 bits of the SHA-256 of the namespace and the {@link KeyNormalizer#standard() normalized} key, in hex
+     */
+    static String of(String namespace, String key) {
+        var digest = sha256();
+        // marks whether there is a namespace, so no namespace and the empty namespace differ
+        if (namespace == null) {
+            digest.update(NO_NAMESPACE);
+        } else {
+            digest.update(NAMESPACE);
+            digest.update(namespace.getBytes(UTF_8));
+        }
+        // separates the namespace from the key, so "a" + "bc" and "ab" + "c" differ
+        digest.update((byte) 0);
+        var hash = digest.digest(KEY_NORMALIZER.normalize(key).getBytes(UTF_8));
+        return HexFormat.of().formatHex(hash, 0, ID_BYTES);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
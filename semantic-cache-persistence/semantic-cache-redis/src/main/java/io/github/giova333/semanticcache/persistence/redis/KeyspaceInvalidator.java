@@ -0,0 +1,185 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps an in-process copy of documents, such as the {@link NearCache}, coherent by listening to keyspace notifications
+ * for the document keys. Every event on a key, such as an overwrite, a delete, an expiration or an eviction, is passed on.
+ *
+ * <p>Runs on a daemon thread that reconnects after connection failures. Notifications sent while disconnected are lost,
+ * so the copy is told whenever the subscription is (re)established. {@link #close()} unsubscribes and stops the thread.</p>
+ */
+@Slf4j
+final class KeyspaceInvalidator {
+
+    /**
+     * Copy of documents kept coherent, called on the thread of the subscription.
+     */
+    interface Target {
+
+        /**
+         * The subscription is (re)established, changes made before it may have been missed.
+         */
+        void resubscribed();
+
+        /**
+         * @param id    the Redis key of the document
+         * @param event the keyspace event, such as {@code hset}, {@code del} or {@code expired}
+         */
+        void changed(String id, String event);
+    }
+
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+    private static final String REQUIRED_EVENTS = "Kg$hxe";
+    /**
+     * Event classes {@code A} stands for
+     */
+    private static final String ALL_EVENTS_ALIAS = "g$lshzxetd";
+    private static final String CHANNEL_PATTERN = "__keyspace@*__:" + RedisSchema.PREFIX + "*";
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+
+    private final Target target;
+    private final Supplier<Jedis> connectionFactory;
+    private final String threadName;
+    private volatile boolean closed;
+    private volatile Thread thread;
+    private volatile Subscriber subscriber;
+
+    KeyspaceInvalidator(Target target, Supplier<Jedis> connectionFactory, String threadName) {
+        this.target = target;
+        this.connectionFactory = connectionFactory;
+        this.threadName = threadName;
+    }
+
+    void start() {
+        thread = new Thread(this::listen, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void close() {
+        closed = true;
+        var current = subscriber;
+        if (current != null && current.isSubscribed()) {
+            try {
+                current.punsubscribe();
+            } catch (JedisException e) {
+                // the connection is lost already, the thread does not resubscribe once interrupted
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Adds the keyspace events the invalidator needs to the server configuration, keeping the classes enabled already.
+     * Managed Redis services often forbid {@code CONFIG SET}, notifications then have to be enabled on the service.
+     */
+    static void enableNotifications(Jedis jedis, RedisVectorStoreProperties.StorageType storageType) {
+        try {
+            var current = currentNotifications(jedis);
+            var missing = missingEvents(current, requiredEvents(storageType));
+            if (!missing.isEmpty()) {
+                jedis.configSet(NOTIFY_KEYSPACE_EVENTS, current + missing);
+                log.info("Enabled keyspace events '{}', {} is now '{}'", missing, NOTIFY_KEYSPACE_EVENTS, current + missing);
+            }
+        } catch (JedisException e) {
+            log.warn("Could not enable keyspace events '{}', set {} on the server", requiredEvents(storageType), NOTIFY_KEYSPACE_EVENTS, e);
+        }
+    }
+
+    /**
+     * Warns if the server configuration lacks keyspace events the invalidator needs. Servers that forbid
+     * {@code CONFIG GET} are not checked.
+     */
+    static void checkNotifications(Jedis jedis, RedisVectorStoreProperties.StorageType storageType) {
+        try {
+            var missing = missingEvents(currentNotifications(jedis), requiredEvents(storageType));
+            if (!missing.isEmpty()) {
+                log.warn("Keyspace events '{}' are not enabled, add them to {} on the server or set enableKeyspaceNotifications",
+                        missing, NOTIFY_KEYSPACE_EVENTS);
+            }
+        } catch (JedisException e) {
+            // the configuration cannot be read, notifications are assumed to be enabled on the service
+        }
+    }
+
+    /**
+     * @return the {@code notify-keyspace-events} classes the invalidator needs: keyspace channels ({@code K}) for generic
+     * commands such as {@code DEL} ({@code g}), string commands such as {@code SET} ({@code $}), hash commands
+     * ({@code h}), expirations ({@code x}) and evictions ({@code e}), plus module commands ({@code d}) such as
+     * {@code JSON.SET} for {@code JSON} storage
+     */
+    static String requiredEvents(RedisVectorStoreProperties.StorageType storageType) {
+        return storageType == RedisVectorStoreProperties.StorageType.JSON ? REQUIRED_EVENTS + "d" : REQUIRED_EVENTS;
+    }
+
+    /**
+     * @return the classes of {@code required} not enabled by {@code current}, where {@code A} counts as all event classes
+     */
+    static String missingEvents(String current, String required) {
+        var missing = new StringBuilder();
+        for (char event : required.toCharArray()) {
+            boolean enabled = current.indexOf(event) >= 0
+                    || current.indexOf('A') >= 0 && ALL_EVENTS_ALIAS.indexOf(event) >= 0;
+            if (!enabled) {
+                missing.append(event);
+            }
+        }
+        return missing.toString();
+    }
+
+    /**
+     * @return the cache key of a keyspace notification channel such as {@code __keyspace@0__:embedding:<id>}
+     */
+    static String keyOf(String channel) {
+        return channel.substring(channel.indexOf("__:") + 3);
+    }
+
+    private static String currentNotifications(Jedis jedis) {
+        return jedis.configGet(NOTIFY_KEYSPACE_EVENTS).getOrDefault(NOTIFY_KEYSPACE_EVENTS, "");
+    }
+
+    private void listen() {
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            try (var jedis = connectionFactory.get()) {
+                subscriber = new Subscriber();
+                jedis.psubscribe(subscriber, CHANNEL_PATTERN);
+            } catch (JedisException e) {
+                if (closed) {
+                    return;
+                }
+                target.resubscribed();
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class Subscriber extends JedisPubSub {
+
+        @Override
+        public void onPSubscribe(String pattern, int subscribedChannels) {
+            if (closed) {
+                // closed before the subscription was established, so close() could not unsubscribe
+                punsubscribe();
+                return;
+            }
+            target.resubscribed();
+        }
+
+        @Override
+        public void onPMessage(String pattern, String channel, String message) {
+            target.changed(keyOf(channel), message);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.CommandOutput;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.protocol.ProtocolVersion;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.search.FTCreateParams;
+import redis.clients.jedis.search.SearchProtocol;
+import redis.clients.jedis.search.SearchResult;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * {@link VectorStore} on the non-blocking Lettuce client, for services with many concurrent lookups.
+ *
+ * <p>Commands of all threads are multiplexed over {@code lettuceConnections} connections and written as soon as
+ * they are issued, so concurrent lookups are pipelined on the same connection instead of each holding a pooled
+ * connection for a round trip. The async methods never block a thread. Documents, index and queries are the same
+ * as those of {@link RedisVectorStore}, so both stores can share an index.</p>
+ *
+ * <p>A document, the delete of the document it replaces and its time to live are written by one script,
+ * atomically and in one round trip, as transactions cannot be used on shared connections.
+ * The near-cache, eviction, sliding TTL, deduplication, replicas and sharding are only supported by
+ * {@link RedisVectorStore}.</p>
+ */
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class LettuceRedisVectorStore implements VectorStore, AutoCloseable {
+
+    private static final String WRITE_SCRIPT = """
+            if ARGV[1] == '1' then redis.call('DEL', KEYS[1]) end
+            redis.call(ARGV[3], KEYS[1], unpack(ARGV, 4))
+            if ARGV[2] ~= '0' then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end
+            return 1
+            """;
+    private static final byte[] WRITE_SCRIPT_BYTES = WRITE_SCRIPT.getBytes(UTF_8);
+    private static final String WRITE_SCRIPT_SHA = sha1(WRITE_SCRIPT_BYTES);
+    private static final byte[] REPLACE = "1".getBytes(UTF_8);
+    private static final byte[] ADD = "0".getBytes(UTF_8);
+
+    RedisClient client;
+    List<StatefulRedisConnection<byte[], byte[]>> connections;
+    AtomicInteger nextConnection = new AtomicInteger();
+    RedisSchema redisSchema;
+    RedisDocumentCodec codec;
+    Supplier<UUID> idGenerator;
+    RedisVectorStoreProperties properties;
+    SemanticCacheInstrumentation instrumentation;
+
+    /**
+     * @param idGenerator ids of new documents, used with {@code RANDOM} document ids only
+     */
+    public LettuceRedisVectorStore(RedisVectorStoreProperties properties,
+                                   Supplier<UUID> idGenerator,
+                                   SemanticCacheInstrumentation instrumentation) {
+        checkSupported(properties);
+        this.redisSchema = RedisSchema.builder()
+                .vectorDimensionality(properties.getVectorDimensionality())
+                .vectorAlgorithm(properties.getVectorAlgorithm())
+                .indexName(properties.getIndexName())
+                .metricType(properties.getMetricType())
+                .storageType(properties.getStorageType())
+                .vectorType(properties.getVectorType())
+                .schemaMode(properties.getSchemaMode())
+                .initialCapacity(properties.getInitialCapacity())
+                .hnswM(properties.getHnswM())
+                .hnswEfConstruction(properties.getHnswEfConstruction())
+                .build();
+        this.codec = RedisDocumentCodec.of(properties);
+        this.idGenerator = idGenerator;
+        this.properties = properties;
+        this.instrumentation = instrumentation;
+        this.client = RedisClient.create(redisUri(properties));
+        // search replies are parsed by the Jedis result builders, which expect RESP2
+        this.client.setOptions(ClientOptions.builder()
+                .protocolVersion(ProtocolVersion.RESP2)
+                .build());
+        this.connections = IntStream.range(0, Math.max(1, properties.getLettuceConnections()))
+                .mapToObj(i -> client.connect(ByteArrayCodec.INSTANCE))
+                .toList();
+
+        if (isIndexExist(properties.getIndexName())) {
+            var info = RedisSchema.pairs(await(dispatch(
+                    new CommandArguments(SearchProtocol.SearchCommand.INFO).add(properties.getIndexName()),
+                    new NestedMultiOutput<>(ByteArrayCodec.INSTANCE))));
+            redisSchema.checkMatches(info);
+            if (!RedisSchema.hasNamespaceField(info)) {
+                addNamespaceField(properties.getIndexName());
+            }
+        } else {
+            createIndex(properties.getIndexName());
+        }
+    }
+
+    public LettuceRedisVectorStore(RedisVectorStoreProperties properties) {
+        this(properties, UUID::randomUUID, SemanticCacheInstrumentation.NOOP);
+    }
+
+    @Override
+    public void save(VectorDocument document) {
+        await(saveAsync(document));
+    }
+
+    @Override
+    public void save(VectorDocument document, Duration ttl) {
+        await(saveAsync(document, ttl));
+    }
+
+    /**
+     * Issues all writes at once, so they share round trips on the multiplexed connections.
+     */
+    @Override
+    public void saveAll(List<VectorDocument> documents) {
+        await(CompletableFuture.allOf(documents.stream()
+                .map(document -> write(document, null))
+                .toArray(CompletableFuture[]::new)));
+    }
+
+    /**
+     * Issues all writes at once, so they share round trips on the multiplexed connections.
+     */
+    @Override
+    public void saveAll(List<VectorDocument> documents, Duration ttl) {
+        await(CompletableFuture.allOf(documents.stream()
+                .map(document -> write(document, ttl))
+                .toArray(CompletableFuture[]::new)));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(VectorDocument document) {
+        return write(document, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(VectorDocument document, Duration ttl) {
+        return write(document, ttl);
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(float[] queryVector) {
+        return await(similaritySearchAsync(null, queryVector));
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] queryVector) {
+        return await(similaritySearchAsync(namespace, queryVector));
+    }
+
+    /**
+     * Issues all KNN queries at once, so they share round trips on the multiplexed connections.
+     */
+    @Override
+    public List<Optional<VectorDocument>> similaritySearchAll(List<float[]> queryVectors) {
+        return similaritySearchAll(null, queryVectors);
+    }
+
+    /**
+     * Issues all KNN queries at once, so they share round trips on the multiplexed connections.
+     */
+    @Override
+    public List<Optional<VectorDocument>> similaritySearchAll(String namespace, List<float[]> queryVectors) {
+        var searches = queryVectors.stream()
+                .map(queryVector -> similaritySearchAsync(namespace, queryVector))
+                .toList();
+        var results = new ArrayList<Optional<VectorDocument>>(searches.size());
+        searches.forEach(search -> results.add(await(search)));
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<Optional<VectorDocument>> similaritySearchAsync(float[] queryVector) {
+        return similaritySearchAsync(null, queryVector);
+    }
+
+    @Override
+    public CompletableFuture<Optional<VectorDocument>> similaritySearchAsync(String namespace, float[] queryVector) {
+        var params = RedisVectorStore.similarityParams(codec, properties, queryVector, properties.getSimilarityThreshold());
+        var command = new CommandArguments(SearchProtocol.SearchCommand.SEARCH)
+                .add(redisSchema.getIndexName())
+                .add(RedisVectorStore.similarityQuery(properties, namespace))
+                .addParams(params);
+        var resultBuilder = new SearchResult.SearchResultBuilder(!params.getNoContent(), params.getWithScores(), true,
+                params.getReturnFieldDecodeMap());
+        return dispatch(command, new NestedMultiOutput<>(ByteArrayCodec.INSTANCE))
+                .thenApply(reply -> RedisVectorStore.nearest(resultBuilder.build(reply), properties.getMetricType(), instrumentation))
+                .thenApply(this::accept);
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        double score = properties.getMetricType().similarity(properties.getMetricType().distance(vector, otherVector));
+        return score >= properties.getSimilarityThreshold();
+    }
+
+    @Override
+    public void close() {
+        connections.forEach(StatefulRedisConnection::close);
+        client.shutdown();
+    }
+
+    private Optional<VectorDocument> accept(Optional<RedisVectorStore.Candidate> candidate) {
+        return candidate
+                .filter(this::matchesSimilarityThreshold)
+                .map(match -> codec.read(match.document()));
+    }
+
+    private boolean matchesSimilarityThreshold(RedisVectorStore.Candidate candidate) {
+        instrumentation.bestMatchScore(candidate.score());
+        return candidate.score() >= properties.getSimilarityThreshold();
+    }
+
+    private CompletableFuture<Void> write(VectorDocument document, Duration ttl) {
+        boolean keyHash = properties.getDocumentIds() == RedisVectorStoreProperties.DocumentIdStrategy.KEY_HASH;
+        var key = RedisSchema.PREFIX + (keyHash ? KeyHash.of(document.namespace(), document.key()) : idGenerator.get().toString());
+        var command = codec.writeCommand(key, document).iterator();
+        var arguments = new ArrayList<byte[]>();
+        arguments.add(keyHash ? REPLACE : ADD);
+        arguments.add(String.valueOf(ttl == null ? 0 : ttl.toMillis()).getBytes(UTF_8));
+        arguments.add(command.next().getRaw());
+        // the key is passed in KEYS
+        command.next();
+        command.forEachRemaining(argument -> arguments.add(argument.getRaw()));
+
+        byte[][] keys = {key.getBytes(UTF_8)};
+        byte[][] values = arguments.toArray(byte[][]::new);
+        var commands = commands();
+        return commands.<Long>evalsha(WRITE_SCRIPT_SHA, ScriptOutputType.INTEGER, keys, values)
+                .toCompletableFuture()
+                .exceptionallyCompose(e -> unwrap(e) instanceof RedisNoScriptException
+                        ? commands.<Long>eval(WRITE_SCRIPT_BYTES, ScriptOutputType.INTEGER, keys, values).toCompletableFuture()
+                        : CompletableFuture.failedFuture(e))
+                .thenApply(written -> null);
+    }
+
+    private <T> CompletableFuture<T> dispatch(CommandArguments command, CommandOutput<byte[], byte[], T> output) {
+        var arguments = command.iterator();
+        var keyword = new Keyword(new String(arguments.next().getRaw(), UTF_8));
+        var lettuceArguments = new CommandArgs<>(ByteArrayCodec.INSTANCE);
+        arguments.forEachRemaining(argument -> lettuceArguments.add(argument.getRaw()));
+        return commands().dispatch(keyword, output, lettuceArguments).toCompletableFuture();
+    }
+
+    private RedisAsyncCommands<byte[], byte[]> commands() {
+        return connections.get(Math.floorMod(nextConnection.getAndIncrement(), connections.size())).async();
+    }
+
+    private boolean isIndexExist(String indexName) {
+        var indexes = await(dispatch(new CommandArguments(SearchProtocol.SearchCommand._LIST),
+                new NestedMultiOutput<>(ByteArrayCodec.INSTANCE)));
+        return indexes.stream().anyMatch(index -> indexName.equals(new String((byte[]) index, UTF_8)));
+    }
+
+    /**
+     * Adds the namespace field to an index created before namespaces, like {@link RedisVectorStore} does.
+     */
+    private void addNamespaceField(String indexName) {
+        var command = new CommandArguments(SearchProtocol.SearchCommand.ALTER)
+                .add(indexName)
+                .add(SearchProtocol.SearchKeyword.SCHEMA)
+                .add(SearchProtocol.SearchKeyword.ADD)
+                .addParams(redisSchema.namespaceField());
+        String res = await(dispatch(command, new StatusOutput<>(ByteArrayCodec.INSTANCE)));
+        if (!"OK".equals(res)) {
+            throw new IllegalStateException("alter index error, msg=" + res);
+        }
+        log.info("Added the namespace field to index {} created before namespaces", indexName);
+    }
+
+    private void createIndex(String indexName) {
+        var command = new CommandArguments(SearchProtocol.SearchCommand.CREATE)
+                .add(indexName)
+                .addParams(FTCreateParams.createParams()
+                        .on(redisSchema.indexDataType())
+                        .addPrefix(RedisSchema.PREFIX))
+                .add(SearchProtocol.SearchKeyword.SCHEMA);
+        for (var field : redisSchema.toSchemaFields()) {
+            command.addParams(field);
+        }
+        String res = await(dispatch(command, new StatusOutput<>(ByteArrayCodec.INSTANCE)));
+        if (!"OK".equals(res)) {
+            throw new IllegalStateException("create index error, msg=" + res);
+        }
+    }
+
+    private static RedisURI redisUri(RedisVectorStoreProperties properties) {
+        var uri = RedisURI.builder()
+                .withHost(properties.getHost())
+                .withPort(properties.getPort());
+        if (properties.getUser() != null) {
+            uri.withAuthentication(properties.getUser(), properties.getPassword().toCharArray());
+        }
+        return uri.build();
+    }
+
+    private static void checkSupported(RedisVectorStoreProperties properties) {
+        if (properties.getNearCacheMaxSize() > 0 || properties.getMaxEntries() > 0 || properties.getSlidingTtl() != null
+                || properties.getDeduplicationThreshold() > 0 || properties.getReplicaHost() != null
+                || !properties.getShards().isEmpty() || properties.isLocalIndex()) {
+            throw new IllegalArgumentException("near-cache, eviction, sliding TTL, deduplication, replicas, shards and local index "
+                    + "are not supported with the Lettuce client");
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    private static String sha1(byte[] script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * A command Lettuce has no method for, sent by name.
+     */
+    private record Keyword(String name) implements ProtocolKeyword {
+
+        @Override
+        public byte[] getBytes() {
+            return name.getBytes(UTF_8);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package io.github.giova333.semanticcache.persistence.redis;
 
 /**
  * Similarity metric used by Redis
+ *
+ * @deprecated moved to {@link io.github.giova333.semanticcache.core.MetricType}, which all vector stores share
  */
-enum MetricType {
+@Deprecated(forRemoval = true)
+public enum MetricType {
 
     /**
      * cosine similarity
@@ -18,6 +21,12 @@ enum MetricType {
     /**
      * euclidean distance
      */
-    L2
-}
+    L2;
 
+    /**
+     * @return the same metric of {@link io.github.giova333.semanticcache.core.MetricType}
+     */
+    public io.github.giova333.semanticcache.core.MetricType toCore() {
+        return io.github.giova333.semanticcache.core.MetricType.valueOf(name());
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.VectorDocument;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small in-process set of recently matched documents, keyed by their Redis key, that answers lookups
+ * for head queries without a round trip. Lookups scan all entries, so the cache is meant to stay in the thousands.
+ *
+ * <p>Entries are dropped when Redis reports a change of their key and in any case after the configured time to live,
+ * which bounds staleness if a notification is lost. When full, the least recently matched entry is evicted.</p>
+ *
+ * <p>A document is read from Redis before it is put, so a notification handled in between would invalidate nothing
+ * and leave the stale document cached. Every invalidation therefore takes the next generation and a put carries
+ * the {@link #stamp()} taken before the read: it is dropped if its key, or the whole cache, was invalidated since.
+ * The generations of the last {@value #RETAINED_INVALIDATIONS} invalidations are kept, a put older than those
+ * is dropped as well.</p>
+ */
+final class NearCache implements KeyspaceInvalidator.Target {
+
+    static final int RETAINED_INVALIDATIONS = 10_000;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final MetricType metricType;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Long> invalidations = new ConcurrentHashMap<>();
+    private volatile long clearedAt;
+
+    NearCache(int maxSize, Duration ttl, MetricType metricType, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.metricType = metricType;
+        this.clock = clock;
+    }
+
+    /**
+     * @param namespace namespace the match must belong to, or null for any
+     * @return the closest live entry with its similarity score
+     */
+    Optional<RedisVectorStore.Candidate> nearest(String namespace, float[] vector) {
+        long now = clock.millis();
+        String bestId = null;
+        Entry best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (var entry : entries.entrySet()) {
+            var candidate = entry.getValue();
+            if (candidate.expiresAt <= now
+                    || (namespace != null && !Objects.equals(namespace, candidate.document.namespace()))
+                    || candidate.document.vector().length != vector.length) {
+                continue;
+            }
+            double distance = metricType.distance(vector, candidate.document.vector());
+            if (distance < bestDistance) {
+                bestId = entry.getKey();
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        if (best == null) {
+            return Optional.empty();
+        }
+        best.lastMatchedAt = now;
+        return Optional.of(new RedisVectorStore.Candidate(bestId, metricType.similarity(bestDistance), null, best.document));
+    }
+
+    /**
+     * @return the stamp to put a document read from Redis from now on with
+     */
+    long stamp() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a document read from Redis, unless its key was invalidated since the stamp was taken.
+     */
+    void put(String id, VectorDocument document, long stamp) {
+        long now = clock.millis();
+        var entry = new Entry(document, now + ttlMillis, now);
+        entries.put(id, entry);
+        // checked after the put: an invalidation racing with it either is seen here or removes the entry itself
+        if (invalidatedSince(id, stamp)) {
+            entries.remove(id, entry);
+            return;
+        }
+        if (entries.size() > maxSize) {
+            evict(now);
+        }
+    }
+
+    void invalidate(String id) {
+        long invalidatedAt = generation.incrementAndGet();
+        invalidations.merge(id, invalidatedAt, Math::max);
+        if (invalidations.size() > 2 * RETAINED_INVALIDATIONS) {
+            invalidations.values().removeIf(other -> other <= invalidatedAt - RETAINED_INVALIDATIONS);
+        }
+        entries.remove(id);
+    }
+
+    void clear() {
+        clearedAt = generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public void resubscribed() {
+        clear();
+    }
+
+    @Override
+    public void changed(String id, String event) {
+        invalidate(id);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private boolean invalidatedSince(String id, long stamp) {
+        // the invalidations of a stamp this old may have been forgotten
+        if (stamp < clearedAt || stamp < generation.get() - RETAINED_INVALIDATIONS) {
+            return true;
+        }
+        var invalidatedAt = invalidations.get(id);
+        return invalidatedAt != null && invalidatedAt > stamp;
+    }
+
+    private synchronized void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        while (entries.size() > maxSize) {
+            entries.entrySet().stream()
+                    .min((first, second) -> Long.compare(first.getValue().lastMatchedAt, second.getValue().lastMatchedAt))
+                    .ifPresent(eldest -> entries.remove(eldest.getKey(), eldest.getValue()));
+        }
+    }
+
+    private static final class Entry {
+
+        private final VectorDocument document;
+        private final long expiresAt;
+        private volatile long lastMatchedAt;
+
+        private Entry(VectorDocument document, long expiresAt, long lastMatchedAt) {
+            this.document = document;
+            this.expiresAt = expiresAt;
+            this.lastMatchedAt = lastMatchedAt;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.PipeliningBase;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.search.Document;
+import redis.clients.jedis.search.FTSearchParams;
+
+/**
+ * Writes {@link VectorDocument}s in one of the {@link RedisVectorStoreProperties.StorageType}s and reads them back from search results.
+ */
+interface RedisDocumentCodec {
+
+    void write(UnifiedJedis client, String key, VectorDocument document);
+
+    void write(PipeliningBase pipeline, String key, VectorDocument document);
+
+    /**
+     * The command that {@link #write(PipeliningBase, String, VectorDocument)} sends, for clients other than Jedis.
+     */
+    CommandArguments writeCommand(String key, VectorDocument document);
+
+    /**
+     * The command reading back the whole document stored at the key, in the form {@link #read(Document)} expects.
+     * Its result is null when the key does not exist.
+     */
+    CommandObject<Document> readCommand(String key);
+
+    /**
+     * Adds the fields needed by {@link #read(Document)} to a search.
+     */
+    FTSearchParams returnFields(FTSearchParams params);
+
+    VectorDocument read(Document document);
+
+    static RedisDocumentCodec of(RedisVectorStoreProperties properties) {
+        if (properties.getValueCompression() != RedisVectorStoreProperties.ValueCompression.NONE
+                && properties.getStorageType() != RedisVectorStoreProperties.StorageType.HASH) {
+            throw new IllegalArgumentException("value compression requires HASH storage, actual=" + properties.getStorageType());
+        }
+        return switch (properties.getStorageType()) {
+            case JSON -> JsonDocumentCodec.INSTANCE;
+            case HASH -> new HashDocumentCodec(properties.getVectorType(), ValueCompressor.of(properties));
+        };
+    }
+
+    static RedisDocumentCodec of(RedisVectorStoreProperties.StorageType storageType,
+                                 RedisVectorStoreProperties.VectorType vectorType) {
+        return switch (storageType) {
+            case JSON -> JsonDocumentCodec.INSTANCE;
+            case HASH -> new HashDocumentCodec(vectorType);
+        };
+    }
+}
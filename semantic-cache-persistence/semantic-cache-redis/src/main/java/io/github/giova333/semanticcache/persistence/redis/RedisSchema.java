@@ -1,18 +1,23 @@
 package io.github.giova333.semanticcache.persistence.redis;
 
 
+import io.github.giova333.semanticcache.core.MetricType;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import redis.clients.jedis.search.IndexDataType;
 import redis.clients.jedis.search.schemafields.SchemaField;
+import redis.clients.jedis.search.schemafields.TagField;
 import redis.clients.jedis.search.schemafields.TextField;
 import redis.clients.jedis.search.schemafields.VectorField;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Data
@@ -27,27 +32,182 @@ class RedisSchema {
     static final String VECTOR_FIELD_NAME = "vector";
     static final String KEY_FIELD_NAME = "key";
     static final String VALUE_FIELD_NAME = "value";
+    static final String COMPRESSED_VALUE_FIELD_NAME = "value_deflate";
+    static final String NAMESPACE_FIELD_NAME = "namespace";
 
     String indexName;
     int vectorDimensionality;
     MetricType metricType;
     VectorField.VectorAlgorithm vectorAlgorithm;
+    RedisVectorStoreProperties.StorageType storageType;
+    RedisVectorStoreProperties.VectorType vectorType;
+    RedisVectorStoreProperties.SchemaMode schemaMode;
+    int initialCapacity;
+    int hnswM;
+    int hnswEfConstruction;
+
+    IndexDataType indexDataType() {
+        return storageType == RedisVectorStoreProperties.StorageType.HASH ? IndexDataType.HASH : IndexDataType.JSON;
+    }
 
     SchemaField[] toSchemaFields() {
+        var fieldPrefix = storageType == RedisVectorStoreProperties.StorageType.HASH ? "" : JSON_PATH_PREFIX;
         Map<String, Object> vectorAttrs = new HashMap<>();
         vectorAttrs.put("DIM", vectorDimensionality);
         vectorAttrs.put("DISTANCE_METRIC", metricType.name());
-        vectorAttrs.put("TYPE", "FLOAT32");
-        vectorAttrs.put("INITIAL_CAP", 5);
+        vectorAttrs.put("TYPE", vectorType.name());
+        if (initialCapacity > 0) {
+            vectorAttrs.put("INITIAL_CAP", initialCapacity);
+        }
+        if (vectorAlgorithm == VectorField.VectorAlgorithm.HNSW) {
+            if (hnswM > 0) {
+                vectorAttrs.put("M", hnswM);
+            }
+            if (hnswEfConstruction > 0) {
+                vectorAttrs.put("EF_CONSTRUCTION", hnswEfConstruction);
+            }
+        }
         List<SchemaField> fields = new ArrayList<>();
-        fields.add(TextField.of(JSON_PATH_PREFIX + VALUE_FIELD_NAME).as(VALUE_FIELD_NAME).weight(1.0));
-        fields.add(TextField.of(JSON_PATH_PREFIX + KEY_FIELD_NAME).as(KEY_FIELD_NAME).weight(1.0));
+        if (schemaMode != RedisVectorStoreProperties.SchemaMode.LEAN) {
+            fields.add(TextField.of(fieldPrefix + VALUE_FIELD_NAME).as(VALUE_FIELD_NAME).weight(1.0));
+            fields.add(TextField.of(fieldPrefix + KEY_FIELD_NAME).as(KEY_FIELD_NAME).weight(1.0));
+        }
+        fields.add(namespaceField());
         fields.add(VectorField.builder()
-                .fieldName(JSON_PATH_PREFIX + VECTOR_FIELD_NAME)
+                .fieldName(fieldPrefix + VECTOR_FIELD_NAME)
                 .algorithm(vectorAlgorithm)
                 .attributes(vectorAttrs)
                 .as(VECTOR_FIELD_NAME)
                 .build());
         return fields.toArray(new SchemaField[0]);
     }
+
+    /**
+     * The TAG field lookups of a namespace filter on, added with {@code FT.ALTER} to indexes created before namespaces.
+     */
+    SchemaField namespaceField() {
+        var fieldPrefix = storageType == RedisVectorStoreProperties.StorageType.HASH ? "" : JSON_PATH_PREFIX;
+        return TagField.of(fieldPrefix + NAMESPACE_FIELD_NAME).as(NAMESPACE_FIELD_NAME).caseSensitive();
+    }
+
+    /**
+     * @param info the reply of {@code FT.INFO} as field name and value pairs
+     * @return false for an index created before namespaces
+     */
+    static boolean hasNamespaceField(Map<String, Object> info) {
+        return attributes(info).containsKey(NAMESPACE_FIELD_NAME);
+    }
+
+    /**
+     * Fails if an index created earlier under the same name does not match this schema, as Redis keeps using it
+     * and ignores the changed configuration. Settings that {@code FT.INFO} of the running Redis version does not report,
+     * such as the vector parameters before RediSearch 2.10, cannot be checked.
+     *
+     * @param info the reply of {@code FT.INFO} as field name and value pairs
+     */
+    void checkMatches(Map<String, Object> info) {
+        var differences = differencesFrom(info);
+        if (!differences.isEmpty()) {
+            throw new IllegalStateException(("index %s does not match the configuration: %s. "
+                    + "Drop it with FT.DROPINDEX or configure another index name").formatted(indexName, String.join(", ", differences)));
+        }
+    }
+
+    List<String> differencesFrom(Map<String, Object> info) {
+        var differences = new ArrayList<String>();
+        var definition = pairs(info.get("index_definition"));
+        compare(differences, "storage type", indexDataType().name(), definition.get("key_type"));
+
+        var attributes = attributes(info);
+        boolean fullText = attributes.containsKey(KEY_FIELD_NAME) || attributes.containsKey(VALUE_FIELD_NAME);
+        if (fullText != (schemaMode != RedisVectorStoreProperties.SchemaMode.LEAN)) {
+            differences.add("schema mode expected=%s, actual=%s".formatted(schemaMode,
+                    fullText ? RedisVectorStoreProperties.SchemaMode.FULL_TEXT : RedisVectorStoreProperties.SchemaMode.LEAN));
+        }
+        var vector = attributes.get(VECTOR_FIELD_NAME);
+        if (vector == null) {
+            differences.add("the vector field is missing");
+            return differences;
+        }
+        compare(differences, "vector algorithm", vectorAlgorithm.name(), vector.get("algorithm"));
+        compare(differences, "vector type", vectorType.name(), vector.get("data_type"));
+        compare(differences, "vector dimensionality", String.valueOf(vectorDimensionality), vector.get("dim"));
+        compare(differences, "metric type", metricType.name(), vector.get("distance_metric"));
+        if (vectorAlgorithm == VectorField.VectorAlgorithm.HNSW) {
+            if (hnswM > 0) {
+                compare(differences, "HNSW M", String.valueOf(hnswM), vector.get("m"));
+            }
+            if (hnswEfConstruction > 0) {
+                compare(differences, "HNSW EF_CONSTRUCTION", String.valueOf(hnswEfConstruction), vector.get("ef_construction"));
+            }
+        }
+        return differences;
+    }
+
+    private static Map<String, Map<String, Object>> attributes(Map<String, Object> info) {
+        var attributes = new HashMap<String, Map<String, Object>>();
+        if (info.get("attributes") instanceof List<?> list) {
+            list.forEach(attribute -> {
+                var fields = pairs(attribute);
+                attributes.put(text(fields.get("attribute")), fields);
+            });
+        }
+        return attributes;
+    }
+
+    /**
+     * @return the field name and value pairs of a flat reply list, field names lower-cased
+     */
+    static Map<String, Object> pairs(Object reply) {
+        Map<String, Object> pairs = new HashMap<>();
+        if (reply instanceof List<?> list) {
+            for (int i = 0; i + 1 < list.size(); i += 2) {
+                pairs.put(text(list.get(i)).toLowerCase(Locale.ROOT), list.get(i + 1));
+            }
+        }
+        return pairs;
+    }
+
+    private static void compare(List<String> differences, String setting, String expected, Object actual) {
+        // not reported by this version of Redis
+        if (actual == null) {
+            return;
+        }
+        if (!expected.equalsIgnoreCase(text(actual))) {
+            differences.add("%s expected=%s, actual=%s".formatted(setting, expected, text(actual)));
+        }
+    }
+
+    private static String text(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    /**
+     * @return a query expression matching the documents of the namespace, or all documents for a null namespace
+     */
+    static String namespaceFilter(String namespace) {
+        if (namespace == null) {
+            return "*";
+        }
+        checkNamespace(namespace);
+        var escaped = new StringBuilder(namespace.length() + 16);
+        for (int i = 0; i < namespace.length(); i++) {
+            char c = namespace.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return "@" + NAMESPACE_FIELD_NAME + ":{" + escaped + "}";
+    }
+
+    /**
+     * Commas separate the values of a TAG field, a namespace containing one could not be matched as a whole.
+     */
+    static String checkNamespace(String namespace) {
+        if (namespace.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("namespace must not contain a comma, actual=" + namespace);
+        }
+        return namespace;
+    }
 }
@@ -1,57 +1,130 @@
 package io.github.giova333.semanticcache.persistence.redis;
 
-import com.google.gson.Gson;
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
 import io.github.giova333.semanticcache.core.VectorDocument;
 import io.github.giova333.semanticcache.core.VectorStore;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPooled;
-import redis.clients.jedis.json.Path2;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.args.SortingOrder;
 import redis.clients.jedis.search.Document;
 import redis.clients.jedis.search.FTCreateParams;
-import redis.clients.jedis.search.IndexDataType;
-import redis.clients.jedis.search.IndexDefinition;
-import redis.clients.jedis.search.Query;
+import redis.clients.jedis.search.FTSearchParams;
 import redis.clients.jedis.search.SearchResult;
+import redis.clients.jedis.search.schemafields.VectorField;
 
+import java.time.Clock;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
 
 import static java.lang.String.format;
-import static redis.clients.jedis.search.IndexDefinition.Type.JSON;
-import static redis.clients.jedis.search.RediSearchUtil.toByteArray;
 
+@Slf4j
 @FieldDefaults(makeFinal = true, level = lombok.AccessLevel.PRIVATE)
-public class RedisVectorStore implements VectorStore {
+public class RedisVectorStore implements VectorStore, AutoCloseable {
 
-    private static final Gson GSON = new Gson();
+    private static final String KNN_QUERY = format("=>[ KNN 1 @%s $BLOB AS %s ]",
+            RedisSchema.VECTOR_FIELD_NAME, RedisSchema.SCORE_FIELD_NAME);
+    private static final String TUNED_KNN_QUERY = format("=>[ KNN 1 @%s $BLOB EF_RUNTIME $EF AS %s ]",
+            RedisSchema.VECTOR_FIELD_NAME, RedisSchema.SCORE_FIELD_NAME);
+    private static final String RANGE_QUERY = format("@%s:[VECTOR_RANGE $RADIUS $BLOB]=>{$YIELD_DISTANCE_AS: %s}",
+            RedisSchema.VECTOR_FIELD_NAME, RedisSchema.SCORE_FIELD_NAME);
+    private static final int MIGRATION_BATCH_SIZE = 500;
 
     JedisPooled client;
+    JedisPooled readClient;
     RedisSchema redisSchema;
+    RedisDocumentCodec codec;
     Supplier<UUID> idGenerator;
     RedisVectorStoreProperties properties;
+    SemanticCacheInstrumentation instrumentation;
+    NearCache nearCache;
+    KeyspaceInvalidator keyspaceInvalidator;
+    EvictionSweeper evictionSweeper;
+    TtlRefresher ttlRefresher;
+    boolean mayReplace;
 
+    /**
+     * @param idGenerator ids of new documents, used with {@code RANDOM} document ids only
+     */
     public RedisVectorStore(RedisVectorStoreProperties properties,
-                            Supplier<UUID> idGenerator) {
+                            Supplier<UUID> idGenerator,
+                            SemanticCacheInstrumentation instrumentation) {
         this.redisSchema = RedisSchema.builder()
                 .vectorDimensionality(properties.getVectorDimensionality())
                 .vectorAlgorithm(properties.getVectorAlgorithm())
                 .indexName(properties.getIndexName())
                 .metricType(properties.getMetricType())
+                .storageType(properties.getStorageType())
+                .vectorType(properties.getVectorType())
+                .schemaMode(properties.getSchemaMode())
+                .initialCapacity(properties.getInitialCapacity())
+                .hnswM(properties.getHnswM())
+                .hnswEfConstruction(properties.getHnswEfConstruction())
                 .build();
-        this.client = properties.getUser() == null
-                ? new JedisPooled(properties.getHost(), properties.getPort())
-                : new JedisPooled(properties.getHost(), properties.getPort(), properties.getUser(), properties.getPassword());
+        this.codec = RedisDocumentCodec.of(properties);
+        this.client = connect(properties.getHost(), properties.getPort(), properties);
+        this.readClient = properties.getReplicaHost() == null
+                ? client
+                : connect(properties.getReplicaHost(), properties.getReplicaPort(), properties);
         this.idGenerator = idGenerator;
         this.properties = properties;
+        this.instrumentation = instrumentation;
+        this.mayReplace = properties.getDocumentIds() == RedisVectorStoreProperties.DocumentIdStrategy.KEY_HASH
+                || properties.getDeduplicationThreshold() > 0;
 
-        if (!isIndexExist(properties.getIndexName())) {
-            createIndex(properties.getIndexName());
+        // everything started before a failure is stopped again, as the caller gets no store to close
+        KeyspaceInvalidator startedInvalidator = null;
+        EvictionSweeper startedSweeper = null;
+        TtlRefresher startedRefresher = null;
+        try {
+            if (isIndexExist(properties.getIndexName())) {
+                var info = client.ftInfo(properties.getIndexName());
+                redisSchema.checkMatches(info);
+                if (!RedisSchema.hasNamespaceField(info)) {
+                    addNamespaceField(properties.getIndexName());
+                }
+            } else {
+                createIndex(properties.getIndexName());
+            }
+            this.nearCache = properties.getNearCacheMaxSize() > 0
+                    ? new NearCache(properties.getNearCacheMaxSize(), properties.getNearCacheTtl(), properties.getMetricType(), Clock.systemUTC())
+                    : null;
+            if (nearCache != null) {
+                startedInvalidator = startKeyspaceInvalidator(nearCache, properties, "semantic-cache-near-cache-invalidator");
+            }
+            if (properties.getMaxEntries() > 0) {
+                startedSweeper = startEvictionSweeper(client, properties);
+            }
+            if (properties.getSlidingTtl() != null) {
+                startedRefresher = startTtlRefresher(client, properties);
+            }
+        } catch (RuntimeException e) {
+            if (startedSweeper != null) {
+                startedSweeper.close();
+            }
+            if (startedInvalidator != null) {
+                startedInvalidator.close();
+            }
+            closeClients();
+            throw e;
         }
+        this.keyspaceInvalidator = startedInvalidator;
+        this.evictionSweeper = startedSweeper;
+        this.ttlRefresher = startedRefresher;
+    }
+
+    public RedisVectorStore(RedisVectorStoreProperties properties,
+                            Supplier<UUID> idGenerator) {
+        this(properties, idGenerator, SemanticCacheInstrumentation.NOOP);
     }
 
     public RedisVectorStore(RedisVectorStoreProperties properties) {
@@ -60,70 +133,411 @@ public class RedisVectorStore implements VectorStore {
 
     @Override
     public void save(VectorDocument document) {
-        var key = RedisSchema.PREFIX + idGenerator.get();
-        saveInternal(key, document);
+        write(List.of(document), null);
     }
 
     @Override
     public void save(VectorDocument document, Duration ttl) {
-        var key = RedisSchema.PREFIX + idGenerator.get();
-        saveInternal(key, document);
-        client.expire(key, (int) ttl.getSeconds());
+        write(List.of(document), ttl);
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        double score = properties.getMetricType().similarity(properties.getMetricType().distance(vector, otherVector));
+        return score >= properties.getSimilarityThreshold();
+    }
+
+    /**
+     * Saves all documents in a single transaction, so the whole batch costs one round trip.
+     */
+    @Override
+    public void saveAll(List<VectorDocument> documents) {
+        write(documents, null);
+    }
+
+    /**
+     * Saves all documents and sets their expiration in a single transaction, so the whole batch costs one round trip.
+     */
+    @Override
+    public void saveAll(List<VectorDocument> documents, Duration ttl) {
+        write(documents, ttl);
     }
 
     @Override
     public Optional<VectorDocument> similaritySearch(float[] queryVector) {
-        String queryTemplate = "*=>[ KNN 1 @%s $BLOB AS %s ]";
-        var returnFields = List.of(
-                RedisSchema.VECTOR_FIELD_NAME,
-                RedisSchema.KEY_FIELD_NAME,
-                RedisSchema.VALUE_FIELD_NAME,
-                RedisSchema.SCORE_FIELD_NAME
-        );
-
-        Query query = new Query(format(queryTemplate, RedisSchema.VECTOR_FIELD_NAME, RedisSchema.SCORE_FIELD_NAME))
-                .addParam("BLOB", toByteArray(queryVector))
-                .returnFields(returnFields.toArray(new String[0]))
-                .setSortBy(RedisSchema.SCORE_FIELD_NAME, true)
+        return similaritySearch(null, queryVector);
+    }
+
+    /**
+     * Runs a hybrid query that pre-filters on the namespace TAG field, so KNN only considers documents of the namespace.
+     */
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] queryVector) {
+        return accept(nearest(namespace, queryVector));
+    }
+
+    /**
+     * Sends all KNN queries through a single pipeline, so the whole batch costs one round trip.
+     */
+    @Override
+    public List<Optional<VectorDocument>> similaritySearchAll(List<float[]> queryVectors) {
+        return similaritySearchAll(null, queryVectors);
+    }
+
+    /**
+     * Sends all KNN queries through a single pipeline, so the whole batch costs one round trip.
+     */
+    @Override
+    public List<Optional<VectorDocument>> similaritySearchAll(String namespace, List<float[]> queryVectors) {
+        return nearestAll(namespace, queryVectors).stream()
+                .map(this::accept)
+                .toList();
+    }
+
+    /**
+     * Moves the documents of an index created with {@code JSON} storage into this store and drops that index,
+     * documents keep their remaining time to live. This store must use {@code HASH} storage under a different index name.
+     * Documents that are not migrated yet are not found by lookups, which only causes cache misses.
+     *
+     * @param jsonIndexName the name of the index to migrate from
+     */
+    public void migrateFromJsonIndex(String jsonIndexName) {
+        if (properties.getStorageType() != RedisVectorStoreProperties.StorageType.HASH) {
+            throw new IllegalStateException("migration requires HASH storage, actual=" + properties.getStorageType());
+        }
+        if (jsonIndexName.equals(redisSchema.getIndexName())) {
+            throw new IllegalArgumentException("migration requires a new index name, actual=" + jsonIndexName);
+        }
+        if (!isIndexExist(jsonIndexName)) {
+            return;
+        }
+        var jsonCodec = RedisDocumentCodec.of(RedisVectorStoreProperties.StorageType.JSON, properties.getVectorType());
+        var batchParams = jsonCodec.returnFields(FTSearchParams.searchParams())
+                .limit(0, MIGRATION_BATCH_SIZE)
                 .dialect(2);
 
-        SearchResult result = client.ftSearch(redisSchema.getIndexName(), query);
-        var documents = result.getDocuments();
+        // migrated documents leave the JSON index, so the first page always holds the next batch
+        List<Document> batch;
+        while (!(batch = client.ftSearch(jsonIndexName, "*", batchParams).getDocuments()).isEmpty()) {
+            var ttls = new ArrayList<Response<Long>>(batch.size());
+            try (var pipeline = client.pipelined()) {
+                batch.forEach(document -> ttls.add(pipeline.pttl(document.getId())));
+                pipeline.sync();
+            }
+            try (var transaction = client.multi()) {
+                for (int i = 0; i < batch.size(); i++) {
+                    var document = batch.get(i);
+                    long ttl = ttls.get(i).get();
+                    transaction.del(document.getId());
+                    if (notExpired(document) && ttl != -2) {
+                        codec.write(transaction, document.getId(), jsonCodec.read(document));
+                        if (ttl > 0) {
+                            transaction.pexpire(document.getId(), ttl);
+                        }
+                    }
+                }
+                transaction.exec();
+            }
+        }
+        client.ftDropIndex(jsonIndexName);
+    }
+
+    static String similarityQuery(RedisVectorStoreProperties properties, String namespace) {
+        if (properties.getSearchMode() == RedisVectorStoreProperties.SearchMode.RANGE) {
+            return namespace == null ? RANGE_QUERY : RedisSchema.namespaceFilter(namespace) + " " + RANGE_QUERY;
+        }
+        return RedisSchema.namespaceFilter(namespace) + (hasEfRuntime(properties) ? TUNED_KNN_QUERY : KNN_QUERY);
+    }
+
+    /**
+     * @param threshold the similarity a document needs, sent as the radius of {@code RANGE} queries
+     */
+    static FTSearchParams similarityParams(RedisDocumentCodec codec, RedisVectorStoreProperties properties,
+                                           float[] queryVector, double threshold) {
+        var params = codec.returnFields(FTSearchParams.searchParams())
+                .returnFields(RedisSchema.SCORE_FIELD_NAME)
+                .addParam("BLOB", VectorEncoding.encode(properties.getVectorType(), queryVector))
+                .sortBy(RedisSchema.SCORE_FIELD_NAME, SortingOrder.ASC)
+                .dialect(2);
+        if (properties.getSearchMode() == RedisVectorStoreProperties.SearchMode.RANGE) {
+            double radius = properties.getMetricType().maxDistance(threshold);
+            // only the nearest document in range is used, like KNN 1
+            params.addParam("RADIUS", Math.max(0, Math.min(radius, Double.MAX_VALUE)))
+                    .limit(0, 1);
+        } else if (hasEfRuntime(properties)) {
+            params.addParam("EF", properties.getHnswEfRuntime());
+        }
+        return params;
+    }
+
+    private static boolean hasEfRuntime(RedisVectorStoreProperties properties) {
+        return properties.getHnswEfRuntime() > 0 && properties.getVectorAlgorithm() == VectorField.VectorAlgorithm.HNSW;
+    }
+
+    private FTSearchParams similarityParams(float[] queryVector, double threshold) {
+        return similarityParams(codec, properties, queryVector, threshold);
+    }
+
+    /**
+     * Finds the nearest live document regardless of the similarity threshold, to be passed to {@link #accept(Optional)}.
+     */
+    Optional<Candidate> nearest(String namespace, float[] queryVector) {
+        var nearCached = nearCached(namespace, queryVector);
+        return nearCached.isPresent() ? nearCached : searchNearest(namespace, queryVector);
+    }
+
+    /**
+     * Like {@link #nearest(String, float[])} without looking up the near-cache.
+     */
+    Optional<Candidate> searchNearest(String namespace, float[] queryVector) {
+        long stamp = nearCacheStamp();
+        SearchResult result = readClient.ftSearch(redisSchema.getIndexName(), similarityQuery(properties, namespace),
+                similarityParams(queryVector, properties.getSimilarityThreshold()));
+        return nearest(result).map(candidate -> candidate.stamped(stamp));
+    }
+
+    /**
+     * Finds the nearest live document of every vector through a single pipeline.
+     */
+    List<Optional<Candidate>> nearestAll(String namespace, List<float[]> queryVectors) {
+        if (queryVectors.isEmpty()) {
+            return List.of();
+        }
+        var query = similarityQuery(properties, namespace);
+        long stamp = nearCacheStamp();
+        var results = new ArrayList<Optional<Candidate>>(queryVectors.size());
+        var responses = new ArrayList<Response<SearchResult>>(queryVectors.size());
+        try (var pipeline = readClient.pipelined()) {
+            for (float[] queryVector : queryVectors) {
+                var nearCached = nearCached(namespace, queryVector);
+                results.add(nearCached);
+                responses.add(nearCached.isPresent()
+                        ? null
+                        : pipeline.ftSearch(redisSchema.getIndexName(), query,
+                        similarityParams(queryVector, properties.getSimilarityThreshold())));
+            }
+            pipeline.sync();
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            if (responses.get(i) != null) {
+                results.set(i, nearest(responses.get(i).get()).map(candidate -> candidate.stamped(stamp)));
+            }
+        }
+        return results;
+    }
 
-        return documents.stream()
-                .filter(this::notExpired)
+    /**
+     * Applies the similarity threshold to the nearest document and decodes it if it passes.
+     */
+    Optional<VectorDocument> accept(Optional<Candidate> candidate) {
+        return candidate
                 .filter(this::matchesSimilarityThreshold)
-                .map(this::toVectorDocument)
-                .findFirst();
+                .map(this::hit);
     }
 
-    private VectorDocument toVectorDocument(Document doc) {
-        return VectorDocument.builder()
-                .vector(GSON.fromJson(doc.getString(RedisSchema.VECTOR_FIELD_NAME), float[].class))
-                .key(doc.getString(RedisSchema.KEY_FIELD_NAME))
-                .value(doc.getString(RedisSchema.VALUE_FIELD_NAME))
-                .build();
+    /**
+     * Looks up the near-cache only, so the sharded store can check every shard locally before querying any of them.
+     */
+    Optional<Candidate> nearCached(String namespace, float[] queryVector) {
+        return nearCache == null
+                ? Optional.empty()
+                : nearCache.nearest(namespace, queryVector).filter(candidate -> candidate.score() >= properties.getSimilarityThreshold());
+    }
+
+    private long nearCacheStamp() {
+        return nearCache == null ? 0 : nearCache.stamp();
+    }
+
+    private VectorDocument hit(Candidate candidate) {
+        matched(candidate.id());
+        return decode(candidate);
+    }
+
+    /**
+     * Records a match of the document for eviction and sliding expiration, also for matches found outside this store.
+     */
+    void matched(String id) {
+        if (evictionSweeper != null) {
+            evictionSweeper.matched(id);
+        }
+        if (ttlRefresher != null) {
+            ttlRefresher.matched(id);
+        }
+    }
+
+    private VectorDocument decode(Candidate candidate) {
+        if (candidate.decoded() != null) {
+            return candidate.decoded();
+        }
+        var document = codec.read(candidate.document());
+        if (nearCache != null) {
+            nearCache.put(candidate.id(), document, candidate.nearCacheStamp());
+        }
+        return document;
+    }
+
+    private Optional<Candidate> nearest(SearchResult result) {
+        return nearest(result, properties.getMetricType(), instrumentation);
+    }
+
+    /**
+     * Turns a search result into the nearest live document, reporting expired documents to the instrumentation.
+     */
+    static Optional<Candidate> nearest(SearchResult result, MetricType metricType, SemanticCacheInstrumentation instrumentation) {
+        var documents = result.getDocuments();
+        var liveDocuments = documents.stream()
+                .filter(RedisVectorStore::notExpired)
+                .toList();
+        if (liveDocuments.size() < documents.size()) {
+            instrumentation.expiredDocumentsFiltered(documents.size() - liveDocuments.size());
+        }
+        // documents are sorted by distance, so the first one is the nearest
+        return liveDocuments.stream()
+                .findFirst()
+                .map(document -> new Candidate(document.getId(),
+                        metricType.similarity(Double.parseDouble(document.getString(RedisSchema.SCORE_FIELD_NAME))),
+                        document, null));
     }
 
     /**
      * Redis can temporarily return expired document. The expired document have not fields just id.
      */
-    private boolean notExpired(Document document) {
+    private static boolean notExpired(Document document) {
         return document.hasProperty(RedisSchema.VECTOR_FIELD_NAME);
     }
 
-    private boolean matchesSimilarityThreshold(Document doc) {
-        double score = (2 - Double.parseDouble(doc.getString(RedisSchema.SCORE_FIELD_NAME))) / 2;
-        return score >= properties.getSimilarityThreshold();
+    private boolean matchesSimilarityThreshold(Candidate candidate) {
+        instrumentation.bestMatchScore(candidate.score());
+        return candidate.score() >= properties.getSimilarityThreshold();
+    }
+
+    private void write(List<VectorDocument> documents, Duration ttl) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        var keys = keysOf(documents);
+        // a transaction, so a document is never visible without its time to live, in a single round trip
+        try (var transaction = client.multi()) {
+            for (int i = 0; i < documents.size(); i++) {
+                var key = keys.get(i);
+                if (mayReplace) {
+                    // the replaced document may have a time to live or, with hash storage, its value in the other field
+                    transaction.del(key);
+                }
+                codec.write(transaction, key, documents.get(i));
+                if (ttl != null) {
+                    transaction.pexpire(key, ttl.toMillis());
+                }
+            }
+            transaction.exec();
+        }
+        if (evictionSweeper != null) {
+            keys.forEach(ttl == null ? evictionSweeper::saved : evictionSweeper::savedWithTtl);
+        }
+    }
+
+    /**
+     * Picks the Redis key of every document, the key of its near-duplicate if the deduplication check finds one.
+     */
+    private List<String> keysOf(List<VectorDocument> documents) {
+        var keys = new ArrayList<String>(documents.size());
+        for (VectorDocument document : documents) {
+            keys.add(RedisSchema.PREFIX + (properties.getDocumentIds() == RedisVectorStoreProperties.DocumentIdStrategy.KEY_HASH
+                    ? KeyHash.of(document.namespace(), document.key())
+                    : idGenerator.get().toString()));
+        }
+        if (properties.getDeduplicationThreshold() <= 0) {
+            return keys;
+        }
+        // reads from the primary, a replica may not have the latest writes yet
+        var responses = new ArrayList<Response<SearchResult>>(documents.size());
+        try (var pipeline = client.pipelined()) {
+            for (VectorDocument document : documents) {
+                responses.add(pipeline.ftSearch(redisSchema.getIndexName(),
+                        similarityQuery(properties, document.namespace()),
+                        similarityParams(document.vector(), properties.getDeduplicationThreshold())));
+            }
+            pipeline.sync();
+        }
+        for (int i = 0; i < documents.size(); i++) {
+            var namespace = documents.get(i).namespace();
+            // without namespace the query covers all namespaces, a match from another one must not be replaced
+            var duplicate = nearest(responses.get(i).get())
+                    .filter(candidate -> candidate.score() >= properties.getDeduplicationThreshold())
+                    .filter(candidate -> Objects.equals(namespace, codec.read(candidate.document()).namespace()));
+            if (duplicate.isPresent()) {
+                keys.set(i, duplicate.get().id());
+            }
+        }
+        return keys;
     }
 
-    private void saveInternal(String key, VectorDocument document) {
-        Map<String, Object> fields = new HashMap<>();
-        fields.put(RedisSchema.VECTOR_FIELD_NAME, document.vector());
-        fields.put(RedisSchema.KEY_FIELD_NAME, document.key());
-        fields.put(RedisSchema.VALUE_FIELD_NAME, document.value());
+    /**
+     * Stops the near-cache invalidation, eviction and sliding expiration threads and closes the connection pools.
+     * Matches collected for eviction or sliding expiration but not yet written to Redis are dropped.
+     */
+    @Override
+    public void close() {
+        if (keyspaceInvalidator != null) {
+            keyspaceInvalidator.close();
+        }
+        if (evictionSweeper != null) {
+            evictionSweeper.close();
+        }
+        if (ttlRefresher != null) {
+            ttlRefresher.close();
+        }
+        closeClients();
+    }
+
+    private void closeClients() {
+        if (readClient != client) {
+            readClient.close();
+        }
+        client.close();
+    }
+
+    /**
+     * Enables keyspace notifications if possible and subscribes the target to those of the document keys.
+     *
+     * @return the started invalidator, to be closed with the store
+     */
+    static KeyspaceInvalidator startKeyspaceInvalidator(KeyspaceInvalidator.Target target, RedisVectorStoreProperties properties, String threadName) {
+        Supplier<Jedis> connectionFactory = () -> {
+            var jedis = new Jedis(properties.getHost(), properties.getPort());
+            if (properties.getUser() != null) {
+                jedis.auth(properties.getUser(), properties.getPassword());
+            }
+            return jedis;
+        };
+        try (var jedis = connectionFactory.get()) {
+            if (properties.isEnableKeyspaceNotifications()) {
+                KeyspaceInvalidator.enableNotifications(jedis, properties.getStorageType());
+            } else {
+                KeyspaceInvalidator.checkNotifications(jedis, properties.getStorageType());
+            }
+        }
+        var keyspaceInvalidator = new KeyspaceInvalidator(target, connectionFactory, threadName);
+        keyspaceInvalidator.start();
+        return keyspaceInvalidator;
+    }
 
-        client.jsonSetWithEscape(key, Path2.of("$"), fields);
+    private static EvictionSweeper startEvictionSweeper(JedisPooled client, RedisVectorStoreProperties properties) {
+        var evictionSweeper = new EvictionSweeper(client, properties, Clock.systemUTC());
+        evictionSweeper.start(properties.getEvictionInterval().toMillis());
+        return evictionSweeper;
+    }
+
+    private static TtlRefresher startTtlRefresher(JedisPooled client, RedisVectorStoreProperties properties) {
+        var ttlRefresher = new TtlRefresher(client, properties.getSlidingTtl());
+        ttlRefresher.start();
+        return ttlRefresher;
+    }
+
+    static JedisPooled connect(String host, int port, RedisVectorStoreProperties properties) {
+        return properties.getUser() == null
+                ? new JedisPooled(host, port)
+                : new JedisPooled(host, port, properties.getUser(), properties.getPassword());
     }
 
     private boolean isIndexExist(String indexName) {
@@ -131,14 +545,41 @@ public class RedisVectorStore implements VectorStore {
         return indexes.contains(indexName);
     }
 
+    /**
+     * Adds the namespace field to an index created before namespaces. Documents written before have no namespace,
+     * so lookups of a namespace do not find them until they are written again.
+     */
+    private void addNamespaceField(String indexName) {
+        String res = client.ftAlter(indexName, List.of(redisSchema.namespaceField()));
+        if (!"OK".equals(res)) {
+            throw new IllegalStateException("alter index error, msg=" + res);
+        }
+        log.info("Added the namespace field to index {} created before namespaces", indexName);
+    }
+
     private void createIndex(String indexName) {
-        var indexDefinition = new IndexDefinition(JSON);
-        indexDefinition.setPrefixes(RedisSchema.PREFIX);
         String res = client.ftCreate(indexName, FTCreateParams.createParams()
-                .on(IndexDataType.JSON)
+                .on(redisSchema.indexDataType())
                 .addPrefix(RedisSchema.PREFIX), redisSchema.toSchemaFields());
         if (!"OK".equals(res)) {
             throw new IllegalStateException("create index error, msg=" + res);
         }
     }
+
+    /**
+     * A search result with its similarity score. Results from Redis are decoded only once they are accepted,
+     * results from the near-cache are already decoded.
+     *
+     * @param nearCacheStamp {@link NearCache#stamp()} taken before the search, to put the decoded result into the near-cache with
+     */
+    record Candidate(String id, double score, Document document, VectorDocument decoded, long nearCacheStamp) {
+
+        Candidate(String id, double score, Document document, VectorDocument decoded) {
+            this(id, score, document, decoded, 0);
+        }
+
+        Candidate stamped(long stamp) {
+            return new Candidate(id, score, document, decoded, stamp);
+        }
+    }
 }
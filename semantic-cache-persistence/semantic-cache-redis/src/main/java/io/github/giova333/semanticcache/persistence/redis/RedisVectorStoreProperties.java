@@ -1,5 +1,6 @@
 package io.github.giova333.semanticcache.persistence.redis;
 
+import io.github.giova333.semanticcache.core.MetricType;
 import io.github.giova333.semanticcache.core.SemanticCacheProperties;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -9,8 +10,13 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import redis.clients.jedis.search.schemafields.VectorField;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -18,15 +24,298 @@ public class RedisVectorStoreProperties implements SemanticCacheProperties {
     String host;
     @Builder.Default
     int port = 6379;
+    /**
+     * Optional replica of the node that serves lookups, writes always go to {@code host}.
+     */
+    String replicaHost;
+    @Builder.Default
+    int replicaPort = 6379;
     String user;
     String password;
+    /**
+     * Client used by the Spring starter, {@code LETTUCE} requires {@code io.lettuce:lettuce-core} on the classpath.
+     */
+    @Builder.Default
+    Client client = Client.JEDIS;
+    /**
+     * Number of connections the Lettuce client multiplexes commands over.
+     */
+    @Builder.Default
+    int lettuceConnections = 1;
+    /**
+     * Standalone nodes to shard documents across, each with its own index. Lookups query all of them in parallel.
+     * When empty, {@code host} is the only node.
+     */
+    @Builder.Default
+    List<Shard> shards = new ArrayList<>();
     @Builder.Default
     String indexName = "semantic-cache-index";
     int vectorDimensionality;
     @Builder.Default
     VectorField.VectorAlgorithm vectorAlgorithm = VectorField.VectorAlgorithm.HNSW;
+    /**
+     * Number of vectors the index allocates room for upfront, 0 leaves the Redis default.
+     */
+    int initialCapacity;
+    /**
+     * Maximum number of edges per node of the HNSW graph, 0 leaves the Redis default of 16.
+     * More edges improve recall at the cost of memory.
+     */
+    int hnswM;
+    /**
+     * Number of candidates considered while inserting into the HNSW graph, 0 leaves the Redis default of 200.
+     * More candidates build a better graph at the cost of slower writes.
+     */
+    int hnswEfConstruction;
+    /**
+     * Number of candidates considered by every {@code KNN} lookup, 0 leaves the Redis default of 10.
+     * More candidates improve recall at the cost of latency.
+     */
+    int hnswEfRuntime;
+    @Builder.Default
+    SearchMode searchMode = SearchMode.KNN;
     @Builder.Default
     MetricType metricType = MetricType.COSINE;
     @Builder.Default
     double similarityThreshold = 0.95;
+    @Builder.Default
+    StorageType storageType = StorageType.JSON;
+    @Builder.Default
+    VectorType vectorType = VectorType.FLOAT32;
+    @Builder.Default
+    SchemaMode schemaMode = SchemaMode.FULL_TEXT;
+    @Builder.Default
+    DocumentIdStrategy documentIds = DocumentIdStrategy.KEY_HASH;
+    /**
+     * A write whose nearest document in the same namespace is at least this similar replaces that document
+     * instead of adding a new one, at the cost of a lookup per write. 0 disables the check.
+     */
+    double deduplicationThreshold;
+    /**
+     * Number of recently matched documents kept in process to answer similar lookups without querying Redis,
+     * 0 disables the near-cache. Entries are invalidated through keyspace notifications, which need the classes
+     * {@code Kg$hxe}, plus {@code d} for {@code JSON} storage, in the server's {@code notify-keyspace-events},
+     * see {@code enableKeyspaceNotifications}.
+     */
+    int nearCacheMaxSize;
+    /**
+     * Upper bound of how long a near-cache entry is used, which bounds staleness when a notification is missed.
+     */
+    @Builder.Default
+    Duration nearCacheTtl = Duration.ofMinutes(1);
+    /**
+     * Keeps a copy of all documents in process on every node and answers lookups from it, Redis stays the source
+     * of truth. The copy is seeded with a scan of the document keys and kept current through keyspace notifications,
+     * which need the same {@code notify-keyspace-events} classes as the near-cache. Requires a single node without
+     * near-cache.
+     */
+    boolean localIndex;
+    /**
+     * How often changed documents are read back into the local index, which bounds how long a write stays invisible
+     * to lookups of other nodes. Deletes and expirations are applied as soon as they are notified.
+     */
+    @Builder.Default
+    Duration localIndexSyncInterval = Duration.ofMillis(50);
+    /**
+     * Lets the near-cache or local index change the server configuration with {@code CONFIG SET} to publish the
+     * keyspace notifications they need. The classes {@code Kg$hxe}, plus {@code d} for {@code JSON} storage, that are
+     * missing from {@code notify-keyspace-events} are appended to it, classes enabled already stay enabled and
+     * {@code A} counts as all of them. The setting applies to every client of the server and is not persisted to its
+     * configuration file. When false, the store only warns if those classes are not enabled.
+     */
+    boolean enableKeyspaceNotifications;
+    /**
+     * Documents saved with a time to live that are matched get their expiration pushed to at least this long
+     * after the match, so frequently used documents stay. Null disables sliding expiration.
+     */
+    Duration slidingTtl;
+    /**
+     * Maximum number of documents saved without a time to live per node, 0 means unbounded. A background sweeper
+     * evicts such documents past the limit, documents saved with a time to live are bounded by it instead.
+     */
+    long maxEntries;
+    @Builder.Default
+    EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    /**
+     * How often the sweeper flushes the collected hits to Redis and enforces {@code maxEntries}
+     */
+    @Builder.Default
+    Duration evictionInterval = Duration.ofSeconds(10);
+    /**
+     * Compression of the cached values, requires {@code HASH} storage.
+     */
+    @Builder.Default
+    ValueCompression valueCompression = ValueCompression.NONE;
+    /**
+     * Values shorter than this many UTF-8 bytes are stored uncompressed, as compression does not pay off for them.
+     */
+    @Builder.Default
+    int compressionThreshold = 512;
+    /**
+     * Optional preset dictionary, a file of text typical for the cached values such as concatenated sample answers.
+     * It improves the compression of values that are only a few KB long. Values must be read with the dictionary
+     * they were written with.
+     */
+    Path compressionDictionary;
+
+    public static class RedisVectorStorePropertiesBuilder {
+
+        // written out as Lombok generates no setter once the builder declares a method of that name
+        public RedisVectorStorePropertiesBuilder metricType(MetricType metricType) {
+            this.metricType$value = metricType;
+            this.metricType$set = true;
+            return this;
+        }
+
+        /**
+         * @deprecated use {@link #metricType(MetricType)} with {@link MetricType}
+         */
+        @Deprecated(forRemoval = true)
+        public RedisVectorStorePropertiesBuilder metricType(io.github.giova333.semanticcache.persistence.redis.MetricType metricType) {
+            return metricType(metricType.toCore());
+        }
+    }
+
+    /**
+     * How documents are stored in Redis
+     */
+    public enum StorageType {
+
+        /**
+         * RedisJSON documents, the vector is kept as an array of numbers
+         */
+        JSON,
+
+        /**
+         * Redis hashes, the vector is kept as a little-endian blob of {@code vectorType}.
+         * Smaller in memory and on the wire, and hits are decoded without parsing.
+         */
+        HASH
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Shard {
+        String host;
+        @Builder.Default
+        int port = 6379;
+        /**
+         * Optional replica of the shard that serves lookups
+         */
+        String replicaHost;
+        @Builder.Default
+        int replicaPort = 6379;
+    }
+
+    public enum Client {
+
+        /**
+         * {@link RedisVectorStore}, blocking calls over a connection pool with all features
+         */
+        JEDIS,
+
+        /**
+         * {@link LettuceRedisVectorStore}, non-blocking calls multiplexed over a few connections
+         */
+        LETTUCE
+    }
+
+    /**
+     * How lookups query the vector index
+     */
+    public enum SearchMode {
+
+        /**
+         * The nearest document, which is dropped on the client when it is below the similarity threshold
+         */
+        KNN,
+
+        /**
+         * A {@code VECTOR_RANGE} query with the similarity threshold converted into a radius, so Redis only
+         * returns documents that pass it and lookups that miss transfer nothing
+         */
+        RANGE
+    }
+
+    /**
+     * Fields of the documents that are indexed
+     */
+    public enum SchemaMode {
+
+        /**
+         * The vector plus the key and the value as full-text fields
+         */
+        FULL_TEXT,
+
+        /**
+         * Only the vector. Lookups are vector only, so this saves tokenizing and indexing every cached value.
+         */
+        LEAN
+    }
+
+    /**
+     * How the Redis keys of new documents are chosen
+     */
+    public enum DocumentIdStrategy {
+
+        /**
+         * A random id per write, so writing a key again adds another document
+         */
+        RANDOM,
+
+        /**
+         * A hash of the namespace and the normalized key, so writing a key again replaces its document
+         */
+        KEY_HASH
+    }
+
+    /**
+     * Which documents are evicted first once {@code maxEntries} is exceeded
+     */
+    public enum EvictionPolicy {
+
+        /**
+         * evicts the least recently saved or matched document
+         */
+        LRU,
+
+        /**
+         * evicts the least often matched document
+         */
+        LFU
+    }
+
+    public enum ValueCompression {
+
+        NONE,
+
+        /**
+         * DEFLATE at its fastest level, with the optional {@code compressionDictionary}
+         */
+        DEFLATE
+    }
+
+    /**
+     * Precision of the vectors in the index. Reduced precision types need RediSearch 2.10 or newer.
+     */
+    public enum VectorType {
+
+        /**
+         * 4 bytes per dimension
+         */
+        FLOAT32,
+
+        /**
+         * IEEE 754 half precision, 2 bytes per dimension
+         */
+        FLOAT16,
+
+        /**
+         * bfloat16, 2 bytes per dimension with the exponent range of FLOAT32 and fewer mantissa bits than FLOAT16
+         */
+        BFLOAT16
+    }
 }
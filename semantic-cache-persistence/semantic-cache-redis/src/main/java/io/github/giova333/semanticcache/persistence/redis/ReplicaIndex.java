@@ -0,0 +1,194 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.VectorDocument;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process copy of all documents of a store, keyed by their Redis key, searched exhaustively.
+ * Vectors are packed into a single array with their norms precomputed, so a lookup is a sequential scan
+ * without allocation. Slots of removed documents are reused by the next ones.
+ *
+ * <p>Documents saved with a time to live are skipped once expired, even before Redis reports the expiration.</p>
+ */
+final class ReplicaIndex {
+
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    private final int dimension;
+    private final MetricType metricType;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private float[] vectors;
+    private float[] norms;
+    private long[] expirations;
+    private VectorDocument[] documents;
+    private String[] ids;
+    private int usedSlots;
+
+    ReplicaIndex(int dimension, MetricType metricType, Clock clock) {
+        this.dimension = dimension;
+        this.metricType = metricType;
+        this.clock = clock;
+        this.vectors = new float[INITIAL_CAPACITY * dimension];
+        this.norms = new float[INITIAL_CAPACITY];
+        this.expirations = new long[INITIAL_CAPACITY];
+        this.documents = new VectorDocument[INITIAL_CAPACITY];
+        this.ids = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds or replaces the document stored at the key.
+     *
+     * @param expiresAt epoch millis the document expires at, {@link Long#MAX_VALUE} if it does not
+     */
+    void put(String id, VectorDocument document, long expiresAt) {
+        var vector = document.vector();
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("vector dimensionality mismatch, expected=%d, actual=%d"
+                    .formatted(dimension, vector.length));
+        }
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        lock.writeLock().lock();
+        try {
+            var slot = slots.get(id);
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? allocate() : freeSlots.pop();
+                slots.put(id, slot);
+            }
+            System.arraycopy(vector, 0, vectors, slot * dimension, dimension);
+            norms[slot] = (float) Math.sqrt(norm);
+            expirations[slot] = expiresAt;
+            documents[slot] = document;
+            ids[slot] = id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            var slot = slots.remove(id);
+            if (slot != null) {
+                documents[slot] = null;
+                ids[slot] = null;
+                freeSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the documents whose key is not among the given ones.
+     */
+    void retainAll(Set<String> retained) {
+        lock.writeLock().lock();
+        try {
+            List.copyOf(slots.keySet()).stream()
+                    .filter(id -> !retained.contains(id))
+                    .forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param namespace namespace the match must belong to, or null for any
+     * @return the closest live document with its similarity score
+     */
+    Optional<RedisVectorStore.Candidate> nearest(String namespace, float[] vector) {
+        if (vector.length != dimension) {
+            return Optional.empty();
+        }
+        double queryNorm = 0;
+        for (float component : vector) {
+            queryNorm += component * component;
+        }
+        queryNorm = Math.sqrt(queryNorm);
+        long now = clock.millis();
+        lock.readLock().lock();
+        try {
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int slot = 0; slot < usedSlots; slot++) {
+                var document = documents[slot];
+                if (document == null || expirations[slot] <= now
+                        || (namespace != null && !Objects.equals(namespace, document.namespace()))) {
+                    continue;
+                }
+                double distance = distance(vector, queryNorm, slot);
+                if (distance < bestDistance) {
+                    best = slot;
+                    bestDistance = distance;
+                }
+            }
+            return best < 0
+                    ? Optional.empty()
+                    : Optional.of(new RedisVectorStore.Candidate(ids[best], metricType.similarity(bestDistance), null, documents[best]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same distances as {@link MetricType#distance(float[], float[])}, reading the packed vector of the slot.
+     */
+    private double distance(float[] vector, double queryNorm, int slot) {
+        int offset = slot * dimension;
+        double sum = 0;
+        if (metricType == MetricType.L2) {
+            for (int i = 0; i < dimension; i++) {
+                double difference = vector[i] - vectors[offset + i];
+                sum += difference * difference;
+            }
+            return sum;
+        }
+        for (int i = 0; i < dimension; i++) {
+            sum += vector[i] * vectors[offset + i];
+        }
+        if (metricType == MetricType.IP) {
+            return 1 - sum;
+        }
+        return queryNorm == 0 || norms[slot] == 0 ? 1 : 1 - sum / (queryNorm * norms[slot]);
+    }
+
+    private int allocate() {
+        if (usedSlots == documents.length) {
+            int capacity = documents.length * 2;
+            vectors = Arrays.copyOf(vectors, capacity * dimension);
+            norms = Arrays.copyOf(norms, capacity);
+            expirations = Arrays.copyOf(expirations, capacity);
+            documents = Arrays.copyOf(documents, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        return usedSlots++;
+    }
+}
@@ -0,0 +1,232 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.search.Document;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link ReplicaIndex} current with the documents in Redis.
+ *
+ * <p>A resync scans all document keys, reads them back and drops the documents no longer found. It seeds the index
+ * and runs again whenever keyspace notifications may have been missed. In between, a notified key is read back
+ * by a daemon thread every sync interval, batching the changes of that interval into one pipeline per batch.
+ * Deletes, expirations and evictions remove the document at once and are read back as well, so a document being
+ * read back while deleted does not reappear.</p>
+ */
+final class ReplicaSynchronizer implements KeyspaceInvalidator.Target {
+
+    /**
+     * Reads the documents of the store from Redis.
+     */
+    interface Source {
+
+        /**
+         * @return a page of the keys matching the parameters and holding documents of the storage type
+         */
+        ScanResult<String> scan(String cursor, ScanParams params);
+
+        /**
+         * @return what is stored at every key, in the order of the keys
+         */
+        List<Stored> read(List<String> ids);
+    }
+
+    /**
+     * @param document the document, null if the key does not exist or holds another type
+     * @param ttl      remaining time to live in millis, negative if the key does not expire
+     */
+    record Stored(Document document, long ttl) {
+    }
+
+    private static final Set<String> REMOVALS = Set.of("del", "expired", "evicted", "rename_from");
+    private static final int BATCH_SIZE = 500;
+
+    private final Source source;
+    private final RedisDocumentCodec codec;
+    private final ReplicaIndex index;
+    private final int dimension;
+    private final Clock clock;
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean resyncRequested = new AtomicBoolean();
+    private final CountDownLatch subscribed = new CountDownLatch(1);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "semantic-cache-replica-synchronizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ReplicaSynchronizer(JedisPooled client, RedisVectorStoreProperties properties, ReplicaIndex index, Clock clock) {
+        this(new JedisSource(client, RedisDocumentCodec.of(properties),
+                properties.getStorageType() == RedisVectorStoreProperties.StorageType.HASH ? "hash" : "ReJSON-RL"),
+                properties, index, clock);
+    }
+
+    ReplicaSynchronizer(Source source, RedisVectorStoreProperties properties, ReplicaIndex index, Clock clock) {
+        this.source = source;
+        this.codec = RedisDocumentCodec.of(properties);
+        this.index = index;
+        this.dimension = properties.getVectorDimensionality();
+        this.clock = clock;
+    }
+
+    void start(long intervalMillis) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                if (resyncRequested.getAndSet(false)) {
+                    resync();
+                } else {
+                    flush();
+                }
+            } catch (RuntimeException e) {
+                // changes drained by the failed run are lost, the next run reads everything back
+                resyncRequested.set(true);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the daemon thread, interrupting a run in progress.
+     */
+    void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return false if keyspace notifications were not subscribed to in time
+     */
+    boolean awaitSubscription(long timeoutMillis) throws InterruptedException {
+        return subscribed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void resubscribed() {
+        resyncRequested.set(true);
+        subscribed.countDown();
+    }
+
+    @Override
+    public void changed(String id, String event) {
+        if (REMOVALS.contains(event)) {
+            index.remove(id);
+        }
+        changed.add(id);
+    }
+
+    /**
+     * Reads all documents back and drops from the index those no longer in Redis.
+     */
+    void resync() {
+        var seen = new HashSet<String>();
+        var params = new ScanParams().match(RedisSchema.PREFIX + "*").count(BATCH_SIZE);
+        var cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            var page = source.scan(cursor, params);
+            seen.addAll(page.getResult());
+            fetch(page.getResult());
+            cursor = page.getCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        index.retainAll(seen);
+    }
+
+    /**
+     * Reads back the documents notified as changed since the last flush.
+     */
+    void flush() {
+        var batch = new ArrayList<String>(BATCH_SIZE);
+        for (var id : changed) {
+            if (changed.remove(id)) {
+                batch.add(id);
+            }
+            if (batch.size() == BATCH_SIZE) {
+                fetch(batch);
+                batch.clear();
+            }
+        }
+        fetch(batch);
+    }
+
+    private void fetch(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        var stored = source.read(ids);
+        long now = clock.millis();
+        for (int i = 0; i < ids.size(); i++) {
+            var id = ids.get(i);
+            var document = stored.get(i).document();
+            if (document == null || !document.hasProperty(RedisSchema.VECTOR_FIELD_NAME)) {
+                index.remove(id);
+                continue;
+            }
+            var decoded = codec.read(document);
+            if (decoded.vector().length != dimension) {
+                // a document of another index under the same prefix
+                index.remove(id);
+                continue;
+            }
+            long ttl = stored.get(i).ttl();
+            index.put(id, decoded, ttl < 0 ? Long.MAX_VALUE : now + ttl);
+        }
+    }
+
+    /**
+     * Reads the documents with one pipeline per call.
+     */
+    private static final class JedisSource implements Source {
+
+        private final JedisPooled client;
+        private final RedisDocumentCodec codec;
+        private final String keyType;
+
+        JedisSource(JedisPooled client, RedisDocumentCodec codec, String keyType) {
+            this.client = client;
+            this.codec = codec;
+            this.keyType = keyType;
+        }
+
+        @Override
+        public ScanResult<String> scan(String cursor, ScanParams params) {
+            return client.scan(cursor, params, keyType);
+        }
+
+        @Override
+        public List<Stored> read(List<String> ids) {
+            var documents = new ArrayList<Response<Document>>(ids.size());
+            var ttls = new ArrayList<Response<Long>>(ids.size());
+            try (var pipeline = client.pipelined()) {
+                for (var id : ids) {
+                    documents.add(pipeline.executeCommand(codec.readCommand(id)));
+                    ttls.add(pipeline.pttl(id));
+                }
+                pipeline.sync();
+            }
+            var stored = new ArrayList<Stored>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Document document;
+                try {
+                    document = documents.get(i).get();
+                } catch (JedisDataException e) {
+                    // the key was replaced by one of another type
+                    document = null;
+                }
+                stored.add(new Stored(document, ttls.get(i).get()));
+            }
+            return stored;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import redis.clients.jedis.JedisPooled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * {@link VectorStore} that keeps Redis as the source of truth but answers lookups from an in-process copy
+ * of all documents, so a lookup costs no round trip. Writes go to Redis like with {@link RedisVectorStore}.
+ *
+ * <p>The copy is seeded with a scan of the document keys and follows keyspace notifications of writes, deletes,
+ * expirations and evictions, so every node converges on the content of Redis. A write becomes visible to lookups,
+ * including those of the node that made it, once its notification is read back, within {@code localIndexSyncInterval}.
+ * When the subscription is lost the copy is resynced from a new scan. Every node holds all vectors in memory
+ * and scans them on every lookup, so the store suits caches of up to a few hundred thousand documents.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReplicatedRedisVectorStore implements VectorStore, AutoCloseable {
+
+    private static final long SUBSCRIPTION_TIMEOUT_MILLIS = 10_000;
+
+    RedisVectorStore redisVectorStore;
+    ReplicaIndex index;
+    JedisPooled synchronizerClient;
+    ReplicaSynchronizer synchronizer;
+    KeyspaceInvalidator keyspaceInvalidator;
+
+    public ReplicatedRedisVectorStore(RedisVectorStoreProperties properties,
+                                      Supplier<UUID> idGenerator,
+                                      SemanticCacheInstrumentation instrumentation) {
+        if (properties.getNearCacheMaxSize() > 0 || !properties.getShards().isEmpty()) {
+            throw new IllegalArgumentException("near-cache and shards are not supported with a local index");
+        }
+        this.redisVectorStore = new RedisVectorStore(properties, idGenerator, instrumentation);
+        this.index = new ReplicaIndex(properties.getVectorDimensionality(), properties.getMetricType(), Clock.systemUTC());
+
+        JedisPooled startedClient = null;
+        ReplicaSynchronizer startedSynchronizer = null;
+        try {
+            startedClient = RedisVectorStore.connect(properties.getHost(), properties.getPort(), properties);
+            startedSynchronizer = new ReplicaSynchronizer(startedClient, properties, index, Clock.systemUTC());
+            // subscribes before the scan, so changes made during the scan are not missed
+            this.keyspaceInvalidator = RedisVectorStore.startKeyspaceInvalidator(startedSynchronizer, properties, "semantic-cache-replica-listener");
+        } catch (RuntimeException e) {
+            if (startedSynchronizer != null) {
+                startedSynchronizer.close();
+            }
+            if (startedClient != null) {
+                startedClient.close();
+            }
+            redisVectorStore.close();
+            throw e;
+        }
+        this.synchronizerClient = startedClient;
+        this.synchronizer = startedSynchronizer;
+        try {
+            if (!synchronizer.awaitSubscription(SUBSCRIPTION_TIMEOUT_MILLIS)) {
+                throw new IllegalStateException("keyspace notifications subscription timed out");
+            }
+            synchronizer.resync();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("interrupted while subscribing to keyspace notifications", e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        synchronizer.start(properties.getLocalIndexSyncInterval().toMillis());
+    }
+
+    public ReplicatedRedisVectorStore(RedisVectorStoreProperties properties,
+                                      Supplier<UUID> idGenerator) {
+        this(properties, idGenerator, SemanticCacheInstrumentation.NOOP);
+    }
+
+    public ReplicatedRedisVectorStore(RedisVectorStoreProperties properties) {
+        this(properties, UUID::randomUUID);
+    }
+
+    @Override
+    public void save(VectorDocument document) {
+        redisVectorStore.save(document);
+    }
+
+    @Override
+    public void save(VectorDocument document, Duration ttl) {
+        redisVectorStore.save(document, ttl);
+    }
+
+    @Override
+    public void saveAll(List<VectorDocument> documents) {
+        redisVectorStore.saveAll(documents);
+    }
+
+    @Override
+    public void saveAll(List<VectorDocument> documents, Duration ttl) {
+        redisVectorStore.saveAll(documents, ttl);
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        return redisVectorStore.matches(vector, otherVector);
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(float[] queryVector) {
+        return similaritySearch(null, queryVector);
+    }
+
+    /**
+     * Searches the local copy only. Matches still count for eviction and sliding expiration in Redis.
+     */
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] queryVector) {
+        return redisVectorStore.accept(index.nearest(namespace, queryVector));
+    }
+
+    /**
+     * Stops following keyspace notifications and closes the connection pools.
+     */
+    @Override
+    public void close() {
+        keyspaceInvalidator.close();
+        synchronizer.close();
+        synchronizerClient.close();
+        redisVectorStore.close();
+    }
+
+    /**
+     * @return the number of documents in the local copy, including expired ones not removed yet
+     */
+    public int localSize() {
+        return index.size();
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import io.github.giova333.semanticcache.core.VectorStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * {@link VectorStore} that shards documents across several standalone Redis nodes, each with its own index,
+ * for caches that outgrow a single node. The search module of Redis Stack cannot query across a Redis Cluster,
+ * so documents are sharded by the client.
+ *
+ * <p>A document goes to the shard picked by the hash of its key, so a rewritten key lands on the same shard.
+ * Lookups run the KNN query on all shards in parallel and keep the best scoring match; the similarity threshold is
+ * applied once to the merged result, by the shard the match comes from. Shards with a replica serve lookups from it.
+ * Changing the number of shards moves keys to other shards, which only causes misses until they are written again.
+ * The near-duplicate check of writes only looks at the shard the key goes to.</p>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ShardedRedisVectorStore implements VectorStore, AutoCloseable {
+
+    List<RedisVectorStore> shards;
+    ExecutorService executor;
+
+    public ShardedRedisVectorStore(RedisVectorStoreProperties properties,
+                                   Supplier<UUID> idGenerator,
+                                   SemanticCacheInstrumentation instrumentation) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalArgumentException("sharded store requires at least one shard");
+        }
+        this.shards = properties.getShards().stream()
+                .map(shard -> new RedisVectorStore(properties.toBuilder()
+                        .host(shard.getHost())
+                        .port(shard.getPort())
+                        .replicaHost(shard.getReplicaHost())
+                        .replicaPort(shard.getReplicaPort())
+                        .shards(List.of())
+                        .build(), idGenerator, instrumentation))
+                .toList();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "semantic-cache-redis-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ShardedRedisVectorStore(RedisVectorStoreProperties properties) {
+        this(properties, UUID::randomUUID, SemanticCacheInstrumentation.NOOP);
+    }
+
+    @Override
+    public void save(VectorDocument document) {
+        shardOf(document).save(document);
+    }
+
+    @Override
+    public void save(VectorDocument document, Duration ttl) {
+        shardOf(document).save(document, ttl);
+    }
+
+    /**
+     * Saves the documents of every shard through one pipeline per shard, with the shards written in parallel.
+     */
+    @Override
+    public void saveAll(List<VectorDocument> documents) {
+        var documentsByShard = groupByShard(documents);
+        onAllShards(shard -> {
+            shards.get(shard).saveAll(documentsByShard.get(shard));
+            return null;
+        });
+    }
+
+    /**
+     * Saves the documents of every shard through one pipeline per shard, with the shards written in parallel.
+     */
+    @Override
+    public void saveAll(List<VectorDocument> documents, Duration ttl) {
+        var documentsByShard = groupByShard(documents);
+        onAllShards(shard -> {
+            shards.get(shard).saveAll(documentsByShard.get(shard), ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<VectorDocument> similaritySearch(float[] queryVector) {
+        return similaritySearch(null, queryVector);
+    }
+
+    /**
+     * Checks the near-caches of all shards first and only queries the shards when none of them has a match.
+     */
+    @Override
+    public Optional<VectorDocument> similaritySearch(String namespace, float[] queryVector) {
+        var nearCached = new ArrayList<Optional<RedisVectorStore.Candidate>>(shards.size());
+        shards.forEach(shard -> nearCached.add(shard.nearCached(namespace, queryVector)));
+        int nearCachedShard = bestShard(nearCached);
+        if (nearCachedShard >= 0) {
+            return shards.get(nearCachedShard).accept(nearCached.get(nearCachedShard));
+        }
+        var candidates = onAllShards(shard -> shards.get(shard).searchNearest(namespace, queryVector));
+        int best = bestShard(candidates);
+        return best < 0 ? Optional.empty() : shards.get(best).accept(candidates.get(best));
+    }
+
+    @Override
+    public List<Optional<VectorDocument>> similaritySearchAll(List<float[]> queryVectors) {
+        return similaritySearchAll(null, queryVectors);
+    }
+
+    /**
+     * Sends all KNN queries through one pipeline per shard, with the shards queried in parallel.
+     */
+    @Override
+    public List<Optional<VectorDocument>> similaritySearchAll(String namespace, List<float[]> queryVectors) {
+        var resultsByShard = onAllShards(shard -> shards.get(shard).nearestAll(namespace, queryVectors));
+        var results = new ArrayList<Optional<VectorDocument>>(queryVectors.size());
+        for (int i = 0; i < queryVectors.size(); i++) {
+            int position = i;
+            var candidates = resultsByShard.stream()
+                    .map(shardResults -> shardResults.get(position))
+                    .toList();
+            int best = bestShard(candidates);
+            results.add(best < 0 ? Optional.empty() : shards.get(best).accept(candidates.get(best)));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean matches(float[] vector, float[] otherVector) {
+        return shards.get(0).matches(vector, otherVector);
+    }
+
+    /**
+     * Stops the threads querying the shards in parallel and closes every shard.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.forEach(RedisVectorStore::close);
+    }
+
+    /**
+     * @return the index of the shard with the highest scoring candidate, or -1 if no shard has one
+     */
+    private static int bestShard(List<Optional<RedisVectorStore.Candidate>> candidates) {
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int shard = 0; shard < candidates.size(); shard++) {
+            var candidate = candidates.get(shard);
+            if (candidate.isPresent() && candidate.get().score() > bestScore) {
+                best = shard;
+                bestScore = candidate.get().score();
+            }
+        }
+        return best;
+    }
+
+    private RedisVectorStore shardOf(VectorDocument document) {
+        return shards.get(shardIndex(document.key()));
+    }
+
+    private int shardIndex(String key) {
+        // spreads the low quality bits of String.hashCode before taking the modulo
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    private List<List<VectorDocument>> groupByShard(List<VectorDocument> documents) {
+        var documentsByShard = new ArrayList<List<VectorDocument>>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            documentsByShard.add(new ArrayList<>());
+        }
+        documents.forEach(document -> documentsByShard.get(shardIndex(document.key())).add(document));
+        return documentsByShard;
+    }
+
+    /**
+     * Runs the operation for every shard index, the first one on the calling thread and the others on the executor.
+     *
+     * @return the results in shard order
+     */
+    private <T> List<T> onAllShards(IntFunction<T> operation) {
+        var others = new ArrayList<CompletableFuture<T>>(shards.size() - 1);
+        for (int shard = 1; shard < shards.size(); shard++) {
+            int index = shard;
+            others.add(CompletableFuture.supplyAsync(() -> operation.apply(index), executor));
+        }
+        var results = new ArrayList<T>(shards.size());
+        results.add(operation.apply(0));
+        try {
+            others.forEach(future -> results.add(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+}
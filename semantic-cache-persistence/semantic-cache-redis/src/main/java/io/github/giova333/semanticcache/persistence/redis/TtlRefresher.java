@@ -0,0 +1,73 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.args.ExpiryOption;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implements sliding expiration: matched documents get their expiration pushed to {@code slidingTtl} from now.
+ *
+ * <p>Matches are only collected in memory on the request path and sent by a daemon thread as one pipeline
+ * of {@code PEXPIRE GT} commands, a fraction of {@code slidingTtl} later at most. {@code GT} never shortens
+ * an expiration and leaves documents without a time to live alone.</p>
+ */
+final class TtlRefresher {
+
+    private static final long MAX_FLUSH_INTERVAL_MILLIS = 1_000;
+
+    private final JedisPooled client;
+    private final long slidingTtlMillis;
+    private final Set<String> matched = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "semantic-cache-ttl-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    TtlRefresher(JedisPooled client, Duration slidingTtl) {
+        this.client = client;
+        this.slidingTtlMillis = slidingTtl.toMillis();
+    }
+
+    void start() {
+        long intervalMillis = Math.max(1, Math.min(MAX_FLUSH_INTERVAL_MILLIS, slidingTtlMillis / 10));
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // the documents of a failed flush keep their previous expiration
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the daemon thread, interrupting a run in progress.
+     */
+    void close() {
+        executor.shutdownNow();
+    }
+
+    void matched(String id) {
+        matched.add(id);
+    }
+
+    void flush() {
+        if (matched.isEmpty()) {
+            return;
+        }
+        try (var pipeline = client.pipelined()) {
+            for (var id : matched) {
+                if (matched.remove(id)) {
+                    pipeline.pexpire(id, slidingTtlMillis, ExpiryOption.GT);
+                }
+            }
+            pipeline.sync();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses cached values with DEFLATE, optionally primed with a preset dictionary.
+ * Decompression works regardless of the threshold, so values written while compression was enabled can still be read
+ * after it is disabled, as long as the same dictionary is configured.
+ */
+final class ValueCompressor {
+
+    static final ValueCompressor DISABLED = new ValueCompressor(Integer.MAX_VALUE, null);
+
+    private static final int MIN_BUFFER_SIZE = 256;
+
+    private final int threshold;
+    private final byte[] dictionary;
+    private final int dictionaryId;
+
+    ValueCompressor(int threshold, byte[] dictionary) {
+        this.threshold = threshold;
+        this.dictionary = dictionary;
+        this.dictionaryId = dictionary == null ? 0 : adler32(dictionary);
+    }
+
+    static ValueCompressor of(RedisVectorStoreProperties properties) {
+        var dictionary = readDictionary(properties);
+        return properties.getValueCompression() == RedisVectorStoreProperties.ValueCompression.DEFLATE
+                ? new ValueCompressor(properties.getCompressionThreshold(), dictionary)
+                : new ValueCompressor(Integer.MAX_VALUE, dictionary);
+    }
+
+    boolean shouldCompress(byte[] value) {
+        return value.length >= threshold;
+    }
+
+    byte[] compress(byte[] value) {
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(value);
+            deflater.finish();
+            var buffer = new byte[Math.max(MIN_BUFFER_SIZE, value.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    byte[] decompress(byte[] compressed) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            var buffer = new byte[Math.max(MIN_BUFFER_SIZE, compressed.length * 4)];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int inflated = inflater.inflate(buffer, length, buffer.length - length);
+                length += inflated;
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    if (dictionary == null || inflater.getAdler() != dictionaryId) {
+                        throw new IllegalStateException("value was compressed with a different dictionary");
+                    }
+                    inflater.setDictionary(dictionary);
+                } else if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("compressed value is truncated");
+                }
+            }
+            return Arrays.copyOf(buffer, length);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("compressed value is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] readDictionary(RedisVectorStoreProperties properties) {
+        if (properties.getCompressionDictionary() == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(properties.getCompressionDictionary());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read compression dictionary " + properties.getCompressionDictionary(), e);
+        }
+    }
+
+    private static int adler32(byte[] bytes) {
+        var checksum = new Adler32();
+        checksum.update(bytes);
+        return (int) checksum.getValue();
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Converts vectors to and from the little-endian binary layout RediSearch expects for each
+ * {@link RedisVectorStoreProperties.VectorType}, used for query parameters and HASH documents.
+ */
+final class VectorEncoding {
+
+    private VectorEncoding() {
+    }
+
+    static byte[] encode(RedisVectorStoreProperties.VectorType vectorType, float[] vector) {
+        return switch (vectorType) {
+            case FLOAT32 -> {
+                var buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.asFloatBuffer().put(vector);
+                yield buffer.array();
+            }
+            case FLOAT16 -> encodeShorts(vector, true);
+            case BFLOAT16 -> encodeShorts(vector, false);
+        };
+    }
+
+    static float[] decode(RedisVectorStoreProperties.VectorType vectorType, byte[] bytes) {
+        return switch (vectorType) {
+            case FLOAT32 -> {
+                var vector = new float[bytes.length / Float.BYTES];
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+                yield vector;
+            }
+            case FLOAT16 -> decodeShorts(bytes, true);
+            case BFLOAT16 -> decodeShorts(bytes, false);
+        };
+    }
+
+    /**
+     * Rounds to the nearest half precision value, ties to even. Overflow becomes infinity and tiny values
+     * become subnormals or zero, matching {@code Float.floatToFloat16} of newer JDKs.
+     */
+    static short floatToHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7F_FFFF;
+
+        if (exponent == 0xFF) {
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 | (mantissa >>> 13) : 0));
+        }
+        int halfExponent = exponent - 127 + 15;
+        if (halfExponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (halfExponent <= 0) {
+            if (halfExponent < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x80_0000;
+            int shift = 14 - halfExponent;
+            int half = mantissa >>> shift;
+            int remainder = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (remainder > halfway || (remainder == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (halfExponent << 10) | (mantissa >>> 13);
+        int remainder = mantissa & 0x1FFF;
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+            // may carry into the exponent, which correctly rounds up to the next binade or to infinity
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    static float halfToFloat(short half) {
+        int bits = half & 0xFFFF;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F80_0000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            float magnitude = mantissa * 0x1p-24f;
+            return sign == 0 ? magnitude : -magnitude;
+        }
+        return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * Keeps the upper 16 bits of the float, rounding to nearest with ties to even.
+     */
+    static short floatToBfloat16(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        if (Float.isNaN(value)) {
+            return (short) ((bits >>> 16) | 0x40);
+        }
+        int rounding = 0x7FFF + ((bits >>> 16) & 1);
+        return (short) ((bits + rounding) >>> 16);
+    }
+
+    static float bfloat16ToFloat(short bfloat16) {
+        return Float.intBitsToFloat((bfloat16 & 0xFFFF) << 16);
+    }
+
+    private static byte[] encodeShorts(float[] vector, boolean half) {
+        var buffer = ByteBuffer.allocate(vector.length * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : vector) {
+            buffer.putShort(half ? floatToHalf(value) : floatToBfloat16(value));
+        }
+        return buffer.array();
+    }
+
+    private static float[] decodeShorts(byte[] bytes, boolean half) {
+        var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        var vector = new float[bytes.length / Short.BYTES];
+        for (int i = 0; i < vector.length; i++) {
+            short value = buffer.getShort();
+            vector[i] = half ? halfToFloat(value) : bfloat16ToFloat(value);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyHashTest {
+
+    @Test
+    void shouldHashKeysDifferingOnlyInSurfaceDetailsTheSame() {
+        assertThat(KeyHash.of(null, "Largest city in USA?"))
+                .isEqualTo(KeyHash.of(null, "largest  city in usa"))
+                .hasSize(32);
+    }
+
+    @Test
+    void shouldHashSameKeyInDifferentNamespacesDifferently() {
+        assertThat(KeyHash.of("tenant-1", "largest city in USA"))
+                .isNotEqualTo(KeyHash.of("tenant-2", "largest city in USA"))
+                .isNotEqualTo(KeyHash.of(null, "largest city in USA"));
+    }
+
+    @Test
+    void shouldHashNoNamespaceAndEmptyNamespaceDifferently() {
+        assertThat(KeyHash.of(null, "largest city in USA"))
+                .isNotEqualTo(KeyHash.of("", "largest city in USA"));
+    }
+
+    @Test
+    void shouldHashKeysDifferingInInnerPunctuationDifferently() {
+        assertThat(KeyHash.of(null, "price of 1.5 liters")).isNotEqualTo(KeyHash.of(null, "price of 15 liters"));
+        assertThat(KeyHash.of(null, "how to re-sign a contract")).isNotEqualTo(KeyHash.of(null, "how to resign a contract"));
+    }
+}
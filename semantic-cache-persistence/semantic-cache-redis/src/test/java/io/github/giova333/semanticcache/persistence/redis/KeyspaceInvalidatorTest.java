@@ -0,0 +1,27 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyspaceInvalidatorTest {
+
+    @Test
+    void shouldRequireModuleEventsOnlyForJsonStorage() {
+        assertThat(KeyspaceInvalidator.requiredEvents(RedisVectorStoreProperties.StorageType.HASH)).isEqualTo("Kg$hxe");
+        assertThat(KeyspaceInvalidator.requiredEvents(RedisVectorStoreProperties.StorageType.JSON)).isEqualTo("Kg$hxed");
+    }
+
+    @Test
+    void shouldOnlyReportEventClassesNotEnabledYet() {
+        assertThat(KeyspaceInvalidator.missingEvents("", "Kg$hxe")).isEqualTo("Kg$hxe");
+        assertThat(KeyspaceInvalidator.missingEvents("Ex", "Kg$hxe")).isEqualTo("Kg$he");
+        assertThat(KeyspaceInvalidator.missingEvents("Kgxh$e", "Kg$hxe")).isEmpty();
+    }
+
+    @Test
+    void shouldCountAllEventsAliasAsEveryClassButKeyspace() {
+        assertThat(KeyspaceInvalidator.missingEvents("EA", "Kg$hxed")).isEqualTo("K");
+        assertThat(KeyspaceInvalidator.missingEvents("KA", "Kg$hxed")).isEmpty();
+    }
+}
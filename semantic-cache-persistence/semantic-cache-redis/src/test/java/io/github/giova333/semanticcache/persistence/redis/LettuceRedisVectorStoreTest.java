@@ -0,0 +1,104 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers
+class LettuceRedisVectorStoreTest {
+
+    @Container
+    static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis/redis-stack:latest"))
+                    .withExposedPorts(6379);
+
+    LettuceRedisVectorStore vectorStore = lettuceVectorStore(RedisVectorStoreProperties.StorageType.HASH);
+
+    @AfterEach
+    void closeVectorStore() {
+        vectorStore.close();
+    }
+
+    @Test
+    void shouldSaveAndFindDocumentAsynchronously() {
+        var vectorDocument = new VectorDocument(new float[]{1.0f, 2.0f, 3.0f}, "Some query1", "Some answer1", "tenant-a");
+
+        vectorStore.saveAsync(vectorDocument).join();
+
+        assertThat(vectorStore.similaritySearchAsync("tenant-a", vectorDocument.vector()).join()).hasValue(vectorDocument);
+        assertThat(vectorStore.similaritySearch("tenant-b", vectorDocument.vector())).isEmpty();
+    }
+
+    @Test
+    void shouldSaveDocumentWithTtlAtomically() {
+        var vectorDocument = new VectorDocument(new float[]{15.3f, 24.7f, 45.2f}, "Some query2", "Some answer2");
+
+        vectorStore.save(vectorDocument, Duration.ofMillis(1500));
+
+        assertThat(vectorStore.similaritySearch(vectorDocument.vector())).hasValue(vectorDocument);
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            assertThat(jedis.pttl("embedding:" + KeyHash.of(null, "Some query2"))).isBetween(1L, 1500L);
+        }
+    }
+
+    @Test
+    void shouldSaveAndFindDocumentsInBatch() {
+        var vectorDocument1 = new VectorDocument(new float[]{-3.0f, 1.0f, 0.5f}, "Some query3", "Some answer3");
+        var vectorDocument2 = new VectorDocument(new float[]{0.5f, -3.0f, 1.0f}, "Some query4", "Some answer4");
+
+        vectorStore.saveAll(List.of(vectorDocument1, vectorDocument2));
+
+        assertThat(vectorStore.similaritySearchAll(List.of(vectorDocument2.vector(), new float[]{1.0f, 1.0f, -9.0f}, vectorDocument1.vector())))
+                .containsExactly(Optional.of(vectorDocument2), Optional.empty(), Optional.of(vectorDocument1));
+    }
+
+    @Test
+    void shouldReadDocumentsWrittenByJedisStore() {
+        var jsonLettuceVectorStore = lettuceVectorStore(RedisVectorStoreProperties.StorageType.JSON);
+        var jedisVectorStore = new RedisVectorStore(properties(RedisVectorStoreProperties.StorageType.JSON));
+        var vectorDocument = new VectorDocument(new float[]{-7.0f, 2.0f, -0.25f}, "Some query5", "Some answer5");
+
+        jedisVectorStore.save(vectorDocument);
+
+        assertThat(jsonLettuceVectorStore.similaritySearch(vectorDocument.vector())).hasValue(vectorDocument);
+        jsonLettuceVectorStore.close();
+    }
+
+    @Test
+    void shouldRejectFeaturesOfJedisStore() {
+        var properties = properties(RedisVectorStoreProperties.StorageType.HASH).toBuilder()
+                .nearCacheMaxSize(100)
+                .build();
+
+        assertThatThrownBy(() -> new LettuceRedisVectorStore(properties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LettuceRedisVectorStore lettuceVectorStore(RedisVectorStoreProperties.StorageType storageType) {
+        return new LettuceRedisVectorStore(properties(storageType));
+    }
+
+    private static RedisVectorStoreProperties properties(RedisVectorStoreProperties.StorageType storageType) {
+        return RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-lettuce-" + storageType.name().toLowerCase())
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(storageType)
+                .lettuceConnections(2)
+                .build();
+    }
+}
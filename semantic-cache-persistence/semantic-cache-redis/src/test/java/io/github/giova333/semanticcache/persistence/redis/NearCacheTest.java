@@ -0,0 +1,115 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.TestClock;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class NearCacheTest {
+
+    TestClock clock = new TestClock();
+    NearCache nearCache = new NearCache(2, Duration.ofMinutes(1), MetricType.COSINE, clock);
+
+    @Test
+    void shouldReturnClosestEntryWithScore() {
+        var closer = new VectorDocument(new float[]{1.0f, 2.0f, 3.1f}, "Some query1", "Some answer1");
+        var farther = new VectorDocument(new float[]{3.0f, 2.0f, 1.0f}, "Some query2", "Some answer2");
+        nearCache.put("embedding:1", closer, nearCache.stamp());
+        nearCache.put("embedding:2", farther, nearCache.stamp());
+
+        var nearest = nearCache.nearest(null, new float[]{1.0f, 2.0f, 3.0f});
+
+        assertThat(nearest).hasValueSatisfying(candidate -> {
+            assertThat(candidate.id()).isEqualTo("embedding:1");
+            assertThat(candidate.decoded()).isEqualTo(closer);
+            assertThat(candidate.score()).isCloseTo(1.0, within(1e-3));
+        });
+    }
+
+    @Test
+    void shouldMatchOnlyEntriesOfNamespace() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        nearCache.put("embedding:1", new VectorDocument(vector, "Some query1", "Some answer1", "tenant-a"), nearCache.stamp());
+
+        assertThat(nearCache.nearest("tenant-b", vector)).isEmpty();
+        assertThat(nearCache.nearest("tenant-a", vector)).isPresent();
+        assertThat(nearCache.nearest(null, vector)).isPresent();
+    }
+
+    @Test
+    void shouldDropInvalidatedAndExpiredEntries() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        nearCache.put("embedding:1", new VectorDocument(vector, "Some query1", "Some answer1"), nearCache.stamp());
+
+        nearCache.invalidate("embedding:1");
+        assertThat(nearCache.nearest(null, vector)).isEmpty();
+
+        nearCache.put("embedding:2", new VectorDocument(vector, "Some query2", "Some answer2"), nearCache.stamp());
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(nearCache.nearest(null, vector)).isEmpty();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyMatchedEntry() {
+        var first = new float[]{1.0f, 0.0f, 0.0f};
+        var second = new float[]{0.0f, 1.0f, 0.0f};
+        nearCache.put("embedding:1", new VectorDocument(first, "Some query1", "Some answer1"), nearCache.stamp());
+        clock.advance(Duration.ofSeconds(1));
+        nearCache.put("embedding:2", new VectorDocument(second, "Some query2", "Some answer2"), nearCache.stamp());
+        clock.advance(Duration.ofSeconds(1));
+        nearCache.nearest(null, first);
+
+        nearCache.put("embedding:3", new VectorDocument(new float[]{0.0f, 0.0f, 1.0f}, "Some query3", "Some answer3"), nearCache.stamp());
+
+        assertThat(nearCache.size()).isEqualTo(2);
+        assertThat(nearCache.nearest(null, second)).hasValueSatisfying(candidate -> assertThat(candidate.id()).isNotEqualTo("embedding:2"));
+    }
+
+    @Test
+    void shouldExtractKeyFromKeyspaceChannel() {
+        assertThat(KeyspaceInvalidator.keyOf("__keyspace@0__:embedding:42")).isEqualTo("embedding:42");
+    }
+
+    @Test
+    void shouldNotCacheDocumentWhoseKeyWasInvalidatedWhileItWasRead() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        long stamp = nearCache.stamp();
+        // the key is overwritten and its notification handled between the search reply and the put
+        nearCache.invalidate("embedding:1");
+
+        nearCache.put("embedding:1", new VectorDocument(vector, "Some query1", "Some stale answer1"), stamp);
+        assertThat(nearCache.nearest(null, vector)).isEmpty();
+
+        nearCache.put("embedding:2", new VectorDocument(vector, "Some query2", "Some answer2"), stamp);
+        assertThat(nearCache.nearest(null, vector)).hasValueSatisfying(candidate -> assertThat(candidate.id()).isEqualTo("embedding:2"));
+    }
+
+    @Test
+    void shouldNotCacheDocumentReadBeforeResubscription() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        long stamp = nearCache.stamp();
+        nearCache.resubscribed();
+
+        nearCache.put("embedding:1", new VectorDocument(vector, "Some query1", "Some answer1"), stamp);
+
+        assertThat(nearCache.nearest(null, vector)).isEmpty();
+    }
+
+    @Test
+    void shouldNotCacheDocumentReadBeforeForgottenInvalidations() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        long stamp = nearCache.stamp();
+        for (int i = 0; i <= NearCache.RETAINED_INVALIDATIONS; i++) {
+            nearCache.invalidate("embedding:other" + i);
+        }
+
+        nearCache.put("embedding:1", new VectorDocument(vector, "Some query1", "Some answer1"), stamp);
+
+        assertThat(nearCache.nearest(null, vector)).isEmpty();
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.search.schemafields.VectorField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisSchemaTest {
+
+    RedisSchema schema = RedisSchema.builder()
+            .indexName("semantic-cache-index")
+            .vectorDimensionality(3)
+            .metricType(MetricType.COSINE)
+            .vectorAlgorithm(VectorField.VectorAlgorithm.HNSW)
+            .storageType(RedisVectorStoreProperties.StorageType.HASH)
+            .vectorType(RedisVectorStoreProperties.VectorType.FLOAT32)
+            .schemaMode(RedisVectorStoreProperties.SchemaMode.FULL_TEXT)
+            .hnswM(32)
+            .build();
+
+    @Test
+    void shouldAcceptMatchingIndex() {
+        schema.checkMatches(info("HASH", vector("HNSW", "FLOAT32", 3, "COSINE", 32), namespace(), text("key"), text("value")));
+    }
+
+    @Test
+    void shouldAcceptIndexWithoutReportedVectorParameters() {
+        schema.checkMatches(info("HASH", List.of("identifier", "vector", "attribute", "vector", "type", "VECTOR"),
+                namespace(), text("key"), text("value")));
+    }
+
+    @Test
+    void shouldAcceptIndexCreatedBeforeNamespacesAndReportMissingNamespaceField() {
+        var info = info("HASH", vector("HNSW", "FLOAT32", 3, "COSINE", 32), text("key"), text("value"));
+
+        schema.checkMatches(info);
+
+        assertThat(RedisSchema.hasNamespaceField(info)).isFalse();
+        assertThat(RedisSchema.hasNamespaceField(info("HASH", vector("HNSW", "FLOAT32", 3, "COSINE", 32), namespace()))).isTrue();
+    }
+
+    @Test
+    void shouldRejectIndexOfAnotherDimensionality() {
+        assertThatThrownBy(() -> schema.checkMatches(info("HASH", vector("HNSW", "FLOAT32", 768, "COSINE", 32),
+                namespace(), text("key"), text("value"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("vector dimensionality expected=3, actual=768")
+                .hasMessageContaining("FT.DROPINDEX");
+    }
+
+    @Test
+    void shouldReportEveryChangedSetting() {
+        var differences = schema.differencesFrom(info("JSON", vector("FLAT", "FLOAT16", 768, "L2", 16), namespace()));
+
+        assertThat(differences).containsExactlyInAnyOrder(
+                "storage type expected=HASH, actual=JSON",
+                "schema mode expected=FULL_TEXT, actual=LEAN",
+                "vector algorithm expected=HNSW, actual=FLAT",
+                "vector type expected=FLOAT32, actual=FLOAT16",
+                "vector dimensionality expected=3, actual=768",
+                "metric type expected=COSINE, actual=L2",
+                "HNSW M expected=32, actual=16");
+    }
+
+    private static Map<String, Object> info(String keyType, Object... attributes) {
+        return Map.of(
+                "index_definition", List.of("key_type", keyType, "prefixes", List.of("embedding:")),
+                "attributes", List.of(attributes));
+    }
+
+    private static List<Object> vector(String algorithm, String dataType, long dim, String metric, long m) {
+        return new ArrayList<>(List.of("identifier", "vector", "attribute", "vector", "type", "VECTOR",
+                "algorithm", algorithm, "data_type", dataType, "dim", dim, "distance_metric", metric, "M", m));
+    }
+
+    private static List<Object> namespace() {
+        return List.of("identifier", "namespace", "attribute", "namespace", "type", "TAG");
+    }
+
+    private static List<Object> text(String name) {
+        return List.of("identifier", name.getBytes(), "attribute", name.getBytes(), "type", "TEXT");
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisVectorStorePropertiesTest {
+
+    @Test
+    void shouldDefaultToCosineMetric() {
+        assertThat(RedisVectorStoreProperties.builder().build().getMetricType()).isEqualTo(MetricType.COSINE);
+        assertThat(new RedisVectorStoreProperties().getMetricType()).isEqualTo(MetricType.COSINE);
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    void shouldMapDeprecatedRedisMetricToCoreMetric() {
+        var properties = RedisVectorStoreProperties.builder()
+                .metricType(io.github.giova333.semanticcache.persistence.redis.MetricType.L2)
+                .build();
+
+        assertThat(properties.getMetricType()).isEqualTo(MetricType.L2);
+    }
+}
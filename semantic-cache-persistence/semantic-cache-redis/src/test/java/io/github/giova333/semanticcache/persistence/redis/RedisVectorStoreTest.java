@@ -1,5 +1,6 @@
 package io.github.giova333.semanticcache.persistence.redis;
 
+import io.github.giova333.semanticcache.core.MetricType;
 import io.github.giova333.semanticcache.core.VectorDocument;
 import io.github.giova333.semanticcache.core.VectorStore;
 import org.junit.jupiter.api.Test;
@@ -8,10 +9,16 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.shaded.org.awaitility.Durations;
 import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.Jedis;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
 
 @Testcontainers
@@ -67,6 +74,281 @@ class RedisVectorStoreTest {
         assertThat(actualResult).hasValue(vectorDocument2);
     }
 
+    @Test
+    void shouldSaveAndFindDocumentsInBatch() {
+        var vectorDocument1 = new VectorDocument(new float[]{-3.0f, 1.0f, 0.5f}, "Some query5", "Some answer5");
+        var vectorDocument2 = new VectorDocument(new float[]{0.5f, -3.0f, 1.0f}, "Some query6", "Some answer6");
+
+        vectorStore.saveAll(List.of(vectorDocument1, vectorDocument2), Duration.ofMinutes(5));
+
+        var actualResult = vectorStore.similaritySearchAll(List.of(
+                vectorDocument2.vector(),
+                new float[]{1.0f, 0.5f, -3.0f},
+                vectorDocument1.vector()));
+
+        assertThat(actualResult).containsExactly(Optional.of(vectorDocument2), Optional.empty(), Optional.of(vectorDocument1));
+    }
+
+    @Test
+    void shouldSaveVectorDocumentWithHashStorage() {
+        var hashVectorStore = redisVectorStore("test-hash", RedisVectorStoreProperties.StorageType.HASH);
+        var vector = new float[]{7.0f, -2.0f, 0.25f};
+        var vectorDocument = new VectorDocument(vector, "Some query7", "Some answer7");
+
+        hashVectorStore.save(vectorDocument, Duration.ofMinutes(5));
+
+        var savedDocument = hashVectorStore.similaritySearch(vector);
+        assertThat(savedDocument).hasValue(vectorDocument);
+    }
+
+    @Test
+    void shouldSaveVectorDocumentWithFloat16Vectors() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-float16")
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(RedisVectorStoreProperties.StorageType.HASH)
+                .vectorType(RedisVectorStoreProperties.VectorType.FLOAT16)
+                .build();
+        var float16VectorStore = new RedisVectorStore(properties);
+        var vector = new float[]{0.1f, 0.2f, 0.3f};
+
+        float16VectorStore.save(new VectorDocument(vector, "Some query9", "Some answer9"), Duration.ofMinutes(5));
+
+        var savedDocument = float16VectorStore.similaritySearch(vector);
+        assertThat(savedDocument).hasValueSatisfying(document -> {
+            assertThat(document.value()).isEqualTo("Some answer9");
+            assertThat(document.vector()).containsExactly(vector, within(1e-3f));
+        });
+    }
+
+    @Test
+    void shouldSaveCompressedValueWithLeanSchema() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-lean")
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(RedisVectorStoreProperties.StorageType.HASH)
+                .schemaMode(RedisVectorStoreProperties.SchemaMode.LEAN)
+                .valueCompression(RedisVectorStoreProperties.ValueCompression.DEFLATE)
+                .compressionThreshold(64)
+                .build();
+        var leanVectorStore = new RedisVectorStore(properties);
+        var longValue = new VectorDocument(new float[]{0.5f, 7.0f, -2.0f}, "Some query10", "Some long answer10 ".repeat(50));
+        var shortValue = new VectorDocument(new float[]{-2.0f, 0.5f, 7.0f}, "Some query11", "Some answer11");
+
+        leanVectorStore.saveAll(List.of(longValue, shortValue), Duration.ofMinutes(5));
+
+        assertThat(leanVectorStore.similaritySearch(longValue.vector())).hasValue(longValue);
+        assertThat(leanVectorStore.similaritySearch(shortValue.vector())).hasValue(shortValue);
+    }
+
+    @Test
+    void shouldSearchOnlyGivenNamespace() {
+        var namespacedVectorStore = redisVectorStore("test-namespace", RedisVectorStoreProperties.StorageType.HASH);
+        var vector = new float[]{3.0f, -1.0f, 9.0f};
+        var tenantA = new VectorDocument(vector, "Some query12", "Some answer12", "tenant a");
+        var tenantB = new VectorDocument(vector, "Some query12", "Some answer13", "tenant-b");
+
+        namespacedVectorStore.saveAll(List.of(tenantA, tenantB), Duration.ofMinutes(5));
+
+        assertThat(namespacedVectorStore.similaritySearch("tenant a", vector)).hasValue(tenantA);
+        assertThat(namespacedVectorStore.similaritySearch("tenant-b", vector)).hasValue(tenantB);
+        assertThat(namespacedVectorStore.similaritySearch("tenant-c", vector)).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateNearCachedDocumentWhenDeleted() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-near-cache")
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(RedisVectorStoreProperties.StorageType.HASH)
+                .nearCacheMaxSize(100)
+                .enableKeyspaceNotifications(true)
+                .documentIds(RedisVectorStoreProperties.DocumentIdStrategy.RANDOM)
+                .build();
+        var keys = new ArrayList<UUID>();
+        var nearCachedVectorStore = new RedisVectorStore(properties, () -> {
+            var id = UUID.randomUUID();
+            keys.add(id);
+            return id;
+        });
+        var vectorDocument = new VectorDocument(new float[]{2.0f, 9.0f, -4.0f}, "Some query14", "Some answer14");
+        nearCachedVectorStore.save(vectorDocument);
+        assertThat(nearCachedVectorStore.similaritySearch(vectorDocument.vector())).hasValue(vectorDocument);
+
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            jedis.del("embedding:" + keys.get(0));
+        }
+
+        await().atMost(Durations.FIVE_SECONDS)
+                .until(() -> nearCachedVectorStore.similaritySearch(vectorDocument.vector()).isEmpty());
+    }
+
+    @Test
+    void shouldReplaceDocumentWhenSameKeyIsSavedAgain() {
+        var hashVectorStore = redisVectorStore("test-upsert", RedisVectorStoreProperties.StorageType.HASH);
+        var vector = new float[]{4.0f, -3.0f, 9.0f};
+
+        hashVectorStore.save(new VectorDocument(vector, "Some query19", "Some answer19"), Duration.ofMinutes(5));
+        hashVectorStore.save(new VectorDocument(vector, "some query19 ", "Some other answer19"));
+
+        assertThat(hashVectorStore.similaritySearch(vector))
+                .hasValue(new VectorDocument(vector, "some query19 ", "Some other answer19"));
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            var key = "embedding:" + KeyHash.of(null, "Some query19");
+            assertThat(jedis.hget(key, "value")).isEqualTo("Some other answer19");
+            assertThat(jedis.ttl(key)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void shouldSaveDocumentWithSubSecondTtl() {
+        var hashVectorStore = redisVectorStore("test-sub-second-ttl", RedisVectorStoreProperties.StorageType.HASH);
+
+        hashVectorStore.save(new VectorDocument(new float[]{3.0f, 3.0f, -8.0f}, "Some query21", "Some answer21"), Duration.ofMillis(1500));
+
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            assertThat(jedis.pttl("embedding:" + KeyHash.of(null, "Some query21"))).isBetween(1001L, 1500L);
+        }
+    }
+
+    @Test
+    void shouldExtendTtlOfMatchedDocuments() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-sliding-ttl")
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(RedisVectorStoreProperties.StorageType.HASH)
+                .slidingTtl(Duration.ofMinutes(10))
+                .build();
+        var slidingVectorStore = new RedisVectorStore(properties);
+        var vectorDocument = new VectorDocument(new float[]{7.0f, 1.0f, 5.0f}, "Some query22", "Some answer22");
+        slidingVectorStore.save(vectorDocument, Duration.ofMinutes(1));
+
+        assertThat(slidingVectorStore.similaritySearch(vectorDocument.vector())).hasValue(vectorDocument);
+
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            var key = "embedding:" + KeyHash.of(null, "Some query22");
+            await().atMost(Durations.FIVE_SECONDS).until(() -> jedis.pttl(key) > Duration.ofMinutes(5).toMillis());
+        }
+    }
+
+    @Test
+    void shouldRefreshNearDuplicateInsteadOfAddingDocument() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-deduplication")
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(RedisVectorStoreProperties.StorageType.HASH)
+                .deduplicationThreshold(0.995)
+                .build();
+        var deduplicatingVectorStore = new RedisVectorStore(properties);
+        var original = new VectorDocument(new float[]{-6.0f, 5.0f, 2.0f}, "Some query20", "Some answer20");
+        var nearDuplicate = new VectorDocument(new float[]{-6.0f, 5.0f, 2.1f}, "Some query 20", "Some newer answer20");
+
+        deduplicatingVectorStore.save(original);
+        deduplicatingVectorStore.save(nearDuplicate);
+
+        assertThat(deduplicatingVectorStore.similaritySearch(original.vector())).hasValue(nearDuplicate);
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            assertThat(jedis.exists("embedding:" + KeyHash.of(null, "Some query20"))).isTrue();
+            assertThat(jedis.exists("embedding:" + KeyHash.of(null, "Some query 20"))).isFalse();
+        }
+    }
+
+    @Test
+    void shouldEvictLeastFrequentlyMatchedDocumentsWithoutTtl() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-eviction")
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .maxEntries(2)
+                .evictionPolicy(RedisVectorStoreProperties.EvictionPolicy.LFU)
+                .evictionInterval(Duration.ofMillis(500))
+                .build();
+        var boundedVectorStore = new RedisVectorStore(properties);
+        var frequentDocument = new VectorDocument(new float[]{-5.0f, 1.0f, 8.0f}, "Some query15", "Some answer15");
+        var rareDocument = new VectorDocument(new float[]{6.0f, -2.0f, 1.0f}, "Some query16", "Some answer16");
+        var newDocument = new VectorDocument(new float[]{1.0f, 7.0f, -6.0f}, "Some query17", "Some answer17");
+        var expiringDocument = new VectorDocument(new float[]{-1.0f, -8.0f, -3.0f}, "Some query18", "Some answer18");
+
+        boundedVectorStore.save(frequentDocument);
+        boundedVectorStore.save(rareDocument);
+        boundedVectorStore.save(newDocument);
+        boundedVectorStore.save(expiringDocument, Duration.ofMinutes(5));
+        boundedVectorStore.similaritySearch(frequentDocument.vector());
+        boundedVectorStore.similaritySearch(frequentDocument.vector());
+        boundedVectorStore.similaritySearch(newDocument.vector());
+
+        await().atMost(Durations.FIVE_SECONDS)
+                .until(() -> boundedVectorStore.similaritySearch(rareDocument.vector()).isEmpty());
+        assertThat(boundedVectorStore.similaritySearch(frequentDocument.vector())).hasValue(frequentDocument);
+        assertThat(boundedVectorStore.similaritySearch(expiringDocument.vector())).hasValue(expiringDocument);
+    }
+
+    @Test
+    void shouldFindOnlyDocumentsWithinThresholdWithRangeQueries() {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName("test-range")
+                .vectorDimensionality(3)
+                .metricType(MetricType.L2)
+                .similarityThreshold(0.5)
+                .initialCapacity(1_000)
+                .hnswM(32)
+                .hnswEfConstruction(400)
+                .hnswEfRuntime(50)
+                .searchMode(RedisVectorStoreProperties.SearchMode.RANGE)
+                .build();
+        var rangeVectorStore = new RedisVectorStore(properties);
+        var vectorDocument = new VectorDocument(new float[]{9.0f, 9.0f, 9.0f}, "Some query21", "Some answer21");
+
+        rangeVectorStore.save(vectorDocument);
+
+        assertThat(rangeVectorStore.similaritySearch(new float[]{9.0f, 9.0f, 9.5f})).hasValue(vectorDocument);
+        assertThat(rangeVectorStore.similaritySearch(new float[]{9.0f, 9.0f, 11.0f})).isEmpty();
+    }
+
+    @Test
+    void shouldMigrateJsonDocumentsToHashStorage() {
+        var jsonVectorStore = redisVectorStore("test-migration-json", RedisVectorStoreProperties.StorageType.JSON);
+        var vector = new float[]{-7.0f, 2.0f, -0.25f};
+        var vectorDocument = new VectorDocument(vector, "Some query8", "Some answer8");
+        jsonVectorStore.save(vectorDocument, Duration.ofMinutes(5));
+
+        var hashVectorStore = redisVectorStore("test-migration-hash", RedisVectorStoreProperties.StorageType.HASH);
+        hashVectorStore.migrateFromJsonIndex("test-migration-json");
+
+        assertThat(hashVectorStore.similaritySearch(vector)).hasValue(vectorDocument);
+    }
+
+    private RedisVectorStore redisVectorStore(String indexName, RedisVectorStoreProperties.StorageType storageType) {
+        var properties = RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName(indexName)
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(storageType)
+                .build();
+        return new RedisVectorStore(properties);
+    }
+
     private VectorStore redisVectorStore() {
         var properties = RedisVectorStoreProperties.builder()
                 .host(REDIS.getHost())
@@ -0,0 +1,87 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.TestClock;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ReplicaIndexTest {
+
+    TestClock clock = new TestClock();
+    ReplicaIndex index = new ReplicaIndex(3, MetricType.COSINE, clock);
+
+    @Test
+    void shouldReturnClosestDocumentWithScore() {
+        var closer = new VectorDocument(new float[]{1.0f, 2.0f, 3.1f}, "Some query1", "Some answer1");
+        var farther = new VectorDocument(new float[]{3.0f, 2.0f, 1.0f}, "Some query2", "Some answer2");
+        index.put("embedding:1", closer, Long.MAX_VALUE);
+        index.put("embedding:2", farther, Long.MAX_VALUE);
+
+        var nearest = index.nearest(null, new float[]{1.0f, 2.0f, 3.0f});
+
+        assertThat(nearest).hasValueSatisfying(candidate -> {
+            assertThat(candidate.id()).isEqualTo("embedding:1");
+            assertThat(candidate.decoded()).isEqualTo(closer);
+            assertThat(candidate.score()).isCloseTo(1.0, within(1e-3));
+        });
+    }
+
+    @Test
+    void shouldScoreLikeMetricType() {
+        var a = new float[]{1.0f, -2.0f, 0.5f};
+        var b = new float[]{0.3f, 4.0f, -1.0f};
+        for (var metricType : MetricType.values()) {
+            var metricIndex = new ReplicaIndex(3, metricType, clock);
+            metricIndex.put("embedding:1", new VectorDocument(b, "Some query1", "Some answer1"), Long.MAX_VALUE);
+
+            assertThat(metricIndex.nearest(null, a)).hasValueSatisfying(candidate -> assertThat(candidate.score())
+                    .isCloseTo(metricType.similarity(metricType.distance(a, b)), within(1e-6)));
+        }
+    }
+
+    @Test
+    void shouldMatchOnlyDocumentsOfNamespace() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        index.put("embedding:1", new VectorDocument(vector, "Some query1", "Some answer1", "tenant-a"), Long.MAX_VALUE);
+
+        assertThat(index.nearest("tenant-b", vector)).isEmpty();
+        assertThat(index.nearest("tenant-a", vector)).isPresent();
+        assertThat(index.nearest(null, vector)).isPresent();
+    }
+
+    @Test
+    void shouldDropRemovedAndExpiredDocuments() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        index.put("embedding:1", new VectorDocument(vector, "Some query1", "Some answer1"), Long.MAX_VALUE);
+
+        index.remove("embedding:1");
+        assertThat(index.nearest(null, vector)).isEmpty();
+
+        index.put("embedding:2", new VectorDocument(vector, "Some query2", "Some answer2"),
+                clock.millis() + Duration.ofMinutes(1).toMillis());
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(index.nearest(null, vector)).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceDocumentOfSameKeyAndReuseFreedSlots() {
+        var vector = new float[]{1.0f, 2.0f, 3.0f};
+        var replacement = new VectorDocument(vector, "Some query1", "Some other answer1");
+        index.put("embedding:1", new VectorDocument(new float[]{3.0f, 2.0f, 1.0f}, "Some query1", "Some answer1"), Long.MAX_VALUE);
+        index.put("embedding:1", replacement, Long.MAX_VALUE);
+        for (int i = 0; i < 2_000; i++) {
+            index.put("embedding:tmp" + i, new VectorDocument(new float[]{-1.0f, i, 0.0f}, "Some query", "Some answer"), Long.MAX_VALUE);
+        }
+
+        index.retainAll(Set.of("embedding:1", "embedding:tmp7"));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.nearest(null, vector)).hasValueSatisfying(candidate -> assertThat(candidate.decoded()).isEqualTo(replacement));
+    }
+}
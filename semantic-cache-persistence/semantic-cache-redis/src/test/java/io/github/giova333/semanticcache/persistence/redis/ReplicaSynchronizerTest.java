@@ -0,0 +1,136 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.MetricType;
+import io.github.giova333.semanticcache.core.TestClock;
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.search.Document;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaSynchronizerTest {
+
+    private static final float[] VECTOR = {1.0f, 2.0f, 3.0f};
+
+    TestClock clock = new TestClock();
+    ReplicaIndex index = new ReplicaIndex(3, MetricType.COSINE, clock);
+    FakeSource source = new FakeSource();
+    ReplicaSynchronizer synchronizer = new ReplicaSynchronizer(source, RedisVectorStoreProperties.builder()
+            .vectorDimensionality(3)
+            .storageType(RedisVectorStoreProperties.StorageType.JSON)
+            .build(), index, clock);
+
+    @Test
+    void shouldSeedFromAllScannedPagesAndDropDocumentsNoLongerStored() {
+        index.put("embedding:stale", new VectorDocument(new float[]{3.0f, 2.0f, 1.0f}, "Some query0", "Some answer0"), Long.MAX_VALUE);
+        source.store("embedding:1", new VectorDocument(new float[]{-1.0f, 0.0f, 0.0f}, "Some query1", "Some answer1"), -1);
+        source.store("embedding:2", new VectorDocument(new float[]{0.0f, -1.0f, 0.0f}, "Some query2", "Some answer2"), -1);
+        source.store("embedding:3", new VectorDocument(VECTOR, "Some query3", "Some answer3"), Duration.ofMinutes(1).toMillis());
+
+        synchronizer.resync();
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.nearest(null, new float[]{3.0f, 2.0f, 1.0f}))
+                .hasValueSatisfying(candidate -> assertThat(candidate.id()).isNotEqualTo("embedding:stale"));
+        assertThat(index.nearest(null, VECTOR))
+                .hasValueSatisfying(candidate -> assertThat(candidate.id()).isEqualTo("embedding:3"));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(index.nearest(null, VECTOR))
+                .hasValueSatisfying(candidate -> assertThat(candidate.id()).isNotEqualTo("embedding:3"));
+    }
+
+    @Test
+    void shouldRemoveDeletedDocumentsAtOnceAndReadBackChangedOnesOnFlush() {
+        source.store("embedding:1", new VectorDocument(VECTOR, "Some query1", "Some answer1"), -1);
+        source.store("embedding:2", new VectorDocument(new float[]{-1.0f, 0.0f, 0.0f}, "Some query2", "Some answer2"), -1);
+        synchronizer.resync();
+        source.reads.clear();
+
+        source.stored.remove("embedding:2");
+        synchronizer.changed("embedding:2", "del");
+        assertThat(index.size()).isEqualTo(1);
+
+        var replacement = new VectorDocument(VECTOR, "Some query1", "Some other answer1");
+        source.store("embedding:1", replacement, -1);
+        synchronizer.changed("embedding:1", "json.set");
+        assertThat(index.nearest(null, VECTOR))
+                .hasValueSatisfying(candidate -> assertThat(candidate.decoded().value()).isEqualTo("Some answer1"));
+
+        synchronizer.flush();
+
+        assertThat(index.nearest(null, VECTOR))
+                .hasValueSatisfying(candidate -> assertThat(candidate.decoded()).isEqualTo(replacement));
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(source.reads).hasSize(1);
+        assertThat(source.reads.get(0)).containsExactlyInAnyOrder("embedding:1", "embedding:2");
+
+        synchronizer.flush();
+        assertThat(source.reads).hasSize(1);
+    }
+
+    @Test
+    void shouldSkipKeysWithoutDocumentOfIndex() {
+        source.store("embedding:1", new VectorDocument(new float[]{1.0f, 2.0f}, "Some query1", "Some answer1"), -1);
+        source.stored.put("embedding:2", new ReplicaSynchronizer.Stored(new Document("embedding:2", Map.of("key", "Some query2")), -1));
+        source.stored.put("embedding:3", new ReplicaSynchronizer.Stored(null, -2));
+
+        synchronizer.resync();
+
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void shouldReportSubscriptionOnceSubscribed() throws InterruptedException {
+        assertThat(synchronizer.awaitSubscription(1)).isFalse();
+
+        synchronizer.resubscribed();
+
+        assertThat(synchronizer.awaitSubscription(1)).isTrue();
+    }
+
+    /**
+     * Keys and documents kept in memory, scanned two keys per page.
+     */
+    private static final class FakeSource implements ReplicaSynchronizer.Source {
+
+        private static final int PAGE_SIZE = 2;
+
+        final Map<String, ReplicaSynchronizer.Stored> stored = new LinkedHashMap<>();
+        final List<List<String>> reads = new ArrayList<>();
+
+        void store(String id, VectorDocument document, long ttl) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put(RedisSchema.VECTOR_FIELD_NAME, Arrays.toString(document.vector()));
+            fields.put(RedisSchema.KEY_FIELD_NAME, document.key());
+            fields.put(RedisSchema.VALUE_FIELD_NAME, document.value());
+            stored.put(id, new ReplicaSynchronizer.Stored(new Document(id, fields), ttl));
+        }
+
+        @Override
+        public ScanResult<String> scan(String cursor, ScanParams params) {
+            var keys = List.copyOf(stored.keySet());
+            int start = Integer.parseInt(cursor);
+            int end = Math.min(start + PAGE_SIZE, keys.size());
+            return new ScanResult<>(end == keys.size() ? ScanParams.SCAN_POINTER_START : String.valueOf(end), keys.subList(start, end));
+        }
+
+        @Override
+        public List<ReplicaSynchronizer.Stored> read(List<String> ids) {
+            reads.add(List.copyOf(ids));
+            return ids.stream()
+                    .map(id -> stored.getOrDefault(id, new ReplicaSynchronizer.Stored(null, -2)))
+                    .toList();
+        }
+    }
+}
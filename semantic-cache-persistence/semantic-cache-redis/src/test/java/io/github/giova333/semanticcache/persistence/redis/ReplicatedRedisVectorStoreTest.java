@@ -0,0 +1,79 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.shaded.org.awaitility.Durations;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+@Testcontainers
+class ReplicatedRedisVectorStoreTest {
+
+    @Container
+    static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis/redis-stack:latest"))
+                    .withExposedPorts(6379);
+
+    @Test
+    void shouldServeWritesOfOtherNodesLocally() {
+        var properties = properties("test-replicated-hash", RedisVectorStoreProperties.StorageType.HASH);
+        var writer = new ReplicatedRedisVectorStore(properties);
+        var reader = new ReplicatedRedisVectorStore(properties);
+        var vectorDocument = new VectorDocument(new float[]{2.0f, 9.0f, -4.0f}, "Some query1", "Some answer1", "tenant-a");
+
+        writer.save(vectorDocument, Duration.ofMinutes(5));
+
+        await().atMost(Durations.FIVE_SECONDS)
+                .until(() -> reader.similaritySearch(vectorDocument.vector()).isPresent());
+        assertThat(reader.similaritySearch("tenant-a", vectorDocument.vector())).hasValue(vectorDocument);
+        assertThat(reader.similaritySearch("tenant-b", vectorDocument.vector())).isEmpty();
+    }
+
+    @Test
+    void shouldSeedFromRedisAndFollowDeletes() {
+        var properties = properties("test-replicated-json", RedisVectorStoreProperties.StorageType.JSON)
+                .toBuilder()
+                .documentIds(RedisVectorStoreProperties.DocumentIdStrategy.RANDOM)
+                .build();
+        var keys = new ArrayList<UUID>();
+        var vectorDocument = new VectorDocument(new float[]{-7.0f, 1.0f, 3.0f}, "Some query2", "Some answer2");
+        new RedisVectorStore(properties, () -> {
+            var id = UUID.randomUUID();
+            keys.add(id);
+            return id;
+        }).save(vectorDocument);
+
+        var replicatedVectorStore = new ReplicatedRedisVectorStore(properties);
+        assertThat(replicatedVectorStore.similaritySearch(vectorDocument.vector())).hasValue(vectorDocument);
+
+        try (var jedis = new Jedis(REDIS.getHost(), REDIS.getFirstMappedPort())) {
+            jedis.del("embedding:" + keys.get(0));
+        }
+
+        await().atMost(Durations.FIVE_SECONDS)
+                .until(() -> replicatedVectorStore.similaritySearch(vectorDocument.vector()).isEmpty());
+    }
+
+    private static RedisVectorStoreProperties properties(String indexName, RedisVectorStoreProperties.StorageType storageType) {
+        return RedisVectorStoreProperties.builder()
+                .host(REDIS.getHost())
+                .port(REDIS.getFirstMappedPort())
+                .indexName(indexName)
+                .vectorDimensionality(3)
+                .similarityThreshold(0.99)
+                .storageType(storageType)
+                .localIndex(true)
+                .enableKeyspaceNotifications(true)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import io.github.giova333.semanticcache.core.VectorDocument;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class ShardedRedisVectorStoreTest {
+
+    @Container
+    static final GenericContainer<?> SHARD_1 =
+            new GenericContainer<>(DockerImageName.parse("redis/redis-stack:latest"))
+                    .withExposedPorts(6379);
+
+    @Container
+    static final GenericContainer<?> SHARD_2 =
+            new GenericContainer<>(DockerImageName.parse("redis/redis-stack:latest"))
+                    .withExposedPorts(6379);
+
+    ShardedRedisVectorStore vectorStore = new ShardedRedisVectorStore(RedisVectorStoreProperties.builder()
+            .indexName("test-sharded")
+            .vectorDimensionality(3)
+            .similarityThreshold(0.99)
+            .storageType(RedisVectorStoreProperties.StorageType.HASH)
+            .shards(List.of(shard(SHARD_1), shard(SHARD_2)))
+            .build());
+
+    @Test
+    void shouldFindDocumentsOnEveryShard() {
+        var documents = new ArrayList<VectorDocument>();
+        for (int i = 0; i < 20; i++) {
+            documents.add(new VectorDocument(new float[]{i + 1.0f, -i, i * i}, "Some query" + i, "Some answer" + i));
+        }
+
+        vectorStore.saveAll(documents, Duration.ofMinutes(5));
+
+        for (var document : documents) {
+            assertThat(vectorStore.similaritySearch(document.vector())).hasValue(document);
+        }
+        assertThat(vectorStore.similaritySearchAll(documents.stream().map(VectorDocument::vector).toList()))
+                .allSatisfy(result -> assertThat(result).isPresent());
+    }
+
+    @Test
+    void shouldReturnBestMatchAcrossShards() {
+        var query = new float[]{4.0f, 5.0f, 6.0f};
+        var closer = new VectorDocument(new float[]{4.0f, 5.0f, 6.01f}, "Some query closer", "Some answer closer");
+        var farther = new VectorDocument(new float[]{4.0f, 5.0f, 6.2f}, "Some query farther", "Some answer farther");
+
+        vectorStore.save(farther, Duration.ofMinutes(5));
+        vectorStore.save(closer, Duration.ofMinutes(5));
+
+        assertThat(vectorStore.similaritySearch(query)).hasValue(closer);
+    }
+
+    private static RedisVectorStoreProperties.Shard shard(GenericContainer<?> container) {
+        return RedisVectorStoreProperties.Shard.builder()
+                .host(container.getHost())
+                .port(container.getFirstMappedPort())
+                .build();
+    }
+}
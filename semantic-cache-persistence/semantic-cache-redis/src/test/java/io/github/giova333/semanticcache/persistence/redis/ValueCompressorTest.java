@@ -0,0 +1,56 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValueCompressorTest {
+
+    static final String ANSWER = "The Berlin Wall fell on 9 November 1989, when East German authorities opened the border crossings. "
+            .repeat(20);
+    static final byte[] DICTIONARY = "The Berlin Wall was a guarded concrete barrier that divided Berlin from 1961 to 1989."
+            .getBytes(UTF_8);
+
+    @Test
+    void shouldRestoreCompressedValue() {
+        var compressor = new ValueCompressor(0, null);
+        var value = ANSWER.getBytes(UTF_8);
+
+        var compressed = compressor.compress(value);
+
+        assertThat(compressed.length).isLessThan(value.length / 4);
+        assertThat(compressor.decompress(compressed)).isEqualTo(value);
+    }
+
+    @Test
+    void shouldCompressOnlyValuesAboveThreshold() {
+        var compressor = new ValueCompressor(512, null);
+
+        assertThat(compressor.shouldCompress(new byte[511])).isFalse();
+        assertThat(compressor.shouldCompress(new byte[512])).isTrue();
+        assertThat(ValueCompressor.DISABLED.shouldCompress(ANSWER.getBytes(UTF_8))).isFalse();
+    }
+
+    @Test
+    void shouldCompressShortValueBetterWithDictionary() {
+        var value = "The Berlin Wall fell in 1989, it divided Berlin from 1961.".getBytes(UTF_8);
+        var withDictionary = new ValueCompressor(0, DICTIONARY);
+
+        var compressed = withDictionary.compress(value);
+
+        assertThat(compressed.length).isLessThan(new ValueCompressor(0, null).compress(value).length);
+        assertThat(withDictionary.decompress(compressed)).isEqualTo(value);
+    }
+
+    @Test
+    void shouldRejectValueCompressedWithOtherDictionary() {
+        var compressed = new ValueCompressor(0, DICTIONARY).compress(ANSWER.getBytes(UTF_8));
+
+        assertThatThrownBy(() -> new ValueCompressor(0, "another dictionary".getBytes(UTF_8)).decompress(compressed))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> ValueCompressor.DISABLED.decompress(compressed))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
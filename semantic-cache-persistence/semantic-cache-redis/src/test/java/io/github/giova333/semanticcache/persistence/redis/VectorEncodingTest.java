@@ -0,0 +1,58 @@
+package io.github.giova333.semanticcache.persistence.redis;
+
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.search.RediSearchUtil;
+
+import static io.github.giova333.semanticcache.persistence.redis.RedisVectorStoreProperties.VectorType.BFLOAT16;
+import static io.github.giova333.semanticcache.persistence.redis.RedisVectorStoreProperties.VectorType.FLOAT16;
+import static io.github.giova333.semanticcache.persistence.redis.RedisVectorStoreProperties.VectorType.FLOAT32;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorEncodingTest {
+
+    @Test
+    void shouldEncodeFloat32AsLittleEndian() {
+        var vector = new float[]{1.0f, -2.5f, 3.25f, Float.MIN_VALUE};
+
+        var encoded = VectorEncoding.encode(FLOAT32, vector);
+
+        assertThat(encoded).isEqualTo(RediSearchUtil.toByteArray(vector));
+        assertThat(VectorEncoding.decode(FLOAT32, encoded)).containsExactly(vector);
+    }
+
+    @Test
+    void shouldRoundTripEveryHalfPrecisionValue() {
+        for (int bits = 0; bits <= 0xFFFF; bits++) {
+            float value = VectorEncoding.halfToFloat((short) bits);
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            assertThat(VectorEncoding.floatToHalf(value) & 0xFFFF).isEqualTo(bits);
+        }
+    }
+
+    @Test
+    void shouldRoundHalfPrecisionToNearestEven() {
+        assertThat(VectorEncoding.halfToFloat(VectorEncoding.floatToHalf(1 + 0x1p-11f))).isEqualTo(1.0f);
+        assertThat(VectorEncoding.halfToFloat(VectorEncoding.floatToHalf(1 + 3 * 0x1p-11f))).isEqualTo(1 + 0x1p-9f);
+        assertThat(VectorEncoding.halfToFloat(VectorEncoding.floatToHalf(65520f))).isEqualTo(Float.POSITIVE_INFINITY);
+        assertThat(VectorEncoding.halfToFloat(VectorEncoding.floatToHalf(0x1p-25f))).isEqualTo(0.0f);
+        assertThat(VectorEncoding.halfToFloat(VectorEncoding.floatToHalf(0x1.8p-25f))).isEqualTo(0x1p-24f);
+    }
+
+    @Test
+    void shouldEncodeReducedPrecisionWithTwoBytesPerDimension() {
+        var vector = new float[]{0.0123f, -0.731f, 0.25f, 0.99f};
+
+        for (var vectorType : new RedisVectorStoreProperties.VectorType[]{FLOAT16, BFLOAT16}) {
+            var encoded = VectorEncoding.encode(vectorType, vector);
+            var decoded = VectorEncoding.decode(vectorType, encoded);
+
+            assertThat(encoded).hasSize(vector.length * Short.BYTES);
+            for (int i = 0; i < vector.length; i++) {
+                assertThat(decoded[i]).isCloseTo(vector[i], within(Math.abs(vector[i]) / 100));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.giova333.semanticcache.redis.starter.autoconfiguration;
+
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SemanticCacheInstrumentation} that records into a Micrometer {@link MeterRegistry}.
+ * Meters are registered once up front, so recording does not look them up on the request path.
+ *
+ * <ul>
+ *     <li>{@code semantic.cache.gets} counter tagged with {@code result} = {@code hit}, {@code exact-hit},
+ *     {@code negative-hit} or {@code miss}</li>
+ *     <li>{@code semantic.cache.similarity.score} summary of the best match score, to tune the similarity threshold</li>
+ *     <li>{@code semantic.cache.embedding}, {@code semantic.cache.search} and {@code semantic.cache.write} timers</li>
+ *     <li>{@code semantic.cache.expired.filtered} counter of expired documents skipped by lookups</li>
+ *     <li>{@code semantic.cache.admission.rejected} counter of writes dropped by the admission policy</li>
+ *     <li>{@code semantic.cache.write.behind.dropped} counter of queued writes dropped by the write-behind cache</li>
+ * </ul>
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class MicrometerSemanticCacheInstrumentation implements SemanticCacheInstrumentation {
+
+    private static final double[] SCORE_BUCKETS = {0.5, 0.6, 0.7, 0.75, 0.8, 0.85, 0.9, 0.925, 0.95, 0.975, 0.99};
+
+    Counter hits;
+    Counter exactMatchHits;
+    Counter negativeCacheHits;
+    Counter misses;
+    DistributionSummary scores;
+    Timer embedding;
+    Timer search;
+    Timer write;
+    Counter expiredFiltered;
+    Counter admissionRejected;
+    Counter writeBehindDropped;
+
+    public MicrometerSemanticCacheInstrumentation(MeterRegistry registry) {
+        this.hits = gets(registry, "hit");
+        this.exactMatchHits = gets(registry, "exact-hit");
+        this.negativeCacheHits = gets(registry, "negative-hit");
+        this.misses = gets(registry, "miss");
+        this.scores = DistributionSummary.builder("semantic.cache.similarity.score")
+                .description("Similarity score of the best match of a lookup")
+                .serviceLevelObjectives(SCORE_BUCKETS)
+                .register(registry);
+        this.embedding = timer(registry, "semantic.cache.embedding", "Time spent embedding keys");
+        this.search = timer(registry, "semantic.cache.search", "Time spent in vector store lookups");
+        this.write = timer(registry, "semantic.cache.write", "Time spent writing to the vector store");
+        this.expiredFiltered = Counter.builder("semantic.cache.expired.filtered")
+                .description("Expired documents returned by the vector store and skipped")
+                .register(registry);
+        this.admissionRejected = Counter.builder("semantic.cache.admission.rejected")
+                .description("Writes dropped by the admission policy")
+                .register(registry);
+        this.writeBehindDropped = Counter.builder("semantic.cache.write.behind.dropped")
+                .description("Queued writes dropped because the write-behind queue was full or their flush failed")
+                .register(registry);
+    }
+
+    @Override
+    public void hit() {
+        hits.increment();
+    }
+
+    @Override
+    public void exactMatchHit() {
+        exactMatchHits.increment();
+    }
+
+    @Override
+    public void negativeCacheHit() {
+        negativeCacheHits.increment();
+    }
+
+    @Override
+    public void miss() {
+        misses.increment();
+    }
+
+    @Override
+    public void bestMatchScore(double score) {
+        scores.record(score);
+    }
+
+    @Override
+    public void embeddingDuration(long nanos) {
+        embedding.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void searchDuration(long nanos) {
+        search.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void writeDuration(long nanos) {
+        write.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void expiredDocumentsFiltered(int count) {
+        expiredFiltered.increment(count);
+    }
+
+    @Override
+    public void admissionRejected() {
+        admissionRejected.increment();
+    }
+
+    @Override
+    public void writeBehindDropped(int count) {
+        writeBehindDropped.increment(count);
+    }
+
+    private static Counter gets(MeterRegistry registry, String result) {
+        return Counter.builder("semantic.cache.gets")
+                .description("Cache lookups by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -1,37 +1,188 @@
 package io.github.giova333.semanticcache.redis.starter.autoconfiguration;
 
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import io.github.giova333.semanticcache.core.AdmissionPolicy;
+import io.github.giova333.semanticcache.core.BatchingEmbeddingModel;
+import io.github.giova333.semanticcache.core.CachingEmbeddingModel;
 import io.github.giova333.semanticcache.core.DefaultSemanticCache;
+import io.github.giova333.semanticcache.core.EmbeddingBatchingProperties;
+import io.github.giova333.semanticcache.core.EmbeddingCacheProperties;
+import io.github.giova333.semanticcache.core.ExactMatchCache;
+import io.github.giova333.semanticcache.core.ExactMatchCacheProperties;
+import io.github.giova333.semanticcache.core.FrequencyAdmissionPolicy;
+import io.github.giova333.semanticcache.core.FrequencyAdmissionProperties;
+import io.github.giova333.semanticcache.core.NegativeCache;
+import io.github.giova333.semanticcache.core.NegativeCacheProperties;
 import io.github.giova333.semanticcache.core.SemanticCache;
+import io.github.giova333.semanticcache.core.SemanticCacheInstrumentation;
 import io.github.giova333.semanticcache.core.VectorStore;
+import io.github.giova333.semanticcache.core.WriteBehindProperties;
+import io.github.giova333.semanticcache.core.WriteBehindSemanticCache;
+import io.github.giova333.semanticcache.persistence.redis.LettuceRedisVectorStore;
 import io.github.giova333.semanticcache.persistence.redis.RedisVectorStore;
 import io.github.giova333.semanticcache.persistence.redis.RedisVectorStoreProperties;
+import io.github.giova333.semanticcache.persistence.redis.ReplicatedRedisVectorStore;
+import io.github.giova333.semanticcache.persistence.redis.ShardedRedisVectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureOrder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
 @AutoConfiguration
 @AutoConfigureOrder(Ordered.LOWEST_PRECEDENCE)
 public class RedisSemanticCacheAutoConfiguration {
 
+    static final String BATCHING_EMBEDDING_MODEL = "semanticCacheBatchingEmbeddingModel";
+
     @Bean
     @ConfigurationProperties(prefix = "semantic-cache.redis")
     public RedisVectorStoreProperties redisVectorStoreProperties() {
         return new RedisVectorStoreProperties();
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public VectorStore vectorStore(RedisVectorStoreProperties properties,
+                                   ObjectProvider<SemanticCacheInstrumentation> instrumentation) {
+        var storeInstrumentation = instrumentation.getIfAvailable(() -> SemanticCacheInstrumentation.NOOP);
+        if (properties.getClient() == RedisVectorStoreProperties.Client.LETTUCE) {
+            return new LettuceRedisVectorStore(properties, UUID::randomUUID, storeInstrumentation);
+        }
+        if (properties.isLocalIndex()) {
+            return new ReplicatedRedisVectorStore(properties, UUID::randomUUID, storeInstrumentation);
+        }
+        return properties.getShards().isEmpty()
+                ? new RedisVectorStore(properties, UUID::randomUUID, storeInstrumentation)
+                : new ShardedRedisVectorStore(properties, UUID::randomUUID, storeInstrumentation);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "semantic-cache.exact-match")
+    @ConditionalOnProperty(prefix = "semantic-cache.exact-match", name = "enabled", havingValue = "true")
+    public ExactMatchCacheProperties exactMatchCacheProperties() {
+        return new ExactMatchCacheProperties();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "semantic-cache.exact-match", name = "enabled", havingValue = "true")
+    public ExactMatchCache exactMatchCache(ExactMatchCacheProperties properties) {
+        return new ExactMatchCache(properties);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "semantic-cache.negative-cache")
+    @ConditionalOnProperty(prefix = "semantic-cache.negative-cache", name = "enabled", havingValue = "true")
+    public NegativeCacheProperties negativeCacheProperties() {
+        return new NegativeCacheProperties();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "semantic-cache.negative-cache", name = "enabled", havingValue = "true")
+    public NegativeCache negativeCache(NegativeCacheProperties properties) {
+        return new NegativeCache(properties);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "semantic-cache.embedding-cache")
+    @ConditionalOnProperty(prefix = "semantic-cache.embedding-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public EmbeddingCacheProperties embeddingCacheProperties() {
+        return new EmbeddingCacheProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "semantic-cache.embedding-batching")
+    @ConditionalOnProperty(prefix = "semantic-cache.embedding-batching", name = "enabled", havingValue = "true")
+    public EmbeddingBatchingProperties embeddingBatchingProperties() {
+        return new EmbeddingBatchingProperties();
+    }
+
+    /**
+     * Not an autowire candidate, so it does not compete with the application's {@link EmbeddingModel}.
+     * A bean of its own, so its collector thread is stopped with the context.
+     */
+    @Bean(name = BATCHING_EMBEDDING_MODEL, destroyMethod = "close", autowireCandidate = false)
+    @ConditionalOnProperty(prefix = "semantic-cache.embedding-batching", name = "enabled", havingValue = "true")
+    public BatchingEmbeddingModel semanticCacheBatchingEmbeddingModel(EmbeddingModel embeddingModel,
+                                                                      EmbeddingBatchingProperties properties) {
+        return new BatchingEmbeddingModel(embeddingModel, properties);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "semantic-cache.admission")
+    @ConditionalOnProperty(prefix = "semantic-cache.admission", name = "enabled", havingValue = "true")
+    public FrequencyAdmissionProperties frequencyAdmissionProperties() {
+        return new FrequencyAdmissionProperties();
+    }
+
     @Bean
     @ConditionalOnMissingBean
-    public VectorStore vectorStore(RedisVectorStoreProperties properties) {
-        return new RedisVectorStore(properties);
+    @ConditionalOnProperty(prefix = "semantic-cache.admission", name = "enabled", havingValue = "true")
+    public AdmissionPolicy admissionPolicy(FrequencyAdmissionProperties properties) {
+        return new FrequencyAdmissionPolicy(properties);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "semantic-cache.write-behind")
+    @ConditionalOnProperty(prefix = "semantic-cache.write-behind", name = "enabled", havingValue = "true")
+    public WriteBehindProperties writeBehindProperties() {
+        return new WriteBehindProperties();
     }
 
     @Bean
     public SemanticCache semanticCache(EmbeddingModel embeddingModel,
-                                       VectorStore vectorStore) {
-        return new DefaultSemanticCache(embeddingModel, vectorStore);
+                                       VectorStore vectorStore,
+                                       ObjectProvider<ExactMatchCache> exactMatchCache,
+                                       ObjectProvider<NegativeCache> negativeCache,
+                                       ObjectProvider<EmbeddingCacheProperties> embeddingCacheProperties,
+                                       BeanFactory beanFactory,
+                                       @Qualifier("semanticCacheExecutor") ObjectProvider<Executor> executor,
+                                       ObjectProvider<SemanticCacheInstrumentation> instrumentation,
+                                       ObjectProvider<AdmissionPolicy> admissionPolicy,
+                                       ObjectProvider<WriteBehindProperties> writeBehindProperties) {
+        var batchingModel = beanFactory.containsBean(BATCHING_EMBEDDING_MODEL)
+                ? beanFactory.getBean(BATCHING_EMBEDDING_MODEL, EmbeddingModel.class)
+                : embeddingModel;
+        var cacheProperties = embeddingCacheProperties.getIfAvailable();
+        var semanticCache = DefaultSemanticCache.builder()
+                .embeddingModel(cacheProperties == null ? batchingModel : new CachingEmbeddingModel(batchingModel, cacheProperties))
+                .vectorStore(vectorStore)
+                .exactMatchCache(exactMatchCache.getIfAvailable())
+                .negativeCache(negativeCache.getIfAvailable())
+                .executor(executor.getIfAvailable())
+                .instrumentation(instrumentation.getIfAvailable())
+                .admissionPolicy(admissionPolicy.getIfAvailable())
+                .build();
+        var writeBehind = writeBehindProperties.getIfAvailable();
+        // closed with the context, which flushes the queued writes
+        return writeBehind == null
+                ? semanticCache
+                : new WriteBehindSemanticCache(semanticCache, writeBehind, instrumentation.getIfAvailable());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MicrometerInstrumentationConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean
+        public SemanticCacheInstrumentation semanticCacheInstrumentation(MeterRegistry meterRegistry) {
+            return new MicrometerSemanticCacheInstrumentation(meterRegistry);
+        }
     }
 }